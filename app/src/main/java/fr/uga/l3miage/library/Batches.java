@@ -0,0 +1,55 @@
+package fr.uga.l3miage.library;
+
+import fr.uga.l3miage.library.service.base.Batch;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lookups of several objects by id in one request, with the {@code ids} query parameter of the list endpoints.
+ * <p>
+ * The response holds the objects found, in the order of the ids. The ids matching no object are listed in the
+ * {@value #MISSING} header instead of failing the whole request.
+ */
+public final class Batches {
+
+    public static final String MISSING = "X-Missing-Ids";
+
+    private Batches() {
+        // static helpers only
+    }
+
+    /**
+     * Checks the number of requested ids.
+     *
+     * @throws ResponseStatusException (bad request) when there are none or more than {@value Cursors#MAX_LIMIT}
+     */
+    public static List<Long> ids(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > Cursors.MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "between 1 and " + Cursors.MAX_LIMIT + " ids can be requested at once");
+        }
+        return ids;
+    }
+
+    /**
+     * The response of a lookup, with the missing ids if any.
+     *
+     * @param batch  the batch returned by a service
+     * @param mapper maps an entity to its DTO
+     * @return the DTOs of the objects found
+     */
+    public static <O, D> ResponseEntity<List<D>> ok(Batch<O, Long> batch, Function<O, D> mapper) {
+        List<D> body = batch.content().stream().map(mapper).toList();
+        if (batch.missing().isEmpty()) {
+            return ResponseEntity.ok(body);
+        }
+        return ResponseEntity.ok()
+                .header(MISSING, batch.missing().stream().map(String::valueOf).collect(Collectors.joining(",")))
+                .body(body);
+    }
+}
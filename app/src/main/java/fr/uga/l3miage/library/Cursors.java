@@ -0,0 +1,91 @@
+package fr.uga.l3miage.library;
+
+import fr.uga.l3miage.library.service.base.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination of the list endpoints.
+ * <p>
+ * A page is requested with the {@code limit} and {@code after} query parameters, {@code after} being the opaque
+ * cursor handed in the {@code Link} header (rel {@code next}) of the previous page. The last page has no such link.
+ */
+public final class Cursors {
+
+    public static final String DEFAULT_LIMIT = "100";
+    public static final int MAX_LIMIT = 1000;
+    /* the full-text searches return their best hits only, without pages */
+    public static final String DEFAULT_SEARCH_LIMIT = "20";
+    public static final String DEFAULT_SUGGEST_LIMIT = "10";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private Cursors() {
+        // static helpers only
+    }
+
+    /**
+     * The id a cursor points after.
+     *
+     * @param cursor the cursor of the previous page, or null for the first page
+     * @return the id or null
+     * @throws ResponseStatusException (bad request) when the cursor was not issued by this API
+     */
+    public static Long after(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(DECODER.decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor", e);
+        }
+    }
+
+    /**
+     * Checks a requested page size.
+     *
+     * @throws ResponseStatusException (bad request) when the limit is out of [1, {@value #MAX_LIMIT}]
+     */
+    public static int limit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    static String encode(Long id) {
+        return ENCODER.encodeToString(id.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * The response of a page, with a link to the next page if any.
+     *
+     * @param page   the page returned by a service
+     * @param mapper maps an entity to its DTO
+     * @return the DTOs of the page
+     */
+    public static <O, D> ResponseEntity<List<D>> ok(Page<O, Long> page, Function<O, D> mapper) {
+        List<D> body = page.content().stream().map(mapper).toList();
+        if (page.next() == null) {
+            return ResponseEntity.ok(body);
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", encode(page.next()))
+                // the request query is already encoded, as is the url-safe cursor
+                .build(true)
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,68 @@
+package fr.uga.l3miage.library;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.base.BaseService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Weak entity tags of the responses, derived from the versions maintained by the services.
+ * <p>
+ * The tags are weak because a response may be sent gzipped or not, with the same content but other bytes; Tomcat
+ * does not compress the responses holding a strong tag. Controllers pass them to {@link org.springframework.web.context.request.WebRequest#checkNotModified(String)}
+ * before mapping anything, and return nothing when the client already holds the current representation.
+ */
+public final class ETags {
+
+    private ETags() {
+        // static helpers only
+    }
+
+    public static String of(Author author) {
+        return weak("a" + author.getId() + "." + author.getVersion());
+    }
+
+    /**
+     * A book representation embeds the names of its authors, so their versions are part of the tag.
+     */
+    public static String of(Book book) {
+        long authors = 0;
+        if (book.getAuthors() != null) {
+            for (Author author : book.getAuthors()) {
+                // order independent
+                authors += mix(author.getId() * 31 + author.getVersion());
+            }
+        }
+        return weak("b" + book.getId() + "." + book.getVersion() + "." + Long.toHexString(authors));
+    }
+
+    /**
+     * The tag of any list or search of a service, valid until one of its objects is written.
+     */
+    public static String of(BaseService<?, ?> service) {
+        return weak("v" + service.version());
+    }
+
+    /**
+     * The tag of a list that can be sent as JSON or CBOR, which are different representations: the tag follows the
+     * {@code Accept} header the representation is negotiated from.
+     */
+    public static String of(BaseService<?, ?> service, WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        boolean cbor = accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE);
+        return weak("v" + service.version() + (cbor ? ".cbor" : ""));
+    }
+
+    private static String weak(String tag) {
+        return "W/\"" + tag + "\"";
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -2,6 +2,7 @@ package fr.uga.l3miage.library.authors;
 
 import fr.uga.l3miage.data.domain.Author;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.Collection;
 
@@ -11,6 +12,9 @@ public interface AuthorMapper {
 
     Collection<AuthorDTO> entityToDTO(Iterable<Author> authors);
 
+    /* the version is maintained by the services, the books are linked through their own endpoints */
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "books", ignore = true)
     Author dtoToEntity(AuthorDTO author);
 
     Collection<Author> dtoToEntity(Iterable<AuthorDTO> authors);
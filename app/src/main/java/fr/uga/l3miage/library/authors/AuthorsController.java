@@ -2,18 +2,27 @@ package fr.uga.l3miage.library.authors;
 
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.Batches;
+import fr.uga.l3miage.library.Cursors;
+import fr.uga.l3miage.library.ETags;
 import fr.uga.l3miage.library.books.BookDTO;
 import fr.uga.l3miage.library.books.BooksMapper;
 import fr.uga.l3miage.library.service.AuthorService;
 import fr.uga.l3miage.library.service.BookService;
 import fr.uga.l3miage.library.service.DeleteAuthorException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping(value = "/api/v1", produces = "application/json")
@@ -33,20 +42,49 @@ public class AuthorsController {
         this.bookService = bookService;
     }
 
-    /* Get all authors */
+    /* Get all authors, page by page (see Cursors), or those of the given ids (see Batches) */
     @GetMapping("/authors")
-    public Collection<AuthorDTO> authors(@RequestParam(value = "q", required = false) String query) {
-        Collection<Author> authors;
+    public ResponseEntity<List<AuthorDTO>> authors(@RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", defaultValue = Cursors.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "ids", required = false) List<Long> ids, WebRequest request) {
+        if (request.checkNotModified(ETags.of(authorService))) {
+            return null;
+        }
+        if (ids != null) {
+            return Batches.ok(authorService.getAll(Batches.ids(ids)), authorMapper::entityToDTO);
+        }
+        Long afterId = Cursors.after(after);
+        Page<Author, Long> authors;
         if (query == null) {
-            authors = authorService.list();
+            authors = authorService.list(afterId, Cursors.limit(limit));
         } else {
-            authors = authorService.searchByName(query);
+            authors = authorService.searchByName(query, afterId, Cursors.limit(limit));
+        }
+        return Cursors.ok(authors, authorMapper::entityToDTO);
+    }
+
+    /* Full-text search of the authors by name, the most relevant first, see AuthorService#search */
+    @GetMapping("/authors/search")
+    public List<AuthorDTO> searchAuthors(@RequestParam("q") String query,
+            @RequestParam(value = "mode", defaultValue = "terms") SearchMode mode,
+            @RequestParam(value = "limit", defaultValue = Cursors.DEFAULT_SEARCH_LIMIT) int limit,
+            WebRequest request) {
+        if (request.checkNotModified(ETags.of(authorService))) {
+            return null;
         }
-        return authors.stream()
+        return authorService.search(query, mode, Cursors.limit(limit)).stream()
                 .map(authorMapper::entityToDTO)
                 .toList();
     }
 
+    /* Complete the names being typed, with the ids only, see AuthorService#suggest */
+    @GetMapping("/authors/suggest")
+    public List<Suggestion> suggestAuthors(@RequestParam("q") String prefix,
+            @RequestParam(value = "limit", defaultValue = Cursors.DEFAULT_SUGGEST_LIMIT) int limit) {
+        return authorService.suggest(prefix, Cursors.limit(limit));
+    }
+
     /* Get an author */
     /*
      * récupérer la liste des livres que l'auteur à écrit. Si la liste n'est pas
@@ -54,13 +92,16 @@ public class AuthorsController {
      * bon apparement c'est déjà pris en compte
      */
     @GetMapping("/authors/{id}")
-    public AuthorDTO author(@PathVariable("id") Long id) {
+    public AuthorDTO author(@PathVariable("id") Long id, WebRequest request) {
         Author author = null;
         try {
             author = authorService.get(id);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
+        if (request.checkNotModified(ETags.of(author))) {
+            return null;
+        }
         return authorMapper.entityToDTO(author);
     }
 
@@ -112,24 +153,31 @@ public class AuthorsController {
      * Requête pour récupérer la liste des livres associés à l'id de l'autheur donné
      * en paramètre
      */
-    @GetMapping("/authors/{id}/books")
-    public Collection<BookDTO> books(@PathVariable("id") Long authorId,
-            @RequestParam(value = "q", required = false) String query) {
-        Collection<Book> books;
+    @GetMapping(value = "/authors/{id}/books",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<BookDTO>> books(@PathVariable("id") Long authorId,
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", defaultValue = Cursors.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "after", required = false) String after, WebRequest request) {
+        if (request.checkNotModified(ETags.of(bookService, request))) {
+            return null;
+        }
+        Long afterId = Cursors.after(after);
+        Page<Book, Long> books;
         if (query == null) {
             try {
-                books = bookService.getByAuthor(authorId);
+                books = bookService.getByAuthor(authorId, afterId, Cursors.limit(limit));
             } catch (EntityNotFoundException e) {
                 throw new ResponseStatusException((HttpStatus.NOT_FOUND));
             }
         } else {
             try {
-                books = bookService.findByAuthor(authorId, query);
+                books = bookService.findByAuthor(authorId, query, afterId, Cursors.limit(limit));
             } catch (EntityNotFoundException e) {
                 throw new ResponseStatusException((HttpStatus.NOT_FOUND));
             }
         }
-        return booksMapper.entityToDTO(books);
+        return Cursors.ok(books, booksMapper::entityToDTO);
     }
 
     /*
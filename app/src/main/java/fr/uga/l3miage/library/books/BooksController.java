@@ -1,27 +1,50 @@
 package fr.uga.l3miage.library.books;
 
 import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.Batches;
+import fr.uga.l3miage.library.Cursors;
+import fr.uga.l3miage.library.ETags;
 import fr.uga.l3miage.library.authors.AuthorDTO;
 import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.BookFilter;
+import fr.uga.l3miage.library.service.search.Facets;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "/api/v1", produces = "application/json")
 public class BooksController {
 
+    static final String NDJSON = "application/x-ndjson";
+    /* the most ISBNs checked by one request */
+    static final int MAX_ISBNS = 100_000;
+
     private final BookService bookService;
     private final BooksMapper booksMapper;
+    private final BooksExporter booksExporter;
 
     @Autowired
-    public BooksController(BookService bookService, BooksMapper booksMapper) {
+    public BooksController(BookService bookService, BooksMapper booksMapper, BooksExporter booksExporter) {
         this.bookService = bookService;
         this.booksMapper = booksMapper;
+        this.booksExporter = booksExporter;
     }
 
     /* Find all books, possibly filtered by name */
@@ -29,30 +52,140 @@ public class BooksController {
      * Requête qui permet de récupérer tous les livres si l'argument query et
      * absent, ou les livres ayant le titre donné
      * par le paramètre query
+     * Les résultats sont paginés, voir Cursors
+     * Avec le paramètre ids, les livres demandés sont renvoyés en une fois, voir Batches
+     * Les paramètres language, publisher, yearFrom et yearTo filtrent les livres, avec le titre s'il est donné
      */
-    @GetMapping("/books")
-    public Collection<BookDTO> books(@RequestParam(value = "q", required = false) String query) {
-        Collection<Book> books;
-        if (query == null) {
-            books = bookService.list();
+    @GetMapping(value = "/books", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<BookDTO>> books(@RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "language", required = false) List<String> languages,
+            @RequestParam(value = "publisher", required = false) List<String> publishers,
+            @RequestParam(value = "yearFrom", required = false) Short yearFrom,
+            @RequestParam(value = "yearTo", required = false) Short yearTo,
+            @RequestParam(value = "limit", defaultValue = Cursors.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "ids", required = false) List<Long> ids, WebRequest request) {
+        // nothing was written since the client got this page
+        if (request.checkNotModified(ETags.of(bookService, request))) {
+            return null;
+        }
+        if (ids != null) {
+            return Batches.ok(bookService.getAll(Batches.ids(ids)), booksMapper::entityToDTO);
+        }
+        Long afterId = Cursors.after(after);
+        BookFilter filter = filter(query, languages, publishers, yearFrom, yearTo);
+        Page<Book, Long> books;
+        if (filter.hasFacets()) {
+            books = bookService.findByFilter(filter, afterId, Cursors.limit(limit));
+        } else if (query == null) {
+            books = bookService.list(afterId, Cursors.limit(limit));
         } else {
-            books = bookService.findByTitle(query);
+            books = bookService.findByTitle(query, afterId, Cursors.limit(limit));
+        }
+        return Cursors.ok(books, booksMapper::entityToDTO);
+    }
+
+    /* Count the books of each language, publisher and year, see BookService#countFacets */
+    /*
+     * Mêmes filtres que la liste des livres ; les comptes d'une facette ignorent son propre filtre
+     */
+    @GetMapping("/books/facets")
+    public FacetsDTO bookFacets(@RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "language", required = false) List<String> languages,
+            @RequestParam(value = "publisher", required = false) List<String> publishers,
+            @RequestParam(value = "yearFrom", required = false) Short yearFrom,
+            @RequestParam(value = "yearTo", required = false) Short yearTo,
+            WebRequest request) {
+        if (request.checkNotModified(ETags.of(bookService, request))) {
+            return null;
+        }
+        Facets facets = bookService.countFacets(filter(query, languages, publishers, yearFrom, yearTo));
+        Map<String, Integer> languageCounts = new LinkedHashMap<>();
+        facets.languages().forEach((language, count) ->
+                languageCounts.put(booksMapper.enumToString(language), count));
+        return new FacetsDTO(facets.total(), languageCounts, facets.publishers(), facets.years());
+    }
+
+    /* Full-text search of the books, the most relevant first, see BookService#search */
+    /*
+     * Les mots de q sont cherchés dans le titre et l'éditeur ; mode=prefix complète le dernier mot,
+     * mode=fuzzy tolère les fautes de frappe
+     */
+    @GetMapping(value = "/books/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public List<BookDTO> searchBooks(@RequestParam("q") String query,
+            @RequestParam(value = "mode", defaultValue = "terms") SearchMode mode,
+            @RequestParam(value = "limit", defaultValue = Cursors.DEFAULT_SEARCH_LIMIT) int limit,
+            WebRequest request) {
+        if (request.checkNotModified(ETags.of(bookService, request))) {
+            return null;
         }
-        return books.stream()
+        return bookService.search(query, mode, Cursors.limit(limit)).stream()
                 .map(booksMapper::entityToDTO)
                 .toList();
     }
 
+    /* Complete the titles being typed, with the ids only, see BookService#suggest */
+    @GetMapping("/books/suggest")
+    public List<Suggestion> suggestBooks(@RequestParam("q") String prefix,
+            @RequestParam(value = "limit", defaultValue = Cursors.DEFAULT_SUGGEST_LIMIT) int limit) {
+        return bookService.suggest(prefix, Cursors.limit(limit));
+    }
+
+    /* Export all books as a JSON array, written while they are read */
+    @GetMapping(value = "/books/export", produces = "application/json")
+    public StreamingResponseBody exportBooks() {
+        return booksExporter::writeArray;
+    }
+
+    /* Export all books as newline delimited JSON, one book per line */
+    @GetMapping(value = "/books/export", produces = NDJSON)
+    public StreamingResponseBody exportBookLines() {
+        return booksExporter::writeLines;
+    }
+
+    /* Get the book holding an ISBN */
+    @GetMapping("/books/isbn/{isbn}")
+    public BookDTO bookByIsbn(@PathVariable("isbn") long isbn, WebRequest request) {
+        Book book;
+        try {
+            book = bookService.getByIsbn(isbn);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        if (request.checkNotModified(ETags.of(book))) {
+            return null;
+        }
+        return booksMapper.entityToDTO(book);
+    }
+
+    /* Tell which ISBNs are held by a book, see BookService#findExistingIsbns */
+    /*
+     * Le corps est un tableau JSON d'ISBN (jusqu'à MAX_ISBNS), la réponse ceux qui existent déjà, dans le même
+     * ordre
+     */
+    @PostMapping(value = "/books/isbn/exists", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public long[] existingIsbns(@RequestBody long[] isbns) {
+        if (isbns.length > MAX_ISBNS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "at most " + MAX_ISBNS + " ISBNs can be checked at once");
+        }
+        return bookService.findExistingIsbns(isbns);
+    }
+
     /* Get a book */
     /* Requête pour récupérer un livre par rapport à son id */
     @GetMapping("/books/{id}")
-    public BookDTO book(@PathVariable("id") Long id) {
+    public BookDTO book(@PathVariable("id") Long id, WebRequest request) {
         Book book = null;
         try {
             book = bookService.get(id);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
+        // 304 sans mapping ni sérialisation si le client a déjà cette version
+        if (request.checkNotModified(ETags.of(book))) {
+            return null;
+        }
         return booksMapper.entityToDTO(book);
     }
 
@@ -73,10 +206,28 @@ public class BooksController {
             newBook = bookService.save(authorId, newBook);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        } catch (DuplicateIsbnException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
         }
         return booksMapper.entityToDTO(newBook);
     }
 
+    /*
+     * Filtre des paramètres de la liste et des facettes ; une langue inconnue est une mauvaise requête
+     */
+    private BookFilter filter(String query, List<String> languages, List<String> publishers, Short yearFrom,
+            Short yearTo) {
+        Set<Book.Language> accepted = null;
+        if (languages != null) {
+            try {
+                accepted = languages.stream().map(booksMapper::stringToEnum).collect(Collectors.toSet());
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unknown language", e);
+            }
+        }
+        return new BookFilter(query, accepted, publishers == null ? null : Set.copyOf(publishers), yearFrom, yearTo);
+    }
+
     /*
      * Test avant conversion en entité pour la requete gérée par newBook()
      * Title, langage et year sont des champs requis. Si year n'est pas donné il
@@ -89,7 +240,7 @@ public class BooksController {
      * une autre fois FRENCH.
      * Alors que le type Langage enum c'est FRENCH ou ENGLISH
      */
-    private boolean isAValidBook(BookDTO book) {
+    public static boolean isAValidBook(BookDTO book) {
         boolean isValid = true;
         if (book.title() == null) {
             isValid = false;
@@ -119,6 +270,8 @@ public class BooksController {
             bookTmp = bookService.addAuthor(bookTmp.getId(), authorId);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        } catch (DuplicateIsbnException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
         }
         return booksMapper.entityToDTO(bookTmp);
     }
@@ -0,0 +1,82 @@
+package fr.uga.l3miage.library.books;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.base.Page;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalogue while it is read from the service, so that neither the books nor their DTOs are
+ * ever all held in memory.
+ */
+@Component
+public class BooksExporter {
+
+    /**
+     * Number of books read from the service at once, the output is also flushed at that pace so that the first
+     * bytes are sent as soon as the first page is written.
+     */
+    static final int PAGE_SIZE = 500;
+
+    private final BookService bookService;
+    private final BooksMapper booksMapper;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BooksExporter(BookService bookService, BooksMapper booksMapper, ObjectMapper objectMapper) {
+        this.bookService = bookService;
+        this.booksMapper = booksMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes all the books as a JSON array.
+     */
+    public void writeArray(OutputStream out) throws IOException {
+        try (JsonGenerator generator = generator(out)) {
+            generator.writeStartArray();
+            write(generator, false);
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Writes all the books as newline delimited JSON, one book per line.
+     */
+    public void writeLines(OutputStream out) throws IOException {
+        try (JsonGenerator generator = generator(out)) {
+            generator.setRootValueSeparator(null);
+            write(generator, true);
+        }
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        return objectMapper.getFactory()
+                .createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private void write(JsonGenerator generator, boolean lines) throws IOException {
+        try (Stream<Book> books = Page.stream(bookService, PAGE_SIZE)) {
+            Iterator<Book> iterator = books.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                generator.writeObject(booksMapper.entityToDTO(iterator.next()));
+                if (lines) {
+                    generator.writeRaw('\n');
+                }
+                if (++written % PAGE_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+}
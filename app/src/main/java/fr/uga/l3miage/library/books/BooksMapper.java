@@ -11,6 +11,8 @@ public interface BooksMapper {
 
     Collection<BookDTO> entityToDTO(Iterable<Book> books);
 
+    /* the version is maintained by the services */
+    @Mapping(target = "version", ignore = true)
     Book dtoToEntity(BookDTO book);
 
     Collection<Book> dtoToEntity(Iterable<BookDTO> books);
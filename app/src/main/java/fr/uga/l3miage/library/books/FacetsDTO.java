@@ -0,0 +1,11 @@
+package fr.uga.l3miage.library.books;
+
+import java.util.Map;
+
+public record FacetsDTO(
+        int total,
+        Map<String, Integer> languages,
+        Map<String, Integer> publishers,
+        Map<Short, Integer> years
+) {
+}
@@ -0,0 +1,22 @@
+package fr.uga.l3miage.library.borrowers;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface BorrowerMapper {
+    BorrowerDTO entityToDTO(Borrower borrower);
+
+    /*
+     * the ratio and its counters are maintained as borrows are returned, never given, the version by the services,
+     * and the birth and gender are not part of the API
+     */
+    @Mapping(target = "lateRatio", ignore = true)
+    @Mapping(target = "onTimeReturns", ignore = true)
+    @Mapping(target = "lateReturns", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "birth", ignore = true)
+    @Mapping(target = "gender", ignore = true)
+    Borrower dtoToEntity(BorrowerDTO borrower);
+}
@@ -0,0 +1,84 @@
+package fr.uga.l3miage.library.borrowers;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.Cursors;
+import fr.uga.l3miage.library.borrows.BorrowDTO;
+import fr.uga.l3miage.library.borrows.BorrowMapper;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class BorrowersController {
+
+    private final BorrowerService borrowerService;
+    private final BorrowerMapper borrowerMapper;
+    private final BorrowService borrowService;
+    private final BorrowMapper borrowMapper;
+
+    @Autowired
+    public BorrowersController(BorrowerService borrowerService, BorrowerMapper borrowerMapper,
+            BorrowService borrowService, BorrowMapper borrowMapper) {
+        this.borrowerService = borrowerService;
+        this.borrowerMapper = borrowerMapper;
+        this.borrowService = borrowService;
+        this.borrowMapper = borrowMapper;
+    }
+
+    /* Get all borrowers, page by page (see Cursors) */
+    @GetMapping("/borrowers")
+    public ResponseEntity<List<BorrowerDTO>> borrowers(
+            @RequestParam(value = "limit", defaultValue = Cursors.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "after", required = false) String after) {
+        return Cursors.ok(borrowerService.list(Cursors.after(after), Cursors.limit(limit)),
+                borrowerMapper::entityToDTO);
+    }
+
+    /* Get the borrowers returning the most borrows late, the latest first */
+    @GetMapping("/borrowers/late")
+    public Collection<BorrowerDTO> lateBorrowers(@RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return borrowerService.getMostLate(Cursors.limit(limit)).stream()
+                .map(borrowerMapper::entityToDTO)
+                .toList();
+    }
+
+    /* Get a borrower */
+    @GetMapping("/borrowers/{id}")
+    public BorrowerDTO borrower(@PathVariable("id") Long id) {
+        try {
+            return borrowerMapper.entityToDTO(borrowerService.get(id));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /* Register a borrower */
+    @PostMapping("/borrowers")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BorrowerDTO newBorrower(@RequestBody BorrowerDTO borrower) {
+        if (borrower.lastName() == null || borrower.lastName().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+        Borrower saved = borrowerService.save(borrowerMapper.dtoToEntity(borrower));
+        return borrowerMapper.entityToDTO(saved);
+    }
+
+    /* Get the borrows of a borrower that are not returned yet */
+    @GetMapping("/borrowers/{id}/borrows")
+    public Collection<BorrowDTO> activeBorrows(@PathVariable("id") Long id) {
+        try {
+            return borrowMapper.entityToDTO(borrowService.getActiveByBorrower(id));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+}
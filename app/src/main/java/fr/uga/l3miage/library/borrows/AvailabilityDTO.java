@@ -0,0 +1,7 @@
+package fr.uga.l3miage.library.borrows;
+
+public record AvailabilityDTO(
+        Long book,
+        boolean available
+) {
+}
@@ -0,0 +1,18 @@
+package fr.uga.l3miage.library.borrows;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * A borrow, its borrower and books being given by id.
+ */
+public record BorrowDTO(
+        Long id,
+        Long borrower,
+        Collection<Long> books,
+        Date start,
+        Date end,
+        Date returned,
+        boolean late
+) {
+}
@@ -0,0 +1,20 @@
+package fr.uga.l3miage.library.borrows;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.Collection;
+
+@Mapper(componentModel = "spring")
+public interface BorrowMapper {
+    @Mapping(target = "borrower", source = "borrower.id")
+    BorrowDTO entityToDTO(Borrow borrow);
+
+    Collection<BorrowDTO> entityToDTO(Iterable<Borrow> borrows);
+
+    default Long bookId(Book book) {
+        return book.getId();
+    }
+}
@@ -0,0 +1,106 @@
+package fr.uga.l3miage.library.borrows;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.library.Cursors;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class BorrowsController {
+
+    private final BorrowService borrowService;
+    private final BorrowMapper borrowMapper;
+
+    @Autowired
+    public BorrowsController(BorrowService borrowService, BorrowMapper borrowMapper) {
+        this.borrowService = borrowService;
+        this.borrowMapper = borrowMapper;
+    }
+
+    /* Get all borrows, page by page (see Cursors) */
+    @GetMapping("/borrows")
+    public ResponseEntity<List<BorrowDTO>> borrows(
+            @RequestParam(value = "limit", defaultValue = Cursors.DEFAULT_LIMIT) int limit,
+            @RequestParam(value = "after", required = false) String after) {
+        return Cursors.ok(borrowService.list(Cursors.after(after), Cursors.limit(limit)), borrowMapper::entityToDTO);
+    }
+
+    /* Get the borrows not returned in time */
+    @GetMapping("/borrows/overdue")
+    public Collection<BorrowDTO> overdue() {
+        return borrowMapper.entityToDTO(borrowService.getOverdue(new Date()));
+    }
+
+    /* Get a borrow */
+    @GetMapping("/borrows/{id}")
+    public BorrowDTO borrow(@PathVariable("id") Long id) {
+        try {
+            return borrowMapper.entityToDTO(borrowService.get(id));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /* Check books out, all of them or none if one is already borrowed */
+    @PostMapping("/borrows")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BorrowDTO checkout(@RequestBody BorrowDTO borrow) {
+        if (borrow.borrower() == null || borrow.books() == null || borrow.books().isEmpty() || borrow.end() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return borrowMapper.entityToDTO(borrowService.checkout(borrow.borrower(), borrow.books(), borrow.end()));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        } catch (BookUnavailableException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /* Change the date a borrow is due */
+    @PutMapping("/borrows/{id}")
+    public BorrowDTO renew(@PathVariable("id") Long id, @RequestBody BorrowDTO borrow) {
+        if (!id.equals(borrow.id()) || borrow.end() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+        Borrow renewal = new Borrow();
+        renewal.setId(id);
+        renewal.setEnd(borrow.end());
+        try {
+            return borrowMapper.entityToDTO(borrowService.update(renewal));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /* Give the books of a borrow back */
+    @PostMapping("/borrows/{id}/return")
+    public BorrowDTO giveBack(@PathVariable("id") Long id) {
+        try {
+            return borrowMapper.entityToDTO(borrowService.returnBorrow(id));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /* Tell whether a book can be borrowed */
+    @GetMapping("/books/{id}/availability")
+    public AvailabilityDTO availability(@PathVariable("id") Long bookId) {
+        try {
+            return new AvailabilityDTO(bookId, borrowService.isAvailable(bookId));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+}
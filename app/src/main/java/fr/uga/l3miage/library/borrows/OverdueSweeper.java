@@ -0,0 +1,35 @@
+package fr.uga.l3miage.library.borrows;
+
+import fr.uga.l3miage.library.service.BorrowService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Flags the borrows that became overdue since the previous sweep, every {@code library.borrows.sweep-interval}.
+ * Each sweep only visits those borrows, not all the active ones.
+ */
+@Component
+public class OverdueSweeper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OverdueSweeper.class);
+
+    private final BorrowService borrowService;
+
+    @Autowired
+    public OverdueSweeper(BorrowService borrowService) {
+        this.borrowService = borrowService;
+    }
+
+    @Scheduled(fixedDelayString = "${library.borrows.sweep-interval:PT1M}")
+    public void sweep() {
+        int flagged = borrowService.flagOverdue(new Date());
+        if (flagged > 0) {
+            LOG.info("{} borrows became overdue", flagged);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Puts the caches in front of whichever services the build profile provides, when {@code library.cache.enabled}
+ * is set (e.g. in the {@code application-<profile>.properties} of a Spring profile).
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.cache.enabled", havingValue = "true")
+public class CacheConfig {
+
+    @Bean
+    public LibraryCaches libraryCaches(@Value("${library.cache.maximum-size:10000}") long maximumSize,
+            @Value("${library.cache.ttl:10m}") Duration ttl) {
+        return new LibraryCaches(maximumSize, ttl);
+    }
+
+    /* static, as a post processor must not wait for this configuration to be created */
+    @Bean
+    public static BeanPostProcessor cachingServices(ObjectProvider<LibraryCaches> caches) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof AuthorService authorService && !(bean instanceof CachingAuthorService)) {
+                    return new CachingAuthorService(authorService, caches.getObject());
+                }
+                if (bean instanceof BookService bookService && !(bean instanceof CachingBookService)) {
+                    return new CachingBookService(bookService, caches.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
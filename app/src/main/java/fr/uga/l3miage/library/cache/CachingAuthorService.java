@@ -0,0 +1,72 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
+
+import java.util.Collection;
+import java.util.List;
+
+public class CachingAuthorService extends CachingService<Author, Long, AuthorService> implements AuthorService {
+
+    private final LibraryCaches caches;
+
+    public CachingAuthorService(AuthorService delegate, LibraryCaches caches) {
+        super(delegate, caches.authors, Author::getId);
+        this.caches = caches;
+    }
+
+    @Override
+    public Author save(Author author) {
+        return delegate.save(author);
+    }
+
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        return delegate.saveAll(authors);
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name) {
+        return delegate.searchByName(name);
+    }
+
+    @Override
+    public Page<Author, Long> searchByName(String name, Long after, int limit) {
+        return delegate.searchByName(name, after, limit);
+    }
+
+    @Override
+    public List<Author> search(String query, SearchMode mode, int limit) {
+        return delegate.search(query, mode, limit);
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return delegate.suggest(prefix, limit);
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        // evicted before, so that the author is not served from the cache while it is deleted, and after, for the
+        // reads that loaded it again meanwhile
+        evict(id);
+        delegate.delete(id);
+        evict(id);
+    }
+
+    @Override
+    protected void evictUpdated(Author updated) {
+        evict(updated.getId());
+    }
+
+    /* the books embed the name of their authors */
+    private void evict(Long id) {
+        cache.invalidate(id);
+        caches.evictBooksOf(id);
+    }
+}
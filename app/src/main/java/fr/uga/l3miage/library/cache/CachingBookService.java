@@ -0,0 +1,126 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.BookFilter;
+import fr.uga.l3miage.library.service.search.Facets;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
+
+import java.util.Collection;
+import java.util.List;
+
+public class CachingBookService extends CachingService<Book, Long, BookService> implements BookService {
+
+    private final LibraryCaches caches;
+
+    public CachingBookService(BookService delegate, LibraryCaches caches) {
+        super(delegate, caches.books, Book::getId);
+        this.caches = caches;
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        Book saved = delegate.save(authorId, book);
+        caches.authors.invalidate(authorId);
+        return saved;
+    }
+
+    @Override
+    public List<Book> saveAll(List<Book> books) throws EntityNotFoundException {
+        List<Book> saved = delegate.saveAll(books);
+        saved.forEach(book -> caches.evictAuthors(book.getAuthors()));
+        return saved;
+    }
+
+    @Override
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        return delegate.getByIsbn(isbn);
+    }
+
+    @Override
+    public long[] findExistingIsbns(long[] isbns) {
+        return delegate.findExistingIsbns(isbns);
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title) {
+        return delegate.findByTitle(title);
+    }
+
+    @Override
+    public Page<Book, Long> findByTitle(String title, Long after, int limit) {
+        return delegate.findByTitle(title, after, limit);
+    }
+
+    @Override
+    public Page<Book, Long> findByFilter(BookFilter filter, Long after, int limit) {
+        return delegate.findByFilter(filter, after, limit);
+    }
+
+    @Override
+    public Facets countFacets(BookFilter filter) {
+        return delegate.countFacets(filter);
+    }
+
+    @Override
+    public List<Book> search(String query, SearchMode mode, int limit) {
+        return delegate.search(query, mode, limit);
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return delegate.suggest(prefix, limit);
+    }
+
+    @Override
+    public Collection<Book> getByAuthor(Long id) throws EntityNotFoundException {
+        return delegate.getByAuthor(id);
+    }
+
+    @Override
+    public Page<Book, Long> getByAuthor(Long id, Long after, int limit) throws EntityNotFoundException {
+        return delegate.getByAuthor(id, after, limit);
+    }
+
+    @Override
+    public Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException {
+        return delegate.findByAuthor(id, title);
+    }
+
+    @Override
+    public Page<Book, Long> findByAuthor(Long id, String title, Long after, int limit) throws EntityNotFoundException {
+        return delegate.findByAuthor(id, title, after, limit);
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        // read from the delegate, a miss would be cached only to be evicted right after
+        Book book = delegate.get(id);
+        delegate.delete(id);
+        caches.evictBook(id);
+        caches.evictAuthors(book.getAuthors());
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        Book book = delegate.addAuthor(bookId, authorId);
+        caches.evictBook(bookId);
+        caches.authors.invalidate(authorId);
+        return book;
+    }
+
+    @Override
+    protected void loaded(Book book) {
+        caches.linkBook(book);
+    }
+
+    /* the authors hold their books */
+    @Override
+    protected void evictUpdated(Book updated) {
+        caches.evictBook(updated.getId());
+        caches.evictAuthors(updated.getAuthors());
+    }
+}
@@ -0,0 +1,112 @@
+package fr.uga.l3miage.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.BaseService;
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read-through cache in front of {@link BaseService#get(Object)}, the other reads go to the delegate.
+ * <p>
+ * A miss is loaded while holding the entry, so an eviction racing with the load waits for it and cannot leave a
+ * stale object behind. {@link #getAll(Collection)} serves what is cached and loads all the misses at once, without
+ * caching them as it could not hold their entries meanwhile.
+ *
+ * @param <O> the type of persistence object
+ * @param <I> type of the identifier
+ * @param <S> the decorated service
+ */
+abstract class CachingService<O, I, S extends BaseService<O, I>> implements BaseService<O, I> {
+
+    protected final S delegate;
+    protected final Cache<I, O> cache;
+    private final Function<O, I> id;
+
+    CachingService(S delegate, Cache<I, O> cache, Function<O, I> id) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.id = id;
+    }
+
+    @Override
+    public O get(I id) throws EntityNotFoundException {
+        try {
+            return cache.get(id, this::load);
+        } catch (NotFound e) {
+            throw e.cause;
+        }
+    }
+
+    @Override
+    public Batch<O, I> getAll(Collection<I> ids) {
+        Map<I, O> found = new HashMap<>(cache.getAllPresent(ids));
+        List<I> misses = ids.stream().filter(key -> !found.containsKey(key)).distinct().toList();
+        if (!misses.isEmpty()) {
+            delegate.getAll(misses).content().forEach(object -> found.put(id.apply(object), object));
+        }
+        return Batch.of(ids, found::get);
+    }
+
+    @Override
+    public Collection<O> list() {
+        return delegate.list();
+    }
+
+    @Override
+    public Page<O, I> list(I after, int limit) {
+        return delegate.list(after, limit);
+    }
+
+    @Override
+    public O update(O object) throws EntityNotFoundException {
+        O updated = delegate.update(object);
+        evictUpdated(updated);
+        return updated;
+    }
+
+    @Override
+    public long version() {
+        return delegate.version();
+    }
+
+    /**
+     * Evicts an updated object and whatever embeds it.
+     */
+    protected abstract void evictUpdated(O updated);
+
+    /**
+     * Called with each object loaded into the cache, while its entry is held.
+     */
+    protected void loaded(O object) {
+    }
+
+    private O load(I id) {
+        try {
+            O object = delegate.get(id);
+            loaded(object);
+            return object;
+        } catch (EntityNotFoundException e) {
+            throw new NotFound(e);
+        }
+    }
+
+    /**
+     * Carries a miss through the cache loader, the cache keeping nothing.
+     */
+    private static class NotFound extends RuntimeException {
+
+        private final EntityNotFoundException cause;
+
+        NotFound(EntityNotFoundException cause) {
+            super(cause.getMessage(), cause, false, false);
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package fr.uga.l3miage.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The authors and books cached by id, bounded in size (W-TinyLFU eviction) and expiring after a while.
+ * <p>
+ * Both caches are kept together since a write on one side of the many-to-many association makes the entities of
+ * the other side stale. The ids of the cached books are indexed by author, so that an author write evicts their
+ * books without walking the book cache. Hits, misses and evictions are published as {@code cache.*} metrics.
+ */
+public class LibraryCaches implements MeterBinder {
+
+    final Cache<Long, Author> authors;
+    final Cache<Long, Book> books;
+    final ConcurrentMap<Long, Set<Long>> booksByAuthor = new ConcurrentHashMap<>();
+
+    public LibraryCaches(long maximumSize, Duration ttl) {
+        this.authors = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.books = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .evictionListener((Long id, Book book, RemovalCause cause) -> unlinkBook(book))
+                .recordStats()
+                .build();
+    }
+
+    void evictAuthors(Set<Author> authors) {
+        if (authors != null) {
+            authors.forEach(author -> this.authors.invalidate(author.getId()));
+        }
+    }
+
+    void evictBooks(Set<Book> books) {
+        if (books != null) {
+            books.forEach(book -> evictBook(book.getId()));
+        }
+    }
+
+    /**
+     * Evicts a cached book and drops it from the index of its authors, waiting for a load of the book in progress.
+     */
+    void evictBook(Long id) {
+        books.asMap().computeIfPresent(id, (key, book) -> {
+            unlinkBook(book);
+            return null;
+        });
+    }
+
+    /**
+     * Evicts the cached books written by an author, whatever the cached author knows of them.
+     */
+    void evictBooksOf(Long authorId) {
+        Set<Long> ids = booksByAuthor.get(authorId);
+        if (ids != null) {
+            List.copyOf(ids).forEach(this::evictBook);
+        }
+    }
+
+    /**
+     * Indexes a book under its authors, called while its entry is loaded.
+     */
+    void linkBook(Book book) {
+        if (book.getAuthors() != null) {
+            for (Author author : book.getAuthors()) {
+                booksByAuthor.compute(author.getId(), (key, ids) -> {
+                    Set<Long> linked = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                    linked.add(book.getId());
+                    return linked;
+                });
+            }
+        }
+    }
+
+    private void unlinkBook(Book book) {
+        if (book.getAuthors() != null) {
+            for (Author author : book.getAuthors()) {
+                booksByAuthor.computeIfPresent(author.getId(), (key, ids) -> {
+                    ids.remove(book.getId());
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, authors, "authors");
+        CaffeineCacheMetrics.monitor(registry, books, "books");
+    }
+}
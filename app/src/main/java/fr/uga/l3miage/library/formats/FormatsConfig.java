@@ -0,0 +1,65 @@
+package fr.uga.l3miage.library.formats;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Serves the bulk endpoints as CBOR, a binary encoding of the JSON data model, to the clients sending
+ * {@code Accept: application/cbor}; the others keep getting JSON.
+ * <p>
+ * CBOR still writes the field names, but numbers as binary and strings without quotes nor escapes. Both formats are
+ * compressed when large enough, see {@code server.compression.*}. The responses of the endpoints producing both vary
+ * on {@code Accept}, so that caches keep one of each.
+ */
+@Configuration
+public class FormatsConfig implements WebMvcConfigurer {
+
+    /* picked up by Spring Boot along with its own converters, with the same Jackson customizations */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /* the modes are written in lower case in the query strings, the default conversion only accepts the constants */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, SearchMode.class,
+                mode -> SearchMode.valueOf(mode.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new VaryOnAccept());
+    }
+
+    /**
+     * Adds {@code Vary: Accept} to the responses of the endpoints producing CBOR, 304 included.
+     */
+    private static class VaryOnAccept implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (request.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE) instanceof Collection<?> types
+                    && types.contains(MediaType.APPLICATION_CBOR)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package fr.uga.l3miage.library.imports;
+
+import fr.uga.l3miage.library.books.BookDTO;
+
+import java.util.List;
+
+/**
+ * A record of a bulk import: an author, new or existing, and the books to create for them.
+ *
+ * @param id       id of an existing author, null to create the author
+ * @param fullName name of the author to create
+ * @param books    the books to create
+ */
+public record AuthorImportDTO(
+        Long id,
+        String fullName,
+        List<BookDTO> books
+) {
+}
@@ -0,0 +1,294 @@
+package fr.uga.l3miage.library.imports;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksController;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.imports.ImportReportDTO.ImportErrorDTO;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports authors and their books from a JSON array or newline delimited JSON of {@link AuthorImportDTO}.
+ * <p>
+ * Records are read, validated and mapped one at a time, then written through the batch methods of the services
+ * once {@code library.import.batch-size} books are pending. A record that cannot be read, is invalid or holds an ISBN
+ * already taken is reported and the import goes on with the next one.
+ * <p>
+ * A batch the services still reject is written again one record at a time, so that only the records at fault are
+ * reported; the author created for a record whose books are rejected is deleted.
+ */
+@Component
+public class BulkImporter {
+
+    private final AuthorService authorService;
+    private final BookService bookService;
+    private final BooksMapper booksMapper;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    @Autowired
+    public BulkImporter(AuthorService authorService, BookService bookService, BooksMapper booksMapper,
+            ObjectMapper objectMapper, @Value("${library.import.batch-size:500}") int batchSize) {
+        this.authorService = authorService;
+        this.bookService = bookService;
+        this.booksMapper = booksMapper;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public ImportReportDTO importFrom(InputStream in) throws IOException {
+        Report report = new Report();
+        List<Pending> batch = new ArrayList<>();
+        int pendingBooks = 0;
+        long index = 0;
+
+        try (MappingIterator<AuthorImportDTO> records = objectMapper.readerFor(AuthorImportDTO.class).readValues(in)) {
+            while (true) {
+                AuthorImportDTO record;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    record = records.nextValue();
+                } catch (JsonParseException e) {
+                    // malformed JSON, the rest of the input cannot be trusted
+                    report.error(index, "malformed input: " + e.getOriginalMessage());
+                    break;
+                } catch (DatabindException e) {
+                    if (e.getCause() instanceof JsonParseException parse) {
+                        // malformed JSON within a value of the record
+                        report.error(index, "malformed input: " + parse.getOriginalMessage());
+                        break;
+                    }
+                    // the iterator skips the rest of the record
+                    report.error(index++, "invalid record: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                try {
+                    Pending pending = prepare(index, record);
+                    batch.add(pending);
+                    pendingBooks += pending.books.size();
+                } catch (InvalidRecordException | EntityNotFoundException e) {
+                    report.error(index, e.getMessage());
+                }
+                index++;
+
+                if (pendingBooks >= batchSize) {
+                    write(batch, report);
+                    batch.clear();
+                    pendingBooks = 0;
+                }
+            }
+        }
+        write(batch, report);
+        return report.toDTO(index);
+    }
+
+    /**
+     * Validates and maps a record, existing authors are resolved.
+     */
+    private Pending prepare(long index, AuthorImportDTO record) throws InvalidRecordException, EntityNotFoundException {
+        if (record == null) {
+            throw new InvalidRecordException("empty record");
+        }
+        Author author;
+        if (record.id() != null) {
+            author = authorService.get(record.id());
+        } else if (record.fullName() == null || record.fullName().isBlank()) {
+            throw new InvalidRecordException("the author has no name");
+        } else {
+            author = new Author();
+            author.setFullName(record.fullName());
+        }
+
+        List<Book> books = new ArrayList<>();
+        if (record.books() != null) {
+            for (BookDTO book : record.books()) {
+                if (book == null || !BooksController.isAValidBook(book)) {
+                    throw new InvalidRecordException("invalid book at position " + books.size());
+                }
+                books.add(booksMapper.dtoToEntity(book));
+            }
+        }
+        return new Pending(index, author, author.getId() == null, books);
+    }
+
+    private void write(List<Pending> batch, Report report) {
+        List<Pending> accepted = withFreeIsbns(batch, report);
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<Author> newAuthors = accepted.stream()
+                .filter(Pending::created)
+                .map(Pending::author)
+                .toList();
+        List<Book> books = new ArrayList<>();
+        for (Pending pending : accepted) {
+            link(pending);
+            books.addAll(pending.books);
+        }
+
+        try {
+            authorService.saveAll(newAuthors);
+            bookService.saveAll(books);
+        } catch (EntityNotFoundException | RuntimeException e) {
+            accepted.forEach(pending -> writeOne(pending, report));
+            return;
+        }
+        report.authors += newAuthors.size();
+        report.books += books.size();
+    }
+
+    /**
+     * Reports the records giving a book the ISBN of a saved book, or of another book of the batch, and keeps the
+     * others, checking all the ISBNs of the batch at once.
+     */
+    private List<Pending> withFreeIsbns(List<Pending> batch, Report report) {
+        long[] isbns = batch.stream()
+                .flatMap(pending -> pending.books.stream())
+                .mapToLong(Book::getIsbn)
+                .filter(isbn -> isbn != 0)
+                .toArray();
+        Set<Long> taken = new HashSet<>();
+        Arrays.stream(bookService.findExistingIsbns(isbns)).forEach(taken::add);
+
+        List<Pending> accepted = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            Long duplicate = pending.books.stream()
+                    .map(Book::getIsbn)
+                    .filter(isbn -> isbn != 0 && taken.contains(isbn))
+                    .findFirst()
+                    .orElse(null);
+            if (duplicate == null) {
+                duplicate = firstRepeated(pending.books);
+            }
+            if (duplicate != null) {
+                report.error(pending.index, "ISBN already held by another book: " + duplicate);
+                continue;
+            }
+            pending.books.stream().map(Book::getIsbn).filter(isbn -> isbn != 0).forEach(taken::add);
+            accepted.add(pending);
+        }
+        return accepted;
+    }
+
+    /**
+     * Writes a record on its own, after its batch failed: either the author and its books are saved, or the record
+     * is reported and nothing of it is kept.
+     */
+    private void writeOne(Pending pending, Report report) {
+        Author author = pending.author;
+        try {
+            // the batch may have saved the author, or only given it an id before rolling back
+            if (pending.created && !saved(author)) {
+                author.setId(null);
+                authorService.save(author);
+            }
+        } catch (RuntimeException e) {
+            report.error(pending.index, "author rejected: " + e.getMessage());
+            return;
+        }
+        try {
+            pending.books.forEach(book -> book.setId(null));
+            link(pending);
+            bookService.saveAll(pending.books);
+        } catch (EntityNotFoundException | RuntimeException e) {
+            if (pending.created) {
+                delete(author);
+            }
+            report.error(pending.index, "books rejected: " + e.getMessage());
+            return;
+        }
+        if (pending.created) {
+            report.authors++;
+        }
+        report.books += pending.books.size();
+    }
+
+    private boolean saved(Author author) {
+        if (author.getId() == null) {
+            return false;
+        }
+        try {
+            return authorService.get(author.getId()) != null;
+        } catch (EntityNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes an author created by the import, which has no book as its books were rejected together.
+     */
+    private void delete(Author author) {
+        try {
+            authorService.delete(author.getId());
+        } catch (EntityNotFoundException | DeleteAuthorException e) {
+            // not saved, or given a book meanwhile: it is kept
+        }
+    }
+
+    private static void link(Pending pending) {
+        for (Book book : pending.books) {
+            book.setAuthors(null);
+            book.addAuthor(pending.author);
+        }
+    }
+
+    private static Long firstRepeated(List<Book> books) {
+        Set<Long> seen = new HashSet<>();
+        for (Book book : books) {
+            if (book.getIsbn() != 0 && !seen.add(book.getIsbn())) {
+                return book.getIsbn();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param created whether the author is new, to be saved with the books
+     */
+    private record Pending(long index, Author author, boolean created, List<Book> books) {
+    }
+
+    private static class Report {
+
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+        private int authors;
+        private int books;
+
+        void error(long index, String message) {
+            errors.add(new ImportErrorDTO(index, message));
+        }
+
+        ImportReportDTO toDTO(long records) {
+            return new ImportReportDTO(Math.toIntExact(records), authors, books, errors);
+        }
+    }
+
+    private static class InvalidRecordException extends Exception {
+
+        InvalidRecordException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package fr.uga.l3miage.library.imports;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class ImportController {
+
+    private final BulkImporter bulkImporter;
+
+    @Autowired
+    public ImportController(BulkImporter bulkImporter) {
+        this.bulkImporter = bulkImporter;
+    }
+
+    /* Import authors and their books, read as a stream from the request body */
+    @PostMapping(value = "/import", consumes = {"application/json", "application/x-ndjson"})
+    public ImportReportDTO importAuthors(InputStream body) throws IOException {
+        return bulkImporter.importFrom(body);
+    }
+}
@@ -0,0 +1,21 @@
+package fr.uga.l3miage.library.imports;
+
+import java.util.List;
+
+public record ImportReportDTO(
+        int records,
+        int authors,
+        int books,
+        List<ImportErrorDTO> errors
+) {
+
+    /**
+     * @param record  position of the rejected record in the input, from 0
+     * @param message why it was rejected
+     */
+    public record ImportErrorDTO(
+            long record,
+            String message
+    ) {
+    }
+}
@@ -0,0 +1,52 @@
+package fr.uga.l3miage.library.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Times the services, the mappers and the JSON serialization, unless {@code library.metrics.enabled} is false.
+ * The endpoints are timed by Spring Boot ({@code http.server.requests}), everything is published on
+ * {@code /actuator/prometheus}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    /* static, as a post processor must not wait for this configuration to be created */
+    @Bean
+    public static BeanPostProcessor timedComponents(ObjectProvider<MeterRegistry> registry) {
+        return new TimingPostProcessor(registry);
+    }
+
+    /* replaces the converter of Spring Boot, which backs off when one is defined */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+            MeterRegistry registry) {
+        return new TimedJacksonConverter(objectMapper, registry);
+    }
+
+    /**
+     * Ordered, so that it runs after the transactional proxies, which must see the annotated classes, and before
+     * the unordered post processors such as the caches: the timers measure the services behind the caches, the
+     * hits are counted by the {@code cache.*} metrics.
+     */
+    private record TimingPostProcessor(ObjectProvider<MeterRegistry> registry) implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return TimedComponents.timed(bean, registry::getObject);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Times every call to the services and the mappers of the library, through a proxy of their interfaces.
+ * <p>
+ * A call records a {@code library.service} or {@code library.mapper} timer, tagged with the interface, the method
+ * and the exception thrown if any, and a service call returning a list, a batch or a page records its size in the
+ * {@code library.service.results} distribution. The other collections are skipped, the views of the mock count
+ * their elements one by one. The meters of the calls that succeed are registered once, when
+ * the proxy is created, so that recording only costs a map lookup, two clock reads and the histogram updates.
+ */
+final class TimedComponents {
+
+    private static final String PACKAGE = "fr.uga.l3miage.library.";
+
+    private TimedComponents() {
+        // static helpers only
+    }
+
+    /**
+     * The layer of a bean, from the most specific of its library interfaces.
+     */
+    enum Layer {
+        SERVICE("library.service", "service"), MAPPER("library.mapper", "mapper");
+
+        final String metric;
+        final String tag;
+
+        Layer(String metric, String tag) {
+            this.metric = metric;
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Wraps a bean if it implements a service or a mapper interface of the library, otherwise returns it as is.
+     *
+     * @param registry only asked for when the bean is wrapped, the registry itself going through the post processors
+     */
+    static Object timed(Object bean, Supplier<MeterRegistry> registry) {
+        // the library interfaces only, the proxy must not pass for one of Spring's
+        Class<?>[] interfaces = Stream.of(ClassUtils.getAllInterfacesForClass(bean.getClass()))
+                .filter(type -> type.getName().startsWith(PACKAGE))
+                .toArray(Class<?>[]::new);
+        return component(interfaces)
+                .map(component -> Proxy.newProxyInstance(bean.getClass().getClassLoader(), interfaces,
+                        new Handler(bean, component, registry.get())))
+                .orElse(bean);
+    }
+
+    private static Optional<Class<?>> component(Class<?>[] interfaces) {
+        Class<?>[] candidates = Stream.of(interfaces)
+                .filter(type -> layer(type) != null)
+                .toArray(Class<?>[]::new);
+        // AuthorService rather than the BaseService it extends
+        return Stream.of(candidates)
+                .filter(type -> Stream.of(candidates).noneMatch(other -> other != type && type.isAssignableFrom(other)))
+                .findFirst();
+    }
+
+    private static Layer layer(Class<?> type) {
+        if (type.getSimpleName().endsWith("Service")) {
+            return Layer.SERVICE;
+        }
+        return type.getSimpleName().endsWith("Mapper") ? Layer.MAPPER : null;
+    }
+
+    private static final class Handler implements InvocationHandler {
+
+        private final Object target;
+        private final Class<?> component;
+        private final Layer layer;
+        private final MeterRegistry registry;
+        private final Clock clock;
+        private final Map<Method, Timer> timers = new HashMap<>();
+        private final Map<Method, DistributionSummary> results = new HashMap<>();
+
+        private Handler(Object target, Class<?> component, MeterRegistry registry) {
+            this.target = target;
+            this.component = component;
+            this.layer = layer(component);
+            this.registry = registry;
+            this.clock = registry.config().clock();
+            for (Method method : component.getMethods()) {
+                timers.put(method, timer(method, "none"));
+                Class<?> type = method.getReturnType();
+                if (layer == Layer.SERVICE && (Collection.class.isAssignableFrom(type) || type == Page.class
+                        || type == Batch.class)) {
+                    results.put(method, DistributionSummary.builder("library.service.results")
+                            .baseUnit("objects")
+                            .tags(layer.tag, component.getSimpleName(), "method", method.getName())
+                            .publishPercentileHistogram()
+                            .register(registry));
+                }
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Timer timer = timers.get(method);
+            if (timer == null) {
+                // methods of Object, the proxy stands for the target
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> call(method, args);
+                };
+            }
+            long start = clock.monotonicTime();
+            Object result;
+            try {
+                result = call(method, args);
+            } catch (Throwable e) {
+                timer(method, e.getClass().getSimpleName()).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+            timer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+            DistributionSummary sizes = results.get(method);
+            if (sizes != null) {
+                int size = size(result);
+                if (size >= 0) {
+                    sizes.record(size);
+                }
+            }
+            return result;
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /* registered on the first failure, looked up on the next ones */
+        private Timer timer(Method method, String exception) {
+            return Timer.builder(layer.metric)
+                    .tags(layer.tag, component.getSimpleName(), "method", method.getName(), "exception", exception)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        /* -1 when the size is not known without walking the result */
+        private static int size(Object result) {
+            if (result instanceof List<?> list) {
+                return list.size();
+            }
+            if (result instanceof Batch<?, ?> batch) {
+                return batch.content().size();
+            }
+            if (result instanceof Page<?, ?> page) {
+                return page.content().size();
+            }
+            return result == null ? 0 : -1;
+        }
+    }
+}
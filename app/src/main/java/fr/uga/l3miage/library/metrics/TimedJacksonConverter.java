@@ -0,0 +1,55 @@
+package fr.uga.l3miage.library.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON converter of Spring MVC, timing the writing of each response body in the {@code library.serialization}
+ * timer, tagged with the type written ({@code BookDTO}, {@code Collection<BookDTO>}...).
+ * <p>
+ * The time includes copying the JSON to the response buffer, and to the socket when the body outgrows it.
+ */
+class TimedJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    TimedJacksonConverter(ObjectMapper objectMapper, MeterRegistry registry) {
+        super(objectMapper);
+        this.registry = registry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Timer timer = timers.computeIfAbsent(typeName(object), name -> Timer.builder("library.serialization")
+                .tag("type", name)
+                .publishPercentileHistogram()
+                .register(registry));
+        long start = registry.config().clock().monotonicTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            timer.record(registry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String typeName(Object object) {
+        if (object instanceof Collection<?> collection) {
+            return collection.isEmpty() ? "Collection"
+                    : "Collection<" + collection.iterator().next().getClass().getSimpleName() + ">";
+        }
+        return object.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,120 @@
+package fr.uga.l3miage.library.books;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.base.Page;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The exports run against a service generating its books on the fly, the test JVM heap being capped (see the
+ * surefire configuration) far below what the catalogue would need if it were held in memory.
+ */
+class BooksExporterTest {
+
+    private static final long CATALOGUE = 5_000_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CountingOutputStream out = new CountingOutputStream();
+    private long bytesBeforeSecondPage = -1;
+
+    @Test
+    void exportsHugeCatalogueAsLines() throws Exception {
+        exporter(CATALOGUE).writeLines(out);
+
+        assertThat(out.lines).isEqualTo(CATALOGUE);
+        // the first page was sent before the next one was read
+        assertThat(bytesBeforeSecondPage).isPositive();
+    }
+
+    @Test
+    void exportsHugeCatalogueAsArray() throws Exception {
+        exporter(CATALOGUE).writeArray(out);
+
+        assertThat(out.first).isEqualTo('[');
+        assertThat(out.last).isEqualTo(']');
+        assertThat(bytesBeforeSecondPage).isPositive();
+    }
+
+    @Test
+    void arrayIsValidJson() throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        exporter(1234).writeArray(buffer);
+
+        List<?> books = objectMapper.readValue(buffer.toByteArray(), List.class);
+        assertThat(books).hasSize(1234);
+    }
+
+    private BooksExporter exporter(long total) {
+        BookService bookService = mock(BookService.class);
+        when(bookService.list(any(), anyInt())).thenAnswer(invocation -> {
+            Long after = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            if (after != null && bytesBeforeSecondPage < 0) {
+                bytesBeforeSecondPage = out.bytes;
+            }
+            long from = after == null ? 0 : after + 1;
+            List<Book> books = new ArrayList<>();
+            for (long id = from; id < Math.min(total, from + limit + 1); id++) {
+                books.add(book(id));
+            }
+            return Page.of(books, limit, Book::getId);
+        });
+        return new BooksExporter(bookService, Mappers.getMapper(BooksMapper.class), objectMapper);
+    }
+
+    private static Book book(long id) {
+        Author author = new Author();
+        author.setId(id / 4);
+        author.setFullName("Author " + id / 4);
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle("Book " + id);
+        book.setIsbn(1000000000L + id);
+        book.setPublisher("Dunod");
+        book.setYear((short) 2023);
+        book.setLanguage(Book.Language.FRENCH);
+        book.addAuthor(author);
+        return book;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        long bytes;
+        long lines;
+        int first = -1;
+        int last = -1;
+
+        @Override
+        public void write(int b) {
+            if (first < 0) {
+                first = b;
+            }
+            last = b;
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
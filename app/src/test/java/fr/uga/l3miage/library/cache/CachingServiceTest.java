@@ -0,0 +1,170 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Batch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingServiceTest {
+
+    AuthorService authorDelegate = mock(AuthorService.class);
+    BookService bookDelegate = mock(BookService.class);
+    LibraryCaches caches = new LibraryCaches(100, Duration.ofMinutes(1));
+    CachingAuthorService authorService = new CachingAuthorService(authorDelegate, caches);
+    CachingBookService bookService = new CachingBookService(bookDelegate, caches);
+
+    Author author = new Author();
+    Book book = new Book();
+
+    @BeforeEach
+    void setUp() throws EntityNotFoundException {
+        author.setId(1L);
+        author.setFullName("Cached");
+        book.setId(10L);
+        book.setTitle("Cached book");
+        book.addAuthor(author);
+        author.addBook(book);
+        when(authorDelegate.get(1L)).thenReturn(author);
+        when(bookDelegate.get(10L)).thenReturn(book);
+        when(authorDelegate.get(2L)).thenThrow(new EntityNotFoundException("Cannot find author with id: 2"));
+    }
+
+    @Test
+    void readsThrough() throws EntityNotFoundException {
+        assertThat(authorService.get(1L)).isSameAs(author);
+        assertThat(authorService.get(1L)).isSameAs(author);
+        verify(authorDelegate, times(1)).get(1L);
+        assertThat(caches.authors.stats().hitCount()).isEqualTo(1);
+        assertThat(caches.authors.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void missingIsNotCached() throws EntityNotFoundException {
+        assertThatThrownBy(() -> authorService.get(2L)).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> authorService.get(2L)).isInstanceOf(EntityNotFoundException.class);
+        verify(authorDelegate, times(2)).get(2L);
+    }
+
+    @Test
+    void getAllLoadsOnlyTheMisses() throws EntityNotFoundException {
+        Author other = new Author();
+        other.setId(3L);
+        authorService.get(1L);
+        when(authorDelegate.getAll(List.of(3L, 2L))).thenReturn(new Batch<>(List.of(other), List.of(2L)));
+
+        Batch<Author, Long> batch = authorService.getAll(List.of(3L, 1L, 2L, 3L));
+
+        assertThat(batch.content()).containsExactly(other, author);
+        assertThat(batch.missing()).containsExactly(2L);
+        verify(authorDelegate, times(1)).get(1L);
+        assertThat(caches.authors.getIfPresent(3L)).isNull();
+    }
+
+    @Test
+    void addAuthorEvictsBothSides() throws EntityNotFoundException {
+        authorService.get(1L);
+        bookService.get(10L);
+        when(bookDelegate.addAuthor(10L, 1L)).thenReturn(book);
+
+        bookService.addAuthor(10L, 1L);
+
+        assertThat(caches.authors.getIfPresent(1L)).isNull();
+        assertThat(caches.books.getIfPresent(10L)).isNull();
+    }
+
+    @Test
+    void authorUpdateEvictsTheirBooks() throws EntityNotFoundException {
+        authorService.get(1L);
+        bookService.get(10L);
+        when(authorDelegate.update(any())).thenReturn(author);
+
+        authorService.update(author);
+
+        assertThat(caches.authors.getIfPresent(1L)).isNull();
+        assertThat(caches.books.getIfPresent(10L)).isNull();
+    }
+
+    @Test
+    void authorUpdateKeepsTheOtherBooks() throws EntityNotFoundException {
+        Author other = new Author();
+        other.setId(3L);
+        Book otherBook = new Book();
+        otherBook.setId(11L);
+        otherBook.addAuthor(other);
+        when(bookDelegate.get(11L)).thenReturn(otherBook);
+        bookService.get(10L);
+        bookService.get(11L);
+        when(authorDelegate.update(any())).thenReturn(author);
+
+        authorService.update(author);
+
+        assertThat(caches.books.getIfPresent(10L)).isNull();
+        assertThat(caches.books.getIfPresent(11L)).isSameAs(otherBook);
+        assertThat(caches.booksByAuthor).containsOnlyKeys(3L);
+    }
+
+    @Test
+    void bookDeleteEvictsItsAuthors() throws EntityNotFoundException {
+        authorService.get(1L);
+        bookService.get(10L);
+
+        bookService.delete(10L);
+
+        verify(bookDelegate).delete(10L);
+        assertThat(caches.authors.getIfPresent(1L)).isNull();
+        assertThat(caches.books.getIfPresent(10L)).isNull();
+        assertThat(caches.booksByAuthor).isEmpty();
+    }
+
+    @Test
+    void authorDeleteEvictsBeforeDeleting() throws Exception {
+        authorService.get(1L);
+        bookService.get(10L);
+        doAnswer(invocation -> {
+            assertThat(caches.authors.getIfPresent(1L)).isNull();
+            assertThat(caches.books.getIfPresent(10L)).isNull();
+            return null;
+        }).when(authorDelegate).delete(1L);
+
+        authorService.delete(1L);
+
+        verify(authorDelegate).delete(1L);
+        assertThat(caches.authors.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    void bookDeleteDoesNotCacheTheBook() throws EntityNotFoundException {
+        bookService.delete(10L);
+
+        verify(bookDelegate).delete(10L);
+        assertThat(caches.books.stats().missCount()).isZero();
+        assertThat(caches.books.getIfPresent(10L)).isNull();
+    }
+
+    @Test
+    void saveEvictsTheAuthor() throws EntityNotFoundException {
+        authorService.get(1L);
+        Book saved = new Book();
+        when(bookDelegate.save(1L, saved)).thenReturn(saved);
+
+        bookService.save(1L, saved);
+
+        assertThat(caches.authors.getIfPresent(1L)).isNull();
+    }
+}
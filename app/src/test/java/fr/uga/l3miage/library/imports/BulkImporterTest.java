@@ -0,0 +1,170 @@
+package fr.uga.l3miage.library.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.LibraryApplication;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = LibraryApplication.class, properties = "library.import.batch-size=3")
+class BulkImporterTest {
+
+    /* books may not share an ISBN */
+    private static final AtomicLong ISBNS = new AtomicLong(9_782_266_199_261L);
+
+    @Autowired
+    BulkImporter bulkImporter;
+    @Autowired
+    AuthorService authorService;
+    @Autowired
+    BookService bookService;
+    @Autowired
+    BooksMapper booksMapper;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void importsLinesAndReportsRejectedRecords() throws Exception {
+        String input = """
+                {"fullName": "Lines Alpha", "books": [%s, %s]}
+                {"fullName": " ", "books": []}
+                {"fullName": "Lines Beta", "books": [{"title": null, "isbn": 1234567890, "year": 2000}]}
+                {"id": 987654321, "books": [%s]}
+                {"fullName": "Lines Gamma", "books": "not a list"}
+                {"fullName": "Lines Delta", "books": [%s, %s, %s]}
+                """.formatted(book("Lines 1"), book("Lines 2"), book("Lines 3"), book("Lines 4"), book("Lines 5"),
+                book("Lines 6"));
+
+        ImportReportDTO report = bulkImporter.importFrom(stream(input));
+
+        assertThat(report.records()).isEqualTo(6);
+        assertThat(report.authors()).isEqualTo(2);
+        assertThat(report.books()).isEqualTo(5);
+        assertThat(report.errors()).extracting(ImportReportDTO.ImportErrorDTO::record).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(booksOf("Lines Alpha")).hasSize(2);
+        assertThat(booksOf("Lines Delta")).hasSize(3);
+        assertThat(authorService.searchByName("Lines Beta")).isEmpty();
+    }
+
+    @Test
+    void importsArrayForExistingAuthor() throws Exception {
+        Author author = new Author();
+        author.setFullName("Array Existing");
+        author = authorService.save(author);
+        String input = """
+                [
+                  {"id": %d, "books": [%s]},
+                  {"fullName": "Array New", "books": [%s, %s, %s, %s]}
+                ]
+                """.formatted(author.getId(), book("Array 1"), book("Array 2"), book("Array 3"), book("Array 4"),
+                book("Array 5"));
+
+        ImportReportDTO report = bulkImporter.importFrom(stream(input));
+
+        assertThat(report.errors()).isEmpty();
+        assertThat(report.authors()).isEqualTo(1);
+        assertThat(report.books()).isEqualTo(5);
+        assertThat(bookService.getByAuthor(author.getId())).hasSize(1);
+        assertThat(booksOf("Array New")).hasSize(4);
+    }
+
+    @Test
+    void stopsOnMalformedInput() throws Exception {
+        String input = """
+                {"fullName": "Malformed Before", "books": [%s]}
+                {"fullName": "Malformed
+                """.formatted(book("Malformed 1"));
+
+        ImportReportDTO report = bulkImporter.importFrom(stream(input));
+
+        assertThat(report.books()).isEqualTo(1);
+        assertThat(report.errors()).extracting(ImportReportDTO.ImportErrorDTO::record).containsExactly(1L);
+    }
+
+    @Test
+    void reportsOnlyTheRecordsReusingAnIsbn() throws Exception {
+        long isbn = ISBNS.incrementAndGet();
+        // the first two records are a batch, the last two another
+        String input = """
+                {"fullName": "Isbn First", "books": [%s]}
+                {"fullName": "Isbn Second", "books": [%s, %s]}
+                {"fullName": "Isbn Third", "books": [%s]}
+                {"fullName": "Isbn Fourth", "books": [%s]}
+                """.formatted(book("Isbn 1", isbn), book("Isbn 2"), book("Isbn 3", isbn), book("Isbn 4", isbn),
+                book("Isbn 5"));
+
+        ImportReportDTO report = bulkImporter.importFrom(stream(input));
+
+        assertThat(report.errors()).extracting(ImportReportDTO.ImportErrorDTO::record).containsExactly(1L, 2L);
+        assertThat(report.authors()).isEqualTo(2);
+        assertThat(report.books()).isEqualTo(2);
+        assertThat(authorService.searchByName("Isbn Second")).isEmpty();
+        assertThat(authorService.searchByName("Isbn Third")).isEmpty();
+        assertThat(booksOf("Isbn Fourth")).hasSize(1);
+    }
+
+    @Test
+    void retriesAFailedBatchOneRecordAtATime() throws Exception {
+        BookService rejecting = (BookService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{BookService.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("saveAll") && ((List<?>) args[0]).stream()
+                            .anyMatch(book -> ((Book) book).getTitle().startsWith("Rejected"))) {
+                        throw new IllegalStateException("rejected by the service");
+                    }
+                    try {
+                        return method.invoke(bookService, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        BulkImporter importer = new BulkImporter(authorService, rejecting, booksMapper, objectMapper, 10);
+        String input = """
+                {"fullName": "Retry Alpha", "books": [%s]}
+                {"fullName": "Retry Beta", "books": [%s, %s]}
+                {"fullName": "Retry Gamma", "books": [%s]}
+                """.formatted(book("Retry 1"), book("Retry 2"), book("Rejected 3"), book("Retry 4"));
+
+        ImportReportDTO report = importer.importFrom(stream(input));
+
+        assertThat(report.errors()).extracting(ImportReportDTO.ImportErrorDTO::record).containsExactly(1L);
+        assertThat(report.authors()).isEqualTo(2);
+        assertThat(report.books()).isEqualTo(2);
+        assertThat(authorService.searchByName("Retry Beta")).isEmpty();
+        assertThat(booksOf("Retry Alpha")).hasSize(1);
+        assertThat(booksOf("Retry Gamma")).hasSize(1);
+    }
+
+    private Collection<?> booksOf(String name) throws Exception {
+        Author author = authorService.searchByName(name).iterator().next();
+        return bookService.getByAuthor(author.getId());
+    }
+
+    private static String book(String title) {
+        return book(title, ISBNS.incrementAndGet());
+    }
+
+    private static String book(String title, long isbn) {
+        return """
+                {"title": "%s", "isbn": %d, "publisher": "Pocket", "year": 2009, "language": "french"}"""
+                .formatted(title, isbn);
+    }
+
+    private static ByteArrayInputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Page;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TimedComponentsTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    AuthorService delegate = mock(AuthorService.class);
+    AuthorService authorService = (AuthorService) TimedComponents.timed(delegate, () -> registry);
+
+    @Test
+    void callsAreTimedByMethod() throws EntityNotFoundException {
+        Author author = new Author();
+        when(delegate.get(1L)).thenReturn(author);
+
+        assertThat(authorService.get(1L)).isSameAs(author);
+        assertThat(authorService.get(1L)).isSameAs(author);
+
+        assertThat(registry.get("library.service")
+                .tags("service", "AuthorService", "method", "get", "exception", "none")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void failuresAreTimedByException() throws EntityNotFoundException {
+        when(delegate.get(2L)).thenThrow(new EntityNotFoundException("Cannot find author with id: 2"));
+
+        assertThatThrownBy(() -> authorService.get(2L)).isInstanceOf(EntityNotFoundException.class);
+
+        assertThat(registry.get("library.service")
+                .tags("method", "get", "exception", "EntityNotFoundException")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("library.service")
+                .tags("method", "get", "exception", "none")
+                .timer().count()).isZero();
+    }
+
+    @Test
+    void resultSizesAreRecorded() {
+        when(delegate.searchByName("a")).thenReturn(List.of(new Author(), new Author(), new Author()));
+        when(delegate.list(null, 2)).thenReturn(new Page<>(List.of(new Author(), new Author()), 2L));
+
+        authorService.searchByName("a");
+        authorService.list(null, 2);
+
+        assertThat(registry.get("library.service.results").tags("method", "searchByName").summary().totalAmount())
+                .isEqualTo(3);
+        assertThat(registry.get("library.service.results").tags("method", "list").summary().totalAmount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void otherCollectionsAreNotCounted() {
+        when(delegate.searchByName("a")).thenReturn(Set.of(new Author(), new Author()));
+
+        authorService.searchByName("a");
+
+        assertThat(registry.get("library.service.results").tags("method", "searchByName").summary().count())
+                .isZero();
+    }
+
+    @Test
+    void otherBeansAreLeftAsIs() {
+        Object bean = new Object();
+        assertThat(TimedComponents.timed(bean, () -> {
+            throw new IllegalStateException("the registry is not needed");
+        })).isSameAs(bean);
+    }
+}
@@ -0,0 +1,34 @@
+package fr.uga.l3miage.library.threads;
+
+import fr.uga.l3miage.library.LibraryApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, classes = LibraryApplication.class,
+        properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsTest {
+
+    @Autowired
+    ServletWebServerApplicationContext context;
+    @Autowired
+    AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    void requestsRunOnVirtualThreads() throws Exception {
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+        Executor executor = webServer.getTomcat().getConnector().getProtocolHandler().getExecutor();
+
+        assertThat(CompletableFuture.supplyAsync(() -> Thread.currentThread().isVirtual(), executor).get()).isTrue();
+        assertThat(applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual()).get()).isTrue();
+    }
+}
@@ -0,0 +1,59 @@
+package library;
+
+import fr.uga.l3miage.library.LibraryApplication;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, classes = LibraryApplication.class)
+class ConditionalGetTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void authorIsNotSentAgainUntilUpdated() {
+        AuthorDTO author = restTemplate.postForObject("/api/v1/authors", new AuthorDTO(null, "Etag Author"), AuthorDTO.class);
+        String uri = "/api/v1/authors/" + author.id();
+
+        ResponseEntity<String> first = restTemplate.getForEntity(uri, String.class);
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        ResponseEntity<String> second = getIfNoneMatch(uri, etag);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getBody()).isNull();
+
+        restTemplate.put(uri, new AuthorDTO(author.id(), "Etag Author Renamed"));
+        ResponseEntity<String> third = getIfNoneMatch(uri, etag);
+        assertThat(third.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(third.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(third.getBody()).contains("Etag Author Renamed");
+    }
+
+    @Test
+    void listIsSentAgainOnceAnythingIsWritten() {
+        String etag = restTemplate.getForEntity("/api/v1/authors", String.class).getHeaders().getETag();
+        assertThat(etag).isNotNull();
+        assertThat(getIfNoneMatch("/api/v1/authors", etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        restTemplate.postForObject("/api/v1/authors", new AuthorDTO(null, "Etag List"), AuthorDTO.class);
+        assertThat(getIfNoneMatch("/api/v1/authors", etag).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<String> getIfNoneMatch(String uri, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
@@ -0,0 +1,80 @@
+package library;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import fr.uga.l3miage.library.LibraryApplication;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.books.BookDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, classes = LibraryApplication.class)
+class FormatsTests {
+
+    /* books may not share an ISBN */
+    private static final AtomicLong ISBNS = new AtomicLong(1_100_000_000L);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void booksAreNegotiatedAsCbor() throws IOException {
+        String uri = "/api/v1/authors/" + authorWithBooks("Cbor Author", 3) + "/books";
+
+        ResponseEntity<byte[]> json = get(uri, MediaType.APPLICATION_JSON, null);
+        ResponseEntity<byte[]> cbor = get(uri, MediaType.APPLICATION_CBOR, null);
+
+        assertThat(cbor.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(cbor.getHeaders().getVary()).anyMatch(HttpHeaders.ACCEPT::equalsIgnoreCase);
+        assertThat(cbor.getHeaders().getETag()).isNotEqualTo(json.getHeaders().getETag());
+        JsonNode books = new CBORMapper().readTree(cbor.getBody());
+        assertThat(books).hasSize(3);
+        assertThat(books.get(0).get("title").asText()).isEqualTo("Cbor Author 0");
+        assertThat(cbor.getBody().length).isLessThan(json.getBody().length);
+    }
+
+    @Test
+    void largeListsAreCompressed() {
+        String uri = "/api/v1/authors/" + authorWithBooks("Gzip Author", 40) + "/books";
+
+        ResponseEntity<byte[]> plain = get(uri, MediaType.APPLICATION_JSON, null);
+        ResponseEntity<byte[]> gzip = get(uri, MediaType.APPLICATION_JSON, "gzip");
+
+        assertThat(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzip.getBody().length).isLessThan(plain.getBody().length);
+    }
+
+    private long authorWithBooks(String name, int books) {
+        AuthorDTO author = restTemplate.postForObject("/api/v1/authors", new AuthorDTO(null, name), AuthorDTO.class);
+        for (int i = 0; i < books; i++) {
+            BookDTO book = new BookDTO(null, name + " " + i, ISBNS.incrementAndGet(), "Dunod", (short) 2023, "french",
+                    null);
+            restTemplate.postForObject("/api/v1/authors/" + author.id() + "/books", book, BookDTO.class);
+        }
+        return author.id();
+    }
+
+    private ResponseEntity<byte[]> get(String uri, MediaType accept, String encoding) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(accept));
+        if (encoding != null) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, encoding);
+        }
+        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+}
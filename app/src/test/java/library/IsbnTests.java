@@ -0,0 +1,43 @@
+package library;
+
+import fr.uga.l3miage.library.LibraryApplication;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.books.BookDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, classes = LibraryApplication.class)
+class IsbnTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void booksAreFoundAndKeptUniqueByIsbn() {
+        AuthorDTO author = restTemplate.postForObject("/api/v1/authors", new AuthorDTO(null, "Ingrid Ingest"),
+                AuthorDTO.class);
+        String uri = "/api/v1/authors/" + author.id() + "/books";
+        BookDTO book = restTemplate.postForObject(uri, book("Numbered", 1400000001L), BookDTO.class);
+
+        assertThat(restTemplate.getForObject("/api/v1/books/isbn/1400000001", BookDTO.class).id())
+                .isEqualTo(book.id());
+        assertThat(restTemplate.getForEntity("/api/v1/books/isbn/1400000002", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(restTemplate.postForEntity(uri, book("Numbered again", 1400000001L), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+        long[] existing = restTemplate.postForObject("/api/v1/books/isbn/exists",
+                new long[]{1400000002L, 1400000001L, 1400000003L}, long[].class);
+        assertThat(existing).containsExactly(1400000001L);
+    }
+
+    private static BookDTO book(String title, long isbn) {
+        return new BookDTO(null, title, isbn, "Dunod", (short) 2023, "french", null);
+    }
+}
@@ -0,0 +1,35 @@
+package library;
+
+import fr.uga.l3miage.library.LibraryApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// tests export no metrics unless asked to
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, classes = LibraryApplication.class)
+class MetricsTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void layersArePublishedForPrometheus() {
+        assertThat(restTemplate.getForObject("/api/v1/authors", List.class)).isNotEmpty();
+
+        String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("library_service_seconds_bucket{exception=\"none\",method=\"list\",service=\"AuthorService\"")
+                .contains("library_service_results_objects_bucket{method=\"list\",service=\"AuthorService\"")
+                .contains("library_mapper_seconds_count{exception=\"none\",mapper=\"AuthorMapper\"")
+                .contains("library_serialization_seconds_count{type=\"Collection<AuthorDTO>\"");
+    }
+}
@@ -0,0 +1,82 @@
+package library;
+
+import fr.uga.l3miage.library.LibraryApplication;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.FacetsDTO;
+import fr.uga.l3miage.library.service.search.Suggestion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, classes = LibraryApplication.class)
+class SearchTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void booksAreRankedByRelevance() {
+        AuthorDTO author = restTemplate.postForObject("/api/v1/authors", new AuthorDTO(null, "Quentin Querylane"),
+                AuthorDTO.class);
+        String uri = "/api/v1/authors/" + author.id() + "/books";
+        BookDTO guide = restTemplate.postForObject(uri, book("Ontologies pour les bibliothèques", 1300000001L),
+                BookDTO.class);
+        BookDTO ontology = restTemplate.postForObject(uri, book("Ontologie", 1300000002L), BookDTO.class);
+
+        BookDTO[] books = restTemplate.getForObject("/api/v1/books/search?q=ontologies", BookDTO[].class);
+        assertThat(books).extracting(BookDTO::id).containsExactly(ontology.id(), guide.id());
+        BookDTO[] prefixed = restTemplate.getForObject("/api/v1/books/search?q=ontol&mode=prefix&limit=1",
+                BookDTO[].class);
+        assertThat(prefixed).extracting(BookDTO::id).containsExactly(ontology.id());
+        AuthorDTO[] authors = restTemplate.getForObject("/api/v1/authors/search?q=querylan&mode=fuzzy",
+                AuthorDTO[].class);
+        assertThat(authors).extracting(AuthorDTO::id).containsExactly(author.id());
+
+        assertThat(restTemplate.getForEntity("/api/v1/books/search?q=x&mode=exact", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void namesAreCompletedWhileTyped() {
+        AuthorDTO author = restTemplate.postForObject("/api/v1/authors", new AuthorDTO(null, "Wilhelmina Typeahead"),
+                AuthorDTO.class);
+
+        Suggestion[] suggestions = restTemplate.getForObject("/api/v1/authors/suggest?q=TYPEAH", Suggestion[].class);
+        assertThat(suggestions).containsExactly(new Suggestion(author.id(), "Wilhelmina Typeahead"));
+        assertThat(restTemplate.getForObject("/api/v1/books/suggest?q=typeahead", Suggestion[].class)).isEmpty();
+    }
+
+    @Test
+    void booksAreFilteredByFacet() {
+        AuthorDTO author = restTemplate.postForObject("/api/v1/authors", new AuthorDTO(null, "Fiona Facetta"),
+                AuthorDTO.class);
+        String uri = "/api/v1/authors/" + author.id() + "/books";
+        BookDTO french = restTemplate.postForObject(uri,
+                new BookDTO(null, "Bitmaps", 1300000011L, "Presses Facettes", (short) 2019, "french", null),
+                BookDTO.class);
+        restTemplate.postForObject(uri,
+                new BookDTO(null, "Bitmaps", 1300000012L, "Presses Facettes", (short) 2021, "english", null),
+                BookDTO.class);
+
+        BookDTO[] books = restTemplate.getForObject(
+                "/api/v1/books?publisher=Presses Facettes&language=french&yearTo=2020", BookDTO[].class);
+        assertThat(books).extracting(BookDTO::id).containsExactly(french.id());
+        FacetsDTO facets = restTemplate.getForObject("/api/v1/books/facets?publisher=Presses Facettes&language=french",
+                FacetsDTO.class);
+        assertThat(facets.total()).isEqualTo(1);
+        assertThat(facets.languages()).containsEntry("french", 1).containsEntry("english", 1);
+
+        assertThat(restTemplate.getForEntity("/api/v1/books?language=klingon", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private static BookDTO book(String title, long isbn) {
+        return new BookDTO(null, title, isbn, "Dunod", (short) 2023, "french", null);
+    }
+}
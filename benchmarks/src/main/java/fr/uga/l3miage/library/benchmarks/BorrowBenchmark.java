@@ -0,0 +1,111 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link #CHECKOUTS} checkouts started at once, each on its own virtual thread, of two books among
+ * {@link #hotBooks}: the fewer the books, the more checkouts compete for the same copies.
+ * <p>
+ * One invocation runs them all and returns the number of books lent, the borrows are returned before the next one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BorrowBenchmark {
+
+    static final int CHECKOUTS = 4000;
+
+    @Param({"2", "64", "8192"})
+    public int hotBooks;
+
+    private BorrowService borrowService;
+    private long[] borrowerIds;
+    private long[] bookIds;
+    private Date end;
+    private final List<Long> lent = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState state) {
+        borrowService = state.context.getBean(BorrowService.class);
+        BorrowerService borrowerService = state.context.getBean(BorrowerService.class);
+        borrowerIds = new long[CHECKOUTS];
+        for (int i = 0; i < CHECKOUTS; i++) {
+            Borrower borrower = new Borrower();
+            borrower.setFirstName("Reader").setLastName(String.valueOf(i));
+            borrowerIds[i] = borrowerService.save(borrower).getId();
+        }
+        bookIds = state.bookService.list(null, Math.min(hotBooks, state.size)).content().stream()
+                .mapToLong(Book::getId)
+                .toArray();
+        end = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(21));
+    }
+
+    @Benchmark
+    public int checkouts() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Borrow>> futures = new ArrayList<>(CHECKOUTS);
+            for (int i = 0; i < CHECKOUTS; i++) {
+                long borrowerId = borrowerIds[i];
+                List<Long> books = List.of(bookIds[i % bookIds.length], bookIds[(i * 7 + 1) % bookIds.length]);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return borrowService.checkout(borrowerId, books, end);
+                    } catch (BookUnavailableException e) {
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            int books = 0;
+            for (Future<Borrow> future : futures) {
+                Borrow borrow = future.get();
+                if (borrow != null) {
+                    lent.add(borrow.getId());
+                    books += borrow.getBooks().size();
+                }
+            }
+            return books;
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void returnAll() throws EntityNotFoundException {
+        for (Long id : lent) {
+            borrowService.returnBorrow(id);
+        }
+        lent.clear();
+    }
+}
@@ -0,0 +1,68 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.library.Cursors;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /api/v1/books}, {@link BooksController#books}, end to end: service call and mapping, without the HTTP
+ * layer.
+ * <p>
+ * Only the first page is requested, with the default size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ControllerBenchmark {
+
+    private static final int LIMIT = Integer.parseInt(Cursors.DEFAULT_LIMIT);
+
+    private BooksController booksController;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState state) {
+        booksController = state.context.getBean(BooksController.class);
+        // the link to the next page is built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(
+                new MockHttpServletRequest("GET", "/api/v1/books")));
+    }
+
+    @Benchmark
+    public ResponseEntity<List<BookDTO>> listBooks() {
+        return booksController.books(null, null, null, null, null, LIMIT, null, null, request());
+    }
+
+    @Benchmark
+    public ResponseEntity<List<BookDTO>> searchBooks(LibraryState state) {
+        return booksController.books(state.next(state.titleQueries), null, null, null, null, LIMIT, null, null,
+                request());
+    }
+
+    /* a request without If-None-Match, as the response would otherwise be skipped */
+    private static ServletWebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/books"), new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,53 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The seeded application persisting its catalogue to a temporary directory, its writes logged with the given
+ * durability level. Only the mock services persist, the impl ones ignore the properties.
+ */
+@State(Scope.Benchmark)
+public class DurabilityState extends LibraryState {
+
+    @Param({"off", "async", "write", "fsync"})
+    public String durability;
+
+    private Path directory;
+
+    @Override
+    protected SpringApplicationBuilder application() {
+        try {
+            directory = Files.createTempDirectory("library-wal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return super.application()
+                .properties("library.snapshot.file=" + directory.resolve("catalogue.snapshot"),
+                        "library.wal.durability=" + durability);
+    }
+
+    /**
+     * Deletes the files once the application has written its last snapshot.
+     */
+    @Override
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        super.tearDown();
+        try {
+            FileSystemUtils.deleteRecursively(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The CPU and the size of the body of a list of books, the whole catalogue, in each format the endpoints negotiate,
+ * compressed or not. The size is reported in bytes by the {@code bytes} secondary result. Use {@code -p size=10000}
+ * for the figures per 10k books.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatBenchmark {
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    /* with the default level of the server compression */
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private Collection<BookDTO> books;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState state) {
+        objectMapper = format.equals("cbor")
+                ? state.context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper()
+                : state.context.getBean(ObjectMapper.class);
+        books = state.context.getBean(BooksMapper.class).entityToDTO(state.bookService.list());
+    }
+
+    @Benchmark
+    public int write(Payload payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+        OutputStream out = gzip ? new GZIPOutputStream(bytes, 8192) : bytes;
+        // closes the stream, finishing the compression
+        objectMapper.writeValue(out, books);
+        payload.bytes = bytes.size();
+        return bytes.size();
+    }
+
+    /**
+     * The size of the last body written, the same at each call.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Payload {
+        public long bytes;
+    }
+}
@@ -0,0 +1,75 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many concurrent clients over HTTP, with the requests of the server on platform or virtual threads
+ * ({@link ServerState#threads}).
+ * <p>
+ * Throughput mode gives the requests per second, sample time mode the latency percentiles (p0.99 being the p99).
+ * There are more clients than the 200 threads of the default Tomcat pool, so that platform threads queue up.
+ * The difference shows when requests block, i.e. with the impl profile: its connection pool then becomes the limit
+ * ({@code spring.datasource.hikari.maximum-pool-size}).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(400)
+@State(Scope.Benchmark)
+public class HttpLoadBenchmark {
+
+    private HttpClient client;
+    private HttpRequest listBooks;
+
+    @Setup(Level.Trial)
+    public void setUp(ServerState state) {
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        listBooks = HttpRequest.newBuilder(state.uri("/api/v1/books")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public int listBooks() throws IOException, InterruptedException {
+        return send(listBooks);
+    }
+
+    @Benchmark
+    public int authorBooks(ServerState state) throws IOException, InterruptedException {
+        long authorId = state.authorIds[ThreadLocalRandom.current().nextInt(state.authorIds.length)];
+        return send(HttpRequest.newBuilder(state.uri("/api/v1/authors/" + authorId + "/books")).build());
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        // an error page is no measure of anything
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,132 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.LibraryApplication;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The application context shared by all the benchmarks, seeded with {@link #size} books.
+ * <p>
+ * The services are whatever implementation the active profile (mock or impl) puts on the class path, so the
+ * same benchmarks measure both. Every author writes {@link #BOOKS_PER_AUTHOR} books, the first book of the
+ * authors at even positions being co-authored with the next author.
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    static final int BOOKS_PER_AUTHOR = 4;
+    /* the ISBN of the first seeded book, the others follow */
+    static final long FIRST_ISBN = 1000000000L;
+
+    private static final String[] WORDS = {"Java", "JPA", "Spring", "Art", "de", "la", "Programmation", "Boot",
+            "avancée", "Persistence", "Hibernate", "Patterns", "Concurrency", "Practice", "Effective", "Modern"};
+    private static final String[] NAMES = {"Benoit", "Bordigoni", "Joshua", "Bloch", "Brian", "Goetz", "Martin",
+            "Fowler", "Vlad", "Mihalcea", "Doug", "Lea", "Rod", "Johnson", "Juergen", "Hoeller"};
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    ConfigurableApplicationContext context;
+    AuthorService authorService;
+    BookService bookService;
+
+    /* ids of seeded authors, those at even positions have co-authored books */
+    long[] authorIds;
+    /* lower-cased words picked from the titles and names, so that searches do match */
+    String[] titleQueries;
+    String[] nameQueries;
+    /* ISBNs an ingest would check, one in two held by a seeded book */
+    long[] isbnQueries;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws EntityNotFoundException {
+        context = application().run();
+        authorService = context.getBean(AuthorService.class);
+        bookService = context.getBean(BookService.class);
+
+        Random random = new Random(42);
+        int authors = Math.max(2, size / BOOKS_PER_AUTHOR);
+        List<Author> saved = new ArrayList<>(authors);
+        for (int i = 0; i < authors; i++) {
+            Author author = new Author();
+            author.setFullName(NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)] + " " + i);
+            saved.add(authorService.save(author));
+        }
+        for (int i = 0; i < size; i++) {
+            int owner = i % authors;
+            Book book = new Book();
+            book.setTitle(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i);
+            book.setIsbn(FIRST_ISBN + i);
+            book.setPublisher("Dunod");
+            book.setYear((short) (1970 + random.nextInt(55)));
+            book.setLanguage(random.nextBoolean() ? Book.Language.FRENCH : Book.Language.ENGLISH);
+            book = bookService.save(saved.get(owner).getId(), book);
+            if (i < authors && owner % 2 == 0) {
+                bookService.addAuthor(book.getId(), saved.get((owner + 1) % authors).getId());
+            }
+        }
+
+        authorIds = saved.stream().mapToLong(Author::getId).toArray();
+        titleQueries = new String[]{"java", "spring boot", "art de", "persistence", "absent"};
+        nameQueries = new String[]{"bloch", "martin fowler", "lea", "goetz", "absent"};
+        isbnQueries = new long[10_000];
+        for (int i = 0; i < isbnQueries.length; i++) {
+            isbnQueries[i] = FIRST_ISBN + (i % 2 == 0 ? random.nextInt(size) : size + random.nextInt(size));
+        }
+    }
+
+    /**
+     * The application to start, without a web server as the benchmarks call the beans directly.
+     */
+    protected SpringApplicationBuilder application() {
+        return new SpringApplicationBuilder(LibraryApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Round-robins over the given values, benchmarks run single-threaded so there is no need for atomicity.
+     */
+    <T> T next(T[] values) {
+        return values[(next++ & Integer.MAX_VALUE) % values.length];
+    }
+
+    long nextIsbn() {
+        return FIRST_ISBN + (next++ & Integer.MAX_VALUE) % size;
+    }
+
+    long nextAuthorId() {
+        return authorIds[(next++ & Integer.MAX_VALUE) % authorIds.length];
+    }
+
+    /**
+     * An author of at least one co-authored book, which {@link AuthorService#delete(Long)} must refuse to remove.
+     */
+    long nextCoAuthorId() {
+        int index = (next++ & Integer.MAX_VALUE) % authorIds.length;
+        return authorIds[index & ~1];
+    }
+}
@@ -0,0 +1,57 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.authors.AuthorMapper;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MapStruct collection mappings over the whole catalogue, the entities being loaded beforehand.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private BooksMapper booksMapper;
+    private AuthorMapper authorMapper;
+    private Collection<Book> books;
+    private Collection<Author> authors;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState state) {
+        booksMapper = state.context.getBean(BooksMapper.class);
+        authorMapper = state.context.getBean(AuthorMapper.class);
+        books = state.bookService.list();
+        authors = state.authorService.list();
+    }
+
+    @Benchmark
+    public Collection<BookDTO> books() {
+        return booksMapper.entityToDTO(books);
+    }
+
+    @Benchmark
+    public Collection<AuthorDTO> authors() {
+        return authorMapper.entityToDTO(authors);
+    }
+}
@@ -0,0 +1,58 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of recording the timers on the cheapest calls, where it weighs the most: a lookup by id, a search and
+ * the mapping of a single book, with the metrics off and on.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    private BooksMapper booksMapper;
+    private Book book;
+
+    @Setup(Level.Trial)
+    public void setUp(MetricsState state) throws EntityNotFoundException {
+        booksMapper = state.context.getBean(BooksMapper.class);
+        book = state.bookService.getByAuthor(state.authorIds[0]).iterator().next();
+    }
+
+    @Benchmark
+    public Author getAuthor(MetricsState state) throws EntityNotFoundException {
+        return state.authorService.get(state.nextAuthorId());
+    }
+
+    @Benchmark
+    public Collection<Book> findByTitle(MetricsState state) {
+        return state.bookService.findByTitle(state.next(state.titleQueries));
+    }
+
+    @Benchmark
+    public BookDTO mapBook() {
+        return booksMapper.entityToDTO(book);
+    }
+}
@@ -0,0 +1,21 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * The seeded application with the timers of the services, mappers and serialization turned on or off.
+ */
+@State(Scope.Benchmark)
+public class MetricsState extends LibraryState {
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    @Override
+    protected SpringApplicationBuilder application() {
+        return super.application().properties("library.metrics.enabled=" + metrics);
+    }
+}
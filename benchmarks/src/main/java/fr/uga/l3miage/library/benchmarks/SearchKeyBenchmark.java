@@ -0,0 +1,90 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.SearchKeys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The matching done by the title and name searches over the whole catalogue: lower-casing both texts on every
+ * comparison, as the mock services did, against comparing the keys precomputed by {@link SearchKeys}.
+ * <p>
+ * Run with {@code -prof gc}: {@code gc.alloc.rate.norm} is the number of bytes allocated per query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchKeyBenchmark {
+
+    private Book[] books;
+    private Author[] authors;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState state) {
+        books = state.bookService.list().toArray(Book[]::new);
+        authors = state.authorService.list().toArray(Author[]::new);
+    }
+
+    @Benchmark
+    public int titlesLowerCased(LibraryState state) {
+        String lowerTitle = state.next(state.titleQueries).toLowerCase();
+        int matches = 0;
+        for (Book book : books) {
+            if (book.getTitle().toLowerCase().contains(lowerTitle)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int titleKeys(LibraryState state) {
+        String key = SearchKeys.fold(state.next(state.titleQueries));
+        int matches = 0;
+        for (Book book : books) {
+            if (book.getTitleKey().contains(key)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int namesLowerCased(LibraryState state) {
+        String lowerName = state.next(state.nameQueries).toLowerCase();
+        int matches = 0;
+        for (Author author : authors) {
+            if (author.getFullName().toLowerCase().contains(lowerName)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int nameKeys(LibraryState state) {
+        String key = SearchKeys.fold(state.next(state.nameQueries));
+        int matches = 0;
+        for (Author author : authors) {
+            if (author.getFullNameKey().contains(key)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,32 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.net.URI;
+
+/**
+ * The seeded application behind a real Tomcat on a random port, running the requests on platform or virtual threads.
+ */
+@State(Scope.Benchmark)
+public class ServerState extends LibraryState {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Override
+    protected SpringApplicationBuilder application() {
+        return super.application()
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0", "spring.threads.virtual.enabled=" + "virtual".equals(threads));
+    }
+
+    URI uri(String path) {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,103 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.BookFilter;
+import fr.uga.l3miage.library.service.search.Facets;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The read paths of {@link fr.uga.l3miage.library.service.BookService} and
+ * {@link fr.uga.l3miage.library.service.AuthorService}, and the co-author check of author deletion.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    /* about a quarter of the seeded books */
+    private static final BookFilter FILTER = new BookFilter(null, Set.of(Book.Language.ENGLISH), Set.of("Dunod"),
+            (short) 2000, (short) 2024);
+
+    @Benchmark
+    public Collection<Book> findByTitle(LibraryState state) {
+        return state.bookService.findByTitle(state.next(state.titleQueries));
+    }
+
+    @Benchmark
+    public Collection<Author> searchByName(LibraryState state) {
+        return state.authorService.searchByName(state.next(state.nameQueries));
+    }
+
+    @Benchmark
+    public List<Book> search(LibraryState state) {
+        return state.bookService.search(state.next(state.titleQueries), SearchMode.TERMS, 20);
+    }
+
+    @Benchmark
+    public List<Book> searchFuzzy(LibraryState state) {
+        return state.bookService.search(state.next(state.titleQueries), SearchMode.FUZZY, 20);
+    }
+
+    @Benchmark
+    public List<Suggestion> suggest(LibraryState state) {
+        return state.bookService.suggest(state.next(state.titleQueries), 10);
+    }
+
+    @Benchmark
+    public Page<Book, Long> findByFilter(LibraryState state) {
+        return state.bookService.findByFilter(FILTER, null, 100);
+    }
+
+    @Benchmark
+    public Facets facets(LibraryState state) {
+        return state.bookService.countFacets(FILTER);
+    }
+
+    @Benchmark
+    public Book getByIsbn(LibraryState state) throws EntityNotFoundException {
+        return state.bookService.getByIsbn(state.nextIsbn());
+    }
+
+    /* 10 000 ISBNs checked at once */
+    @Benchmark
+    public long[] findExistingIsbns(LibraryState state) {
+        return state.bookService.findExistingIsbns(state.isbnQueries);
+    }
+
+    @Benchmark
+    public Collection<Book> getByAuthor(LibraryState state) throws EntityNotFoundException {
+        return state.bookService.getByAuthor(state.nextAuthorId());
+    }
+
+    /**
+     * Always refused, so the data set is left untouched between invocations.
+     */
+    @Benchmark
+    public DeleteAuthorException deleteCoAuthor(LibraryState state) throws EntityNotFoundException {
+        try {
+            state.authorService.delete(state.nextCoAuthorId());
+        } catch (DeleteAuthorException e) {
+            return e;
+        }
+        throw new IllegalStateException("a co-author has been deleted");
+    }
+}
@@ -0,0 +1,52 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The write throughput of the services without a log, for writers spread over the seeded authors. The number of
+ * writers is given with {@code -t}, one run per count shows how the striped locks of the mock scale with the cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreBenchmark {
+
+    /* past the ISBNs of the seeded books, books may not share one */
+    private static final AtomicLong ISBNS = new AtomicLong(2000000000L);
+
+    /**
+     * Renames an author to the same name, the catalogue keeps its size.
+     */
+    @Benchmark
+    public Author updateAuthor(LibraryState state) throws EntityNotFoundException {
+        long[] ids = state.authorIds;
+        Author author = new Author();
+        author.setId(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+        author.setFullName("Stored Author");
+        return state.authorService.update(author);
+    }
+
+    @Benchmark
+    public Book saveBook(LibraryState state) throws EntityNotFoundException {
+        long[] ids = state.authorIds;
+        Book book = new Book();
+        book.setTitle("Stored Book");
+        book.setIsbn(ISBNS.incrementAndGet());
+        return state.bookService.save(ids[ThreadLocalRandom.current().nextInt(ids.length)], book);
+    }
+}
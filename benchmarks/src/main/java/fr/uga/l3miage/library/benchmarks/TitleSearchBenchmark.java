@@ -0,0 +1,77 @@
+package fr.uga.l3miage.library.benchmarks;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The title and name searches of the services, resolved from the trigram index by the mock, against the linear scan
+ * they replaced, lower-casing every title or name of the catalogue.
+ * <p>
+ * The catalogue sizes are given with {@code -p size=10000,1000000}, the fork needs a larger heap for a million
+ * books: {@code -jvmArgs -Xmx4g}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TitleSearchBenchmark {
+
+    private Book[] books;
+    private Author[] authors;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState state) {
+        books = state.bookService.list().toArray(Book[]::new);
+        authors = state.authorService.list().toArray(Author[]::new);
+    }
+
+    @Benchmark
+    public int titleScan(LibraryState state) {
+        String lowerTitle = state.next(state.titleQueries).toLowerCase();
+        int matches = 0;
+        for (Book book : books) {
+            if (book.getTitle().toLowerCase().contains(lowerTitle)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public Collection<Book> titleIndex(LibraryState state) {
+        return state.bookService.findByTitle(state.next(state.titleQueries));
+    }
+
+    @Benchmark
+    public int nameScan(LibraryState state) {
+        String lowerName = state.next(state.nameQueries).toLowerCase();
+        int matches = 0;
+        for (Author author : authors) {
+            if (author.getFullName().toLowerCase().contains(lowerName)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public Collection<Author> nameIndex(LibraryState state) {
+        return state.authorService.searchByName(state.next(state.nameQueries));
+    }
+}
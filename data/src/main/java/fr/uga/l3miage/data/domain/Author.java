@@ -1,12 +1,39 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
+
 import java.util.HashSet;
 import java.util.Set;
 
+@Entity
+@NamedEntityGraph(name = Author.WITH_BOOKS, attributeNodes = @NamedAttributeNode("books"))
 public class Author {
+
+    /**
+     * Fetch plan loading the books of the author along with it
+     */
+    public static final String WITH_BOOKS = "Author.books";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", allocationSize = 50)
     private Long id;
     private String fullName;
+    @Column(name = "full_name_key")
+    private String fullNameKey;
+    @ManyToMany(mappedBy = "authors")
     private Set<Book> books;
+    @Version
+    private long version;
 
     public Long getId() {
         return id;
@@ -16,12 +43,31 @@ public class Author {
         this.id = id;
     }
 
+    /**
+     * Incremented each time the object is written
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getFullName() {
         return fullName;
     }
 
     public void setFullName(String fullName) {
         this.fullName = fullName;
+        this.fullNameKey = SearchKeys.fold(fullName);
+    }
+
+    /**
+     * The full name as searched, see {@link SearchKeys}
+     */
+    public String getFullNameKey() {
+        return fullNameKey;
     }
 
     public Set<Book> getBooks() {
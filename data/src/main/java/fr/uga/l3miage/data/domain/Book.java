@@ -1,17 +1,63 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+
 import java.util.HashSet;
 import java.util.Set;
 
+@Entity
+@NamedEntityGraph(name = Book.WITH_AUTHORS, attributeNodes = @NamedAttributeNode("authors"))
+@Table(uniqueConstraints = @UniqueConstraint(name = Book.ISBN_CONSTRAINT, columnNames = "isbn_key"))
 public class Book {
 
+    /**
+     * Fetch plan loading the authors of the book along with it
+     */
+    public static final String WITH_AUTHORS = "Book.authors";
+
+    /**
+     * Name of the unique constraint on the ISBN
+     */
+    public static final String ISBN_CONSTRAINT = "book_isbn";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", allocationSize = 50)
     private Long id;
     private String title;
+    @Column(name = "title_key")
+    private String titleKey;
     private long isbn;
+    /* the ISBN, null for none, as the unique constraint only ignores nulls */
+    @Column(name = "isbn_key")
+    private Long isbnKey;
     private String publisher;
+    @Column(name = "publication_year")
     private short year;
+    @Enumerated(EnumType.STRING)
     private Language language;
+    @ManyToMany
+    @JoinTable(name = "book_author",
+            joinColumns = @JoinColumn(name = "book_id"),
+            inverseJoinColumns = @JoinColumn(name = "author_id"))
     private Set<Author> authors;
+    @Version
+    private long version;
 
     public Long getId() {
         return id;
@@ -21,20 +67,43 @@ public class Book {
         this.id = id;
     }
 
+    /**
+     * Incremented each time the object is written
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
 
     public void setTitle(String title) {
         this.title = title;
+        this.titleKey = SearchKeys.fold(title);
+    }
+
+    /**
+     * The title as searched, see {@link SearchKeys}
+     */
+    public String getTitleKey() {
+        return titleKey;
     }
 
     public long getIsbn() {
         return isbn;
     }
 
+    /**
+     * @param isbn the ISBN, 0 for none: no two books may share another
+     */
     public void setIsbn(long isbn) {
         this.isbn = isbn;
+        this.isbnKey = isbn == 0 ? null : isbn;
     }
 
     public String getPublisher() {
@@ -1,15 +1,73 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import jakarta.persistence.Version;
+
 import java.util.Date;
 import java.util.Set;
 
+/**
+ * Books lent to a borrower from {@link #getStart() start}, to be given back by {@link #getEnd() end}.
+ * <p>
+ * A borrow is active until it is {@link #getReturned() returned}, a book being available when no active borrow
+ * holds it. The indexes serve the availability of a book, the active borrows of a borrower, the overdue borrows and
+ * the sweep {@link #isLate() flagging} the borrows once they become overdue.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "borrow_borrower_returned", columnList = "borrower_id, returned_date"),
+        @Index(name = "borrow_returned_end", columnList = "returned_date, end_date"),
+        @Index(name = "borrow_returned_late_end", columnList = "returned_date, late, end_date")})
+@NamedEntityGraph(name = Borrow.WITH_BOOKS, attributeNodes = @NamedAttributeNode("books"))
 public class Borrow {
+
+    /**
+     * Fetch plan loading the books of the borrow along with it
+     */
+    public static final String WITH_BOOKS = "Borrow.books";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrow_seq")
+    @SequenceGenerator(name = "borrow_seq", allocationSize = 50)
     private Long id;
+    @ManyToMany
+    @JoinTable(name = "borrow_book",
+            joinColumns = @JoinColumn(name = "borrow_id"),
+            inverseJoinColumns = @JoinColumn(name = "book_id"),
+            indexes = @Index(name = "borrow_book_book", columnList = "book_id"))
     private Set<Book> books;
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "start_date")
     private Date start;
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "end_date")
     private Date end;
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "returned_date")
+    private Date returned;
+    private boolean late;
+    @ManyToOne(fetch = FetchType.LAZY)
     private Borrower borrower;
+    @ManyToOne(fetch = FetchType.LAZY)
     private Librarian librarian;
+    @Version
+    private long version;
 
     public Long getId() {
         return id;
@@ -19,6 +77,17 @@ public class Borrow {
         this.id = id;
     }
 
+    /**
+     * Incremented each time the object is written
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Set<Book> getBooks() {
         return books;
     }
@@ -35,6 +104,9 @@ public class Borrow {
         this.start = start;
     }
 
+    /**
+     * The date the books are due
+     */
     public Date getEnd() {
         return end;
     }
@@ -43,6 +115,28 @@ public class Borrow {
         this.end = end;
     }
 
+    /**
+     * The date the books were given back, null while the borrow is active
+     */
+    public Date getReturned() {
+        return returned;
+    }
+
+    public void setReturned(Date returned) {
+        this.returned = returned;
+    }
+
+    /**
+     * Whether the borrow went past its due date, flagged by the overdue sweep or when returned late
+     */
+    public boolean isLate() {
+        return late;
+    }
+
+    public void setLate(boolean late) {
+        this.late = late;
+    }
+
     public Borrower getBorrower() {
         return borrower;
     }
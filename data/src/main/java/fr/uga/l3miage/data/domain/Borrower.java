@@ -1,10 +1,28 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import jakarta.persistence.Version;
+
 import java.util.Date;
 
+/**
+ * Someone borrowing books. The late ratio is kept up to date each time one of their borrows is returned, from the
+ * numbers of returns on time and late, and indexed to rank the borrowers most often late.
+ */
+@Entity
+@Table(indexes = @Index(name = "borrower_late", columnList = "late_ratio, late_returns"))
 public class Borrower extends Person {
+    @Temporal(TemporalType.TIMESTAMP)
     private Date registered;
     private float lateRatio;
+    private int onTimeReturns;
+    private int lateReturns;
+    @Version
+    private long version;
 
     public Date getRegistered() {
         return registered;
@@ -21,4 +39,45 @@ public class Borrower extends Person {
     public void setLateRatio(float lateRatio) {
         this.lateRatio = lateRatio;
     }
+
+    public int getOnTimeReturns() {
+        return onTimeReturns;
+    }
+
+    public void setOnTimeReturns(int onTimeReturns) {
+        this.onTimeReturns = onTimeReturns;
+    }
+
+    public int getLateReturns() {
+        return lateReturns;
+    }
+
+    public void setLateReturns(int lateReturns) {
+        this.lateReturns = lateReturns;
+    }
+
+    /**
+     * Counts a returned borrow and updates the late ratio accordingly
+     *
+     * @param late whether the borrow was returned after its due date
+     */
+    public void returned(boolean late) {
+        if (late) {
+            lateReturns++;
+        } else {
+            onTimeReturns++;
+        }
+        lateRatio = (float) lateReturns / (onTimeReturns + lateReturns);
+    }
+
+    /**
+     * Incremented each time the object is written
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -1,7 +1,13 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ManyToOne;
+
+@Entity
 public class Librarian extends Person {
 
+    @ManyToOne(fetch = FetchType.LAZY)
     private Librarian manager;
 
     public Librarian getManager() {
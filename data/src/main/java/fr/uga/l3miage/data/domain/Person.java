@@ -1,13 +1,29 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+
 import java.util.Date;
 
+@MappedSuperclass
 public abstract class Person {
 
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @SequenceGenerator(name = "person_seq", allocationSize = 50)
     private Long id;
+    @Enumerated(EnumType.STRING)
     private Gender gender;
     private String firstName;
     private String lastName;
+    @Temporal(TemporalType.DATE)
     private Date birth;
 
     public Long getId() {
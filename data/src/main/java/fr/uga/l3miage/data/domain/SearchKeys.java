@@ -0,0 +1,46 @@
+package fr.uga.l3miage.data.domain;
+
+import java.text.Normalizer;
+
+/**
+ * The keys texts are searched by: lower-cased, without accents and with the French ligatures spelled out, so that
+ * "Avancée", "AVANCEE" and "avancee" share the key "avancee".
+ * <p>
+ * Entities compute the keys of their searchable texts once, when the text is set, so that a search only folds its
+ * query and then compares keys with {@link String#contains(CharSequence)}, which allocates nothing.
+ */
+public final class SearchKeys {
+
+    private SearchKeys() {
+        // static helpers only
+    }
+
+    /**
+     * The search key of a text.
+     *
+     * @param text any text, may be null
+     * @return the folded text, null for a null text
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            switch (c) {
+                case 'œ', 'Œ' -> key.append("oe");
+                case 'æ', 'Æ' -> key.append("ae");
+                case 'ß' -> key.append("ss");
+                default -> {
+                    // the accents split from their letter by the decomposition
+                    if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                        key.append(Character.toLowerCase(c));
+                    }
+                }
+            }
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package fr.uga.l3miage.data.repo;
+
+import fr.uga.l3miage.data.domain.Author;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JPA repository of {@link Author}, to be used within a transaction.
+ */
+public class AuthorRepository implements Repository<Author, Long> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void save(Author entity) {
+        if (entity.getId() == null) {
+            entityManager.persist(entity);
+        } else {
+            entityManager.merge(entity);
+        }
+    }
+
+    @Override
+    public void delete(Author entity) {
+        entityManager.remove(entity);
+    }
+
+    @Override
+    public Author findById(Long id) {
+        return entityManager.find(Author.class, id);
+    }
+
+    /**
+     * Retrieve an author and its books in a single query.
+     *
+     * @param id id of the author
+     * @return the author or null
+     */
+    public Author findByIdWithBooks(Long id) {
+        return entityManager.find(Author.class, id, Queries.fetchGraph(entityManager, Author.WITH_BOOKS));
+    }
+
+    @Override
+    public List<Author> findAllById(Collection<Long> ids) {
+        return Queries.inChunks(ids, chunk -> entityManager
+                .createQuery("select a from Author a where a.id in :ids", Author.class)
+                .setParameter("ids", chunk)
+                .getResultList());
+    }
+
+    @Override
+    public List<Author> getAll() {
+        return entityManager.createQuery("select a from Author a order by a.id", Author.class)
+                .getResultList();
+    }
+
+    /**
+     * Retrieve the authors following an id, in id order.
+     *
+     * @param after the id to start after, null to start from the first author
+     * @param max   maximum number of authors
+     * @return the authors
+     */
+    public List<Author> getAll(Long after, int max) {
+        return entityManager.createQuery("select a from Author a where a.id > :after order by a.id", Author.class)
+                .setParameter("after", Queries.after(after))
+                .setMaxResults(max)
+                .getResultList();
+    }
+
+    /**
+     * Search authors by name, ignoring case and accents.
+     *
+     * @param name partial or complete name
+     * @return the matching authors
+     */
+    public List<Author> searchByName(String name) {
+        return entityManager.createQuery("""
+                        select a from Author a
+                        where a.fullNameKey like :name escape '\\'
+                        order by a.id""", Author.class)
+                .setParameter("name", Queries.containing(name))
+                .getResultList();
+    }
+
+    /**
+     * Search the authors following an id by name, ignoring case and accents, in id order.
+     *
+     * @param name  partial or complete name
+     * @param after the id to start after, null to start from the first author
+     * @param max   maximum number of authors
+     * @return the matching authors
+     */
+    public List<Author> searchByName(String name, Long after, int max) {
+        return entityManager.createQuery("""
+                        select a from Author a
+                        where a.fullNameKey like :name escape '\\'
+                        and a.id > :after
+                        order by a.id""", Author.class)
+                .setParameter("name", Queries.containing(name))
+                .setParameter("after", Queries.after(after))
+                .setMaxResults(max)
+                .getResultList();
+    }
+
+    /**
+     * Count the books of an author that have other authors.
+     *
+     * @param id id of the author
+     * @return the number of co-authored books
+     */
+    public long countCoAuthoredBooks(Long id) {
+        return entityManager.createQuery("""
+                        select count(b) from Book b join b.authors a
+                        where a.id = :id and size(b.authors) > 1""", Long.class)
+                .setParameter("id", id)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,262 @@
+package fr.uga.l3miage.data.repo;
+
+import fr.uga.l3miage.data.domain.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JPA repository of {@link Book}, to be used within a transaction.
+ * <p>
+ * Books are always loaded with their authors, in the same query. Paginated queries first select the ids of the
+ * page, as the database cannot limit rows while joining the authors, then load those books and their authors.
+ */
+public class BookRepository implements Repository<Book, Long> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void save(Book entity) {
+        if (entity.getId() == null) {
+            entityManager.persist(entity);
+        } else {
+            entityManager.merge(entity);
+        }
+    }
+
+    @Override
+    public void delete(Book entity) {
+        entityManager.remove(entity);
+    }
+
+    @Override
+    public Book findById(Long id) {
+        return entityManager.find(Book.class, id, Queries.fetchGraph(entityManager, Book.WITH_AUTHORS));
+    }
+
+    @Override
+    public List<Book> findAllById(Collection<Long> ids) {
+        return Queries.inChunks(ids, chunk -> entityManager
+                .createQuery("select b from Book b where b.id in :ids", Book.class)
+                .setParameter("ids", chunk)
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Book.WITH_AUTHORS))
+                .getResultList());
+    }
+
+    /**
+     * Writes the pending changes now, so that a constraint they break fails here rather than at commit.
+     */
+    public void flush() {
+        entityManager.flush();
+    }
+
+    /**
+     * Retrieve the book holding an ISBN.
+     *
+     * @param isbn the ISBN, not 0
+     * @return the book or null
+     */
+    public Book findByIsbn(long isbn) {
+        return entityManager.createQuery("select b from Book b where b.isbnKey = :isbn", Book.class)
+                .setParameter("isbn", isbn)
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Book.WITH_AUTHORS))
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Find which ISBNs are held by a book, without loading the books.
+     *
+     * @param isbns the ISBNs to look for
+     * @return the ISBNs held, in no particular order
+     */
+    public List<Long> findIsbns(Collection<Long> isbns) {
+        return Queries.inChunks(isbns, chunk -> entityManager
+                .createQuery("select b.isbnKey from Book b where b.isbnKey in :isbns", Long.class)
+                .setParameter("isbns", chunk)
+                .getResultList());
+    }
+
+    /**
+     * Retrieve several books and lock them until the end of the transaction, in id order so that two transactions
+     * locking overlapping books cannot deadlock. Their authors are not loaded.
+     *
+     * @param ids ids of the books
+     * @return the books found, in id order
+     */
+    public List<Book> lockAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("select b from Book b where b.id in :ids order by b.id", Book.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    @Override
+    public List<Book> getAll() {
+        return entityManager.createQuery("select b from Book b order by b.id", Book.class)
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Book.WITH_AUTHORS))
+                .getResultList();
+    }
+
+    /**
+     * Find books by title, ignoring case and accents.
+     *
+     * @param title partial or complete title
+     * @return the matching books
+     */
+    public List<Book> findByTitle(String title) {
+        return entityManager.createQuery("""
+                        select b from Book b
+                        where b.titleKey like :title escape '\\'
+                        order by b.id""", Book.class)
+                .setParameter("title", Queries.containing(title))
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Book.WITH_AUTHORS))
+                .getResultList();
+    }
+
+    /**
+     * Find the ids of the books by title, ignoring case and accents, without loading the books.
+     *
+     * @param title partial or complete title
+     * @return the ids of the matching books, in id order
+     */
+    public List<Long> findIdsByTitle(String title) {
+        return entityManager.createQuery("""
+                        select b.id from Book b
+                        where b.titleKey like :title escape '\\'
+                        order by b.id""", Long.class)
+                .setParameter("title", Queries.containing(title))
+                .getResultList();
+    }
+
+    /**
+     * Find the books of an author.
+     *
+     * @param authorId id of the author
+     * @return all the books of the author
+     */
+    public List<Book> findByAuthor(Long authorId) {
+        return entityManager.createQuery("""
+                        select b from Book b
+                        where exists (select 1 from b.authors a where a.id = :authorId)
+                        order by b.id""", Book.class)
+                .setParameter("authorId", authorId)
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Book.WITH_AUTHORS))
+                .getResultList();
+    }
+
+    /**
+     * Find the books of an author by title, ignoring case and accents.
+     *
+     * @param authorId id of the author
+     * @param title    partial or complete title
+     * @return the matching books of the author
+     */
+    public List<Book> findByAuthorAndTitle(Long authorId, String title) {
+        return entityManager.createQuery("""
+                        select b from Book b
+                        where exists (select 1 from b.authors a where a.id = :authorId)
+                        and b.titleKey like :title escape '\\'
+                        order by b.id""", Book.class)
+                .setParameter("authorId", authorId)
+                .setParameter("title", Queries.containing(title))
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Book.WITH_AUTHORS))
+                .getResultList();
+    }
+
+    /**
+     * Retrieve the books following an id, in id order.
+     *
+     * @param after the id to start after, null to start from the first book
+     * @param max   maximum number of books
+     * @return the books
+     */
+    public List<Book> getAll(Long after, int max) {
+        return withAuthors(entityManager.createQuery("""
+                select b.id from Book b
+                where b.id > :after
+                order by b.id""", Long.class)
+                .setParameter("after", Queries.after(after))
+                .setMaxResults(max));
+    }
+
+    /**
+     * Find the books following an id by title, ignoring case and accents, in id order.
+     *
+     * @param title partial or complete title
+     * @param after the id to start after, null to start from the first book
+     * @param max   maximum number of books
+     * @return the matching books
+     */
+    public List<Book> findByTitle(String title, Long after, int max) {
+        return withAuthors(entityManager.createQuery("""
+                select b.id from Book b
+                where b.titleKey like :title escape '\\'
+                and b.id > :after
+                order by b.id""", Long.class)
+                .setParameter("title", Queries.containing(title))
+                .setParameter("after", Queries.after(after))
+                .setMaxResults(max));
+    }
+
+    /**
+     * Find the books of an author following an id, in id order.
+     *
+     * @param authorId id of the author
+     * @param after    the id to start after, null to start from the first book
+     * @param max      maximum number of books
+     * @return the books of the author
+     */
+    public List<Book> findByAuthor(Long authorId, Long after, int max) {
+        return withAuthors(entityManager.createQuery("""
+                select b.id from Book b join b.authors a
+                where a.id = :authorId
+                and b.id > :after
+                order by b.id""", Long.class)
+                .setParameter("authorId", authorId)
+                .setParameter("after", Queries.after(after))
+                .setMaxResults(max));
+    }
+
+    /**
+     * Find the books of an author following an id by title, ignoring case and accents, in id order.
+     *
+     * @param authorId id of the author
+     * @param title    partial or complete title
+     * @param after    the id to start after, null to start from the first book
+     * @param max      maximum number of books
+     * @return the matching books of the author
+     */
+    public List<Book> findByAuthorAndTitle(Long authorId, String title, Long after, int max) {
+        return withAuthors(entityManager.createQuery("""
+                select b.id from Book b join b.authors a
+                where a.id = :authorId
+                and b.titleKey like :title escape '\\'
+                and b.id > :after
+                order by b.id""", Long.class)
+                .setParameter("authorId", authorId)
+                .setParameter("title", Queries.containing(title))
+                .setParameter("after", Queries.after(after))
+                .setMaxResults(max));
+    }
+
+    private List<Book> withAuthors(TypedQuery<Long> ids) {
+        List<Long> page = ids.getResultList();
+        if (page.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("select b from Book b where b.id in :ids order by b.id", Book.class)
+                .setParameter("ids", page)
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Book.WITH_AUTHORS))
+                .getResultList();
+    }
+}
@@ -0,0 +1,159 @@
+package fr.uga.l3miage.data.repo;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * JPA repository of {@link Borrow}, to be used within a transaction.
+ * <p>
+ * Borrows are always loaded with their books. The availability, active and overdue queries only filter on the
+ * columns of the indexes declared by {@link Borrow}, none of them scans the whole history.
+ */
+public class BorrowRepository implements Repository<Borrow, Long> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void save(Borrow entity) {
+        if (entity.getId() == null) {
+            entityManager.persist(entity);
+        } else {
+            entityManager.merge(entity);
+        }
+    }
+
+    @Override
+    public void delete(Borrow entity) {
+        entityManager.remove(entity);
+    }
+
+    @Override
+    public Borrow findById(Long id) {
+        return entityManager.find(Borrow.class, id, Queries.fetchGraph(entityManager, Borrow.WITH_BOOKS));
+    }
+
+    @Override
+    public List<Borrow> findAllById(Collection<Long> ids) {
+        return Queries.inChunks(ids, chunk -> entityManager
+                .createQuery("select b from Borrow b where b.id in :ids", Borrow.class)
+                .setParameter("ids", chunk)
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Borrow.WITH_BOOKS))
+                .getResultList());
+    }
+
+    /**
+     * Retrieve a borrow and lock it until the end of the transaction.
+     *
+     * @param id id of the borrow
+     * @return the borrow or null
+     */
+    public Borrow findByIdForUpdate(Long id) {
+        return entityManager.find(Borrow.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    @Override
+    public List<Borrow> getAll() {
+        return entityManager.createQuery("select b from Borrow b order by b.id", Borrow.class)
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Borrow.WITH_BOOKS))
+                .getResultList();
+    }
+
+    /**
+     * Retrieve the borrows following an id, in id order.
+     *
+     * @param after the id to start after, null to start from the first borrow
+     * @param max   maximum number of borrows
+     * @return the borrows
+     */
+    public List<Borrow> getAll(Long after, int max) {
+        return withBooks(entityManager.createQuery("""
+                select b.id from Borrow b
+                where b.id > :after
+                order by b.id""", Long.class)
+                .setParameter("after", Queries.after(after))
+                .setMaxResults(max));
+    }
+
+    /**
+     * Find the books, among the given ones, held by an active borrow.
+     *
+     * @param bookIds ids of the books
+     * @return the ids of the borrowed books
+     */
+    public List<Long> findBorrowed(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("""
+                        select k.id from Borrow b join b.books k
+                        where k.id in :bookIds and b.returned is null""", Long.class)
+                .setParameter("bookIds", bookIds)
+                .getResultList();
+    }
+
+    /**
+     * Find the active borrows of a borrower.
+     *
+     * @param borrowerId id of the borrower
+     * @return the borrows not returned yet, in id order
+     */
+    public List<Borrow> findActiveByBorrower(Long borrowerId) {
+        return entityManager.createQuery("""
+                        select b from Borrow b
+                        where b.borrower.id = :borrowerId and b.returned is null
+                        order by b.id""", Borrow.class)
+                .setParameter("borrowerId", borrowerId)
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Borrow.WITH_BOOKS))
+                .getResultList();
+    }
+
+    /**
+     * Find the active borrows due before a date.
+     *
+     * @param asOf the date the books should have been returned by
+     * @return the overdue borrows, the longest overdue first
+     */
+    public List<Borrow> findOverdue(Date asOf) {
+        return entityManager.createQuery("""
+                        select b from Borrow b
+                        where b.returned is null and b.end < :asOf
+                        order by b.end, b.id""", Borrow.class)
+                .setParameter("asOf", asOf)
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Borrow.WITH_BOOKS))
+                .getResultList();
+    }
+
+    /**
+     * Flag the active borrows due before a date that are not flagged yet, read from the index on the returned date,
+     * the flag and the due date.
+     *
+     * @param asOf the date the books should have been returned by
+     * @return the number of borrows flagged
+     */
+    public int flagOverdue(Date asOf) {
+        return entityManager.createQuery("""
+                        update Borrow b set b.late = true, b.version = b.version + 1
+                        where b.returned is null and b.late = false and b.end < :asOf""")
+                .setParameter("asOf", asOf)
+                .executeUpdate();
+    }
+
+    private List<Borrow> withBooks(TypedQuery<Long> ids) {
+        List<Long> page = ids.getResultList();
+        if (page.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("select b from Borrow b where b.id in :ids order by b.id", Borrow.class)
+                .setParameter("ids", page)
+                .setHint(Queries.FETCH_GRAPH, entityManager.getEntityGraph(Borrow.WITH_BOOKS))
+                .getResultList();
+    }
+}
@@ -0,0 +1,90 @@
+package fr.uga.l3miage.data.repo;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JPA repository of {@link Borrower}, to be used within a transaction.
+ */
+public class BorrowerRepository implements Repository<Borrower, Long> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void save(Borrower entity) {
+        if (entity.getId() == null) {
+            entityManager.persist(entity);
+        } else {
+            entityManager.merge(entity);
+        }
+    }
+
+    @Override
+    public void delete(Borrower entity) {
+        entityManager.remove(entity);
+    }
+
+    @Override
+    public Borrower findById(Long id) {
+        return entityManager.find(Borrower.class, id);
+    }
+
+    @Override
+    public List<Borrower> findAllById(Collection<Long> ids) {
+        return Queries.inChunks(ids, chunk -> entityManager
+                .createQuery("select b from Borrower b where b.id in :ids", Borrower.class)
+                .setParameter("ids", chunk)
+                .getResultList());
+    }
+
+    /**
+     * Retrieve a borrower and lock it until the end of the transaction.
+     *
+     * @param id id of the borrower
+     * @return the borrower or null
+     */
+    public Borrower findByIdForUpdate(Long id) {
+        return entityManager.find(Borrower.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    @Override
+    public List<Borrower> getAll() {
+        return entityManager.createQuery("select b from Borrower b order by b.id", Borrower.class)
+                .getResultList();
+    }
+
+    /**
+     * Retrieve the borrowers following an id, in id order.
+     *
+     * @param after the id to start after, null to start from the first borrower
+     * @param max   maximum number of borrowers
+     * @return the borrowers
+     */
+    public List<Borrower> getAll(Long after, int max) {
+        return entityManager.createQuery("select b from Borrower b where b.id > :after order by b.id", Borrower.class)
+                .setParameter("after", Queries.after(after))
+                .setMaxResults(max)
+                .getResultList();
+    }
+
+    /**
+     * Find the borrowers most often late, read from the late ratio index.
+     *
+     * @param max maximum number of borrowers
+     * @return the borrowers with at least one late return, the highest ratio first
+     */
+    public List<Borrower> findMostLate(int max) {
+        return entityManager.createQuery("""
+                        select b from Borrower b
+                        where b.lateRatio > 0
+                        order by b.lateRatio desc, b.lateReturns desc""", Borrower.class)
+                .setMaxResults(max)
+                .getResultList();
+    }
+}
@@ -0,0 +1,65 @@
+package fr.uga.l3miage.data.repo;
+
+import fr.uga.l3miage.data.domain.SearchKeys;
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Helpers shared by the JPA repositories.
+ */
+final class Queries {
+
+    static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+    /* the most ids bound to one in list, within what every database and its statement cache handle well */
+    static final int IN_CHUNK = 500;
+
+    private Queries() {
+        // static helpers only
+    }
+
+    /**
+     * The hints applying a named entity graph as fetch plan.
+     */
+    static Map<String, Object> fetchGraph(EntityManager entityManager, String graph) {
+        return Map.of(FETCH_GRAPH, entityManager.getEntityGraph(graph));
+    }
+
+    /**
+     * The lower bound of a keyset page, ids being compared with {@code >}.
+     */
+    static long after(Long after) {
+        return after == null ? Long.MIN_VALUE : after;
+    }
+
+    /**
+     * A {@code like} pattern matching the text anywhere in a search key column, ignoring case and accents.
+     * Use with {@code escape '\'}.
+     */
+    static String containing(String text) {
+        String escaped = SearchKeys.fold(text)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    /**
+     * Runs an {@code in :ids} query once per chunk of at most {@value #IN_CHUNK} distinct ids.
+     */
+    static <I, T> List<T> inChunks(Collection<I> ids, Function<List<I>, List<T>> query) {
+        List<I> distinct = ids.stream().distinct().toList();
+        if (distinct.size() <= IN_CHUNK) {
+            return distinct.isEmpty() ? List.of() : query.apply(distinct);
+        }
+        List<T> found = new ArrayList<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += IN_CHUNK) {
+            found.addAll(query.apply(distinct.subList(from, Math.min(from + IN_CHUNK, distinct.size()))));
+        }
+        return found;
+    }
+}
@@ -1,5 +1,6 @@
 package fr.uga.l3miage.data.repo;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -32,6 +33,14 @@ public interface Repository<T, I> {
      */
     T findById(I id);
 
+    /**
+     * Retrieve several entities by id, in as few queries as the database allows.
+     *
+     * @param ids ids of the entities
+     * @return the entities found, in no particular order
+     */
+    List<T> findAllById(Collection<I> ids);
+
     /**
      * Retrieve all entities of a given type.
      *
@@ -0,0 +1,156 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.repo.AuthorRepository;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Transactional
+public class AuthorServiceImpl implements AuthorService {
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final CatalogueVersion catalogueVersion;
+    private final CatalogueIndexes catalogueIndexes;
+
+    @Autowired
+    public AuthorServiceImpl(AuthorRepository authorRepository, BookRepository bookRepository,
+            CatalogueVersion catalogueVersion, CatalogueIndexes catalogueIndexes) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.catalogueVersion = catalogueVersion;
+        this.catalogueIndexes = catalogueIndexes;
+    }
+
+    @Override
+    public Author save(Author author) {
+        author.setId(null);
+        authorRepository.save(author);
+        catalogueIndexes.indexed(author);
+        catalogueVersion.written();
+        return author;
+    }
+
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        for (Author author : authors) {
+            author.setId(null);
+            authorRepository.save(author);
+            catalogueIndexes.indexed(author);
+        }
+        catalogueVersion.written();
+        return authors;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Author> searchByName(String name) {
+        return authorRepository.searchByName(name);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Author, Long> searchByName(String name, Long after, int limit) {
+        return Page.of(authorRepository.searchByName(name, after, limit + 1), limit, Author::getId);
+    }
+
+    /**
+     * The index ranks the ids, the authors are then loaded in one query.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Author> search(String query, SearchMode mode, int limit) {
+        return getAll(catalogueIndexes.authors(query, mode, limit)).content();
+    }
+
+    /**
+     * Answered by the index alone, without reading the database.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return catalogueIndexes.authorSuggestions(prefix, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Author get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(authorRepository.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find author with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Batch<Author, Long> getAll(Collection<Long> ids) {
+        Map<Long, Author> found = authorRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+        return Batch.of(ids, found::get);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Author> list() {
+        return authorRepository.getAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Author, Long> list(Long after, int limit) {
+        return Page.of(authorRepository.getAll(after, limit + 1), limit, Author::getId);
+    }
+
+    @Override
+    public Author update(Author author) throws EntityNotFoundException {
+        Author stored = get(author.getId());
+        stored.setFullName(author.getFullName());
+        catalogueIndexes.indexed(stored);
+        catalogueVersion.written();
+        return stored;
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        Author author = Optional.ofNullable(authorRepository.findByIdWithBooks(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find author with id: " + id));
+
+        if (authorRepository.countCoAuthoredBooks(id) > 0) {
+            throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
+        }
+
+        List<Book> books = List.copyOf(author.getBooks());
+        author.getBooks().clear();
+        for (Book book : books) {
+            bookRepository.delete(book);
+            catalogueIndexes.removed(book);
+        }
+        authorRepository.delete(author);
+        catalogueIndexes.removed(author);
+        catalogueVersion.written();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long version() {
+        return catalogueVersion.get();
+    }
+
+}
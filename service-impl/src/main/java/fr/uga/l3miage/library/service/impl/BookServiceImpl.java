@@ -0,0 +1,311 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.repo.AuthorRepository;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.BookFilter;
+import fr.uga.l3miage.library.service.search.Facets;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.Optional;
+
+@Component
+@Transactional
+public class BookServiceImpl implements BookService {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CatalogueVersion catalogueVersion;
+    private final CatalogueIndexes catalogueIndexes;
+
+    @Autowired
+    public BookServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository,
+            CatalogueVersion catalogueVersion, CatalogueIndexes catalogueIndexes) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.catalogueVersion = catalogueVersion;
+        this.catalogueIndexes = catalogueIndexes;
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        Author author = getAuthor(authorId);
+        book.setId(null);
+        book.setAuthors(null);
+        // only the owning side is written, the books of the author are left unloaded
+        book.addAuthor(author);
+        checkIsbns(List.of(book));
+        bookRepository.save(book);
+        flush();
+        catalogueIndexes.indexed(book);
+        catalogueVersion.written();
+        return book;
+    }
+
+    @Override
+    public List<Book> saveAll(List<Book> books) throws EntityNotFoundException {
+        Set<Long> authorIds = new HashSet<>();
+        for (Book book : books) {
+            if (book.getAuthors() != null) {
+                book.getAuthors().forEach(author -> authorIds.add(author.getId()));
+            }
+        }
+        Map<Long, Author> authors = authorRepository.findAllById(authorIds).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+        if (authors.size() < authorIds.size()) {
+            authorIds.removeAll(authors.keySet());
+            throw new EntityNotFoundException("Cannot find authors with ids: " + authorIds);
+        }
+
+        checkIsbns(books);
+
+        // the inserts are sent in JDBC batches when the transaction is flushed
+        for (Book book : books) {
+            Set<Author> bookAuthors = book.getAuthors();
+            book.setId(null);
+            book.setAuthors(null);
+            if (bookAuthors != null) {
+                bookAuthors.forEach(author -> book.addAuthor(authors.get(author.getId())));
+            }
+            bookRepository.save(book);
+            catalogueIndexes.indexed(book);
+        }
+        flush();
+        catalogueVersion.written();
+        return books;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Book get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(bookRepository.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        return Optional.ofNullable(isbn == 0 ? null : bookRepository.findByIsbn(isbn))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with isbn: " + isbn));
+    }
+
+    /**
+     * Answered by the index alone, in one pass, where the database would take a query per chunk of ISBNs.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long[] findExistingIsbns(long[] isbns) {
+        return catalogueIndexes.existingIsbns(isbns);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Batch<Book, Long> getAll(Collection<Long> ids) {
+        Map<Long, Book> found = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return Batch.of(ids, found::get);
+    }
+
+    /**
+     * The facet index selects the ids of the page, the books are then loaded in one query.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book, Long> findByFilter(BookFilter filter, Long after, int limit) {
+        List<Long> ids = catalogueIndexes.books(filter, titled(filter.title()), after, limit + 1);
+        return Page.of(getAll(ids).content(), limit, Book::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Facets countFacets(BookFilter filter) {
+        return catalogueIndexes.facets(filter, titled(filter.title()));
+    }
+
+    /**
+     * The index ranks the ids, the books are then loaded in one query.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> search(String query, SearchMode mode, int limit) {
+        return getAll(catalogueIndexes.books(query, mode, limit)).content();
+    }
+
+    /**
+     * Answered by the index alone, without reading the database.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return catalogueIndexes.bookSuggestions(prefix, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> list() {
+        return bookRepository.getAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book, Long> list(Long after, int limit) {
+        return Page.of(bookRepository.getAll(after, limit + 1), limit, Book::getId);
+    }
+
+    @Override
+    public Book update(Book book) throws EntityNotFoundException {
+        Book stored = get(book.getId());
+        long previousIsbn = stored.getIsbn();
+        if (book.getIsbn() != previousIsbn) {
+            checkIsbns(List.of(book));
+            catalogueIndexes.released(previousIsbn, stored.getId());
+        }
+        stored.setTitle(book.getTitle());
+        stored.setIsbn(book.getIsbn());
+        stored.setPublisher(book.getPublisher());
+        stored.setYear(book.getYear());
+        stored.setLanguage(book.getLanguage());
+        flush();
+        catalogueIndexes.indexed(stored);
+        catalogueVersion.written();
+        return stored;
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        Book book = get(bookId);
+        book.addAuthor(getAuthor(authorId));
+        catalogueVersion.written();
+        return book;
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        Book book = get(id);
+        bookRepository.delete(book);
+        catalogueIndexes.removed(book);
+        catalogueVersion.written();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long version() {
+        return catalogueVersion.get();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> findByTitle(String title) {
+        return bookRepository.findByTitle(title);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book, Long> findByTitle(String title, Long after, int limit) {
+        return Page.of(bookRepository.findByTitle(title, after, limit + 1), limit, Book::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> getByAuthor(Long id) throws EntityNotFoundException {
+        getAuthor(id);
+        return bookRepository.findByAuthor(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book, Long> getByAuthor(Long id, Long after, int limit) throws EntityNotFoundException {
+        getAuthor(id);
+        return Page.of(bookRepository.findByAuthor(id, after, limit + 1), limit, Book::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException {
+        getAuthor(id);
+        return bookRepository.findByAuthorAndTitle(id, title);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book, Long> findByAuthor(Long id, String title, Long after, int limit) throws EntityNotFoundException {
+        getAuthor(id);
+        return Page.of(bookRepository.findByAuthorAndTitle(id, title, after, limit + 1), limit, Book::getId);
+    }
+
+    /**
+     * Checks that no saved book, nor another of the list, holds the ISBN of a book of the list. A transaction saving
+     * the same ISBN meanwhile is caught by the unique constraint of the column, see {@link #flush()}.
+     */
+    private void checkIsbns(List<Book> books) {
+        Set<Long> isbns = new HashSet<>();
+        for (Book book : books) {
+            if (book.getIsbn() != 0 && !isbns.add(book.getIsbn())) {
+                throw new DuplicateIsbnException("ISBN given to several books: " + book.getIsbn());
+            }
+        }
+        List<Long> held = bookRepository.findIsbns(isbns);
+        if (!held.isEmpty()) {
+            throw new DuplicateIsbnException("ISBN already held by another book: " + held.get(0));
+        }
+    }
+
+    /**
+     * Writes the books now, so that the unique constraint of their ISBN fails within the service rather than at
+     * commit. The other violations are left as they are.
+     */
+    private void flush() {
+        try {
+            bookRepository.flush();
+        } catch (PersistenceException e) {
+            ConstraintViolationException violation = e instanceof ConstraintViolationException direct ? direct
+                    : e.getCause() instanceof ConstraintViolationException cause ? cause : null;
+            if (violation != null && isIsbnConstraint(violation.getConstraintName())) {
+                throw new DuplicateIsbnException("ISBN saved meanwhile by another book", e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Whether a violated constraint, as named by the database, is the one of the ISBN: H2 reports the index it
+     * created for it, e.g. {@code PUBLIC.BOOK_ISBN_INDEX_1 ON PUBLIC.BOOK(ISBN_KEY ...)}.
+     */
+    static boolean isIsbnConstraint(String name) {
+        return name != null && name.toLowerCase(Locale.ROOT).contains(Book.ISBN_CONSTRAINT);
+    }
+
+    /**
+     * The ids of the books whose title contains a part, null for no part, to be intersected with the facets.
+     */
+    private List<Long> titled(String title) {
+        return title == null ? null : bookRepository.findIdsByTitle(title);
+    }
+
+    private Author getAuthor(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(authorRepository.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find author with id: " + id));
+    }
+
+}
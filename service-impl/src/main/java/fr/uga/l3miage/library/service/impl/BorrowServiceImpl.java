@@ -0,0 +1,175 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.data.repo.BorrowRepository;
+import fr.uga.l3miage.data.repo.BorrowerRepository;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A checkout locks the rows of its books, in id order, before checking that no active borrow holds them: a
+ * concurrent checkout of any of those books waits for the commit, then finds them borrowed.
+ * <p>
+ * A return locks the borrow, then its borrower, whose counters and late ratio are updated in place.
+ */
+@Component
+@Transactional
+public class BorrowServiceImpl implements BorrowService {
+
+    private final BorrowRepository borrowRepository;
+    private final BorrowerRepository borrowerRepository;
+    private final BookRepository bookRepository;
+    private final CatalogueVersion catalogueVersion;
+
+    @Autowired
+    public BorrowServiceImpl(BorrowRepository borrowRepository, BorrowerRepository borrowerRepository,
+            BookRepository bookRepository, CatalogueVersion catalogueVersion) {
+        this.borrowRepository = borrowRepository;
+        this.borrowerRepository = borrowerRepository;
+        this.bookRepository = bookRepository;
+        this.catalogueVersion = catalogueVersion;
+    }
+
+    @Override
+    public Borrow checkout(Long borrowerId, Collection<Long> bookIds, Date end)
+            throws EntityNotFoundException, BookUnavailableException {
+        Borrower borrower = getBorrower(borrowerId);
+        List<Long> ids = bookIds.stream().distinct().sorted().toList();
+        List<Book> books = bookRepository.lockAll(ids);
+        if (books.size() < ids.size()) {
+            List<Long> missing = new ArrayList<>(ids);
+            books.forEach(book -> missing.remove(book.getId()));
+            throw new EntityNotFoundException("Cannot find books with ids: " + missing);
+        }
+        List<Long> borrowed = borrowRepository.findBorrowed(ids);
+        if (!borrowed.isEmpty()) {
+            throw new BookUnavailableException("Books already borrowed: " + borrowed);
+        }
+
+        Borrow borrow = new Borrow();
+        borrow.setBorrower(borrower);
+        borrow.setBooks(new HashSet<>(books));
+        borrow.setStart(new Date());
+        borrow.setEnd(end);
+        borrowRepository.save(borrow);
+        catalogueVersion.written();
+        return borrow;
+    }
+
+    @Override
+    public Borrow returnBorrow(Long id) throws EntityNotFoundException {
+        // locked, so that a borrow returned twice at once is only returned once
+        Borrow borrow = Optional.ofNullable(borrowRepository.findByIdForUpdate(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrow with id: " + id));
+        if (borrow.getReturned() == null) {
+            Date returned = new Date();
+            borrow.setReturned(returned);
+            borrow.setLate(borrow.isLate() || returned.after(borrow.getEnd()));
+            borrowerRepository.findByIdForUpdate(borrow.getBorrower().getId()).returned(borrow.isLate());
+            catalogueVersion.written();
+        }
+        // the books are walked once the transaction is over
+        borrow.getBooks().size();
+        return borrow;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isAvailable(Long bookId) throws EntityNotFoundException {
+        if (bookRepository.findById(bookId) == null) {
+            throw new EntityNotFoundException("Cannot find book with id: " + bookId);
+        }
+        return borrowRepository.findBorrowed(List.of(bookId)).isEmpty();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrow> getActiveByBorrower(Long borrowerId) throws EntityNotFoundException {
+        getBorrower(borrowerId);
+        return borrowRepository.findActiveByBorrower(borrowerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrow> getOverdue(Date asOf) {
+        return borrowRepository.findOverdue(asOf);
+    }
+
+    @Override
+    public int flagOverdue(Date asOf) {
+        int flagged = borrowRepository.flagOverdue(asOf);
+        if (flagged > 0) {
+            catalogueVersion.written();
+        }
+        return flagged;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Borrow get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(borrowRepository.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrow with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Batch<Borrow, Long> getAll(Collection<Long> ids) {
+        Map<Long, Borrow> found = borrowRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Borrow::getId, Function.identity()));
+        return Batch.of(ids, found::get);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrow> list() {
+        return borrowRepository.getAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Borrow, Long> list(Long after, int limit) {
+        return Page.of(borrowRepository.getAll(after, limit + 1), limit, Borrow::getId);
+    }
+
+    @Override
+    public Borrow update(Borrow borrow) throws EntityNotFoundException {
+        Borrow stored = get(borrow.getId());
+        stored.setEnd(borrow.getEnd());
+        if (stored.getReturned() == null && stored.getEnd().after(new Date())) {
+            stored.setLate(false);
+        }
+        catalogueVersion.written();
+        return stored;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long version() {
+        return catalogueVersion.get();
+    }
+
+    private Borrower getBorrower(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(borrowerRepository.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrower with id: " + id));
+    }
+}
@@ -0,0 +1,94 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.repo.BorrowerRepository;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Transactional
+public class BorrowerServiceImpl implements BorrowerService {
+
+    private final BorrowerRepository borrowerRepository;
+    private final CatalogueVersion catalogueVersion;
+
+    @Autowired
+    public BorrowerServiceImpl(BorrowerRepository borrowerRepository, CatalogueVersion catalogueVersion) {
+        this.borrowerRepository = borrowerRepository;
+        this.catalogueVersion = catalogueVersion;
+    }
+
+    @Override
+    public Borrower save(Borrower borrower) {
+        borrower.setId(null);
+        if (borrower.getRegistered() == null) {
+            borrower.setRegistered(new Date());
+        }
+        borrowerRepository.save(borrower);
+        catalogueVersion.written();
+        return borrower;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrower> getMostLate(int limit) {
+        return borrowerRepository.findMostLate(limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Borrower get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(borrowerRepository.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrower with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Batch<Borrower, Long> getAll(Collection<Long> ids) {
+        Map<Long, Borrower> found = borrowerRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Borrower::getId, Function.identity()));
+        return Batch.of(ids, found::get);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrower> list() {
+        return borrowerRepository.getAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Borrower, Long> list(Long after, int limit) {
+        return Page.of(borrowerRepository.getAll(after, limit + 1), limit, Borrower::getId);
+    }
+
+    @Override
+    public Borrower update(Borrower borrower) throws EntityNotFoundException {
+        Borrower stored = get(borrower.getId());
+        stored.setFirstName(borrower.getFirstName());
+        stored.setLastName(borrower.getLastName());
+        stored.setGender(borrower.getGender());
+        stored.setBirth(borrower.getBirth());
+        catalogueVersion.written();
+        return stored;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long version() {
+        return catalogueVersion.get();
+    }
+}
@@ -0,0 +1,178 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.repo.AuthorRepository;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.library.service.search.BookFilter;
+import fr.uga.l3miage.library.service.search.FacetIndex;
+import fr.uga.l3miage.library.service.search.Facets;
+import fr.uga.l3miage.library.service.search.IsbnIndex;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.SuggestIndex;
+import fr.uga.l3miage.library.service.search.Suggestion;
+import fr.uga.l3miage.library.service.search.TextIndex;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The full-text, completion, facet and ISBN indexes of the catalogue, loaded from the database at startup, then
+ * following the writes of the services once they are committed, as the {@link CatalogueVersion}: a rolled back write
+ * never shows in a search. The database keeps answering for the entities, the indexes only select and rank their ids.
+ */
+@Component
+public class CatalogueIndexes implements InitializingBean {
+
+    /* entities read per transaction while loading, so that the persistence context stays small */
+    private static final int LOAD_CHUNK = 1000;
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate readOnly;
+    /* names, and titles weighing twice the publishers */
+    private final TextIndex authors = new TextIndex(1);
+    private final TextIndex books = new TextIndex(2, 1);
+    private final SuggestIndex authorSuggestions = new SuggestIndex();
+    private final SuggestIndex bookSuggestions = new SuggestIndex();
+    /* the generated ids start from 1 */
+    private final FacetIndex bookFacets = new FacetIndex(0);
+    private final IsbnIndex isbns = new IsbnIndex();
+
+    @Autowired
+    public CatalogueIndexes(AuthorRepository authorRepository, BookRepository bookRepository,
+            PlatformTransactionManager transactionManager) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        this.<Author>load(authorRepository::getAll, Author::getId, this::put);
+        this.<Book>load(bookRepository::getAll, Book::getId, this::put);
+    }
+
+    void indexed(Author author) {
+        afterCommit(() -> put(author));
+    }
+
+    void indexed(Book book) {
+        afterCommit(() -> put(book));
+    }
+
+    void removed(Author author) {
+        afterCommit(() -> {
+            authors.remove(author.getId());
+            authorSuggestions.remove(author.getId());
+        });
+    }
+
+    void removed(Book book) {
+        afterCommit(() -> {
+            books.remove(book.getId());
+            bookSuggestions.remove(book.getId());
+            bookFacets.remove(book.getId());
+            isbns.release(book.getIsbn(), book.getId());
+        });
+    }
+
+    /**
+     * Frees the ISBN a book held before an update, the new one being indexed with the book.
+     */
+    void released(long isbn, long bookId) {
+        afterCommit(() -> isbns.release(isbn, bookId));
+    }
+
+    /**
+     * @return the ids of the matching authors, the most relevant first
+     */
+    List<Long> authors(String query, SearchMode mode, int limit) {
+        return authors.search(query, mode, limit).stream().map(TextIndex.Hit::id).toList();
+    }
+
+    /**
+     * @return the ids of the matching books, the most relevant first
+     */
+    List<Long> books(String query, SearchMode mode, int limit) {
+        return books.search(query, mode, limit).stream().map(TextIndex.Hit::id).toList();
+    }
+
+    /**
+     * @param titled the ids of the books with a matching title, null when the filter has no title
+     * @return the ids of the matching books, in id order
+     */
+    List<Long> books(BookFilter filter, Collection<Long> titled, Long after, int max) {
+        return bookFacets.find(filter, titled, after, max);
+    }
+
+    Facets facets(BookFilter filter, Collection<Long> titled) {
+        return bookFacets.count(filter, titled);
+    }
+
+    /**
+     * @return the ISBNs held by a book, in the order given
+     */
+    long[] existingIsbns(long[] asked) {
+        return isbns.existing(asked);
+    }
+
+    List<Suggestion> authorSuggestions(String prefix, int limit) {
+        return authorSuggestions.complete(prefix, limit);
+    }
+
+    List<Suggestion> bookSuggestions(String prefix, int limit) {
+        return bookSuggestions.complete(prefix, limit);
+    }
+
+    private void put(Author author) {
+        authors.put(author.getId(), null, author.getFullName());
+        authorSuggestions.put(author.getId(), author.getFullName());
+    }
+
+    private void put(Book book) {
+        books.put(book.getId(), book.getLanguage(), book.getTitle(), book.getPublisher());
+        bookSuggestions.put(book.getId(), book.getTitle());
+        bookFacets.put(book.getId(), book.getLanguage(), book.getPublisher(), book.getYear());
+        isbns.put(book.getIsbn(), book.getId());
+    }
+
+    private <T> void load(BiFunction<Long, Integer, List<T>> chunks, Function<T, Long> id, Consumer<T> put) {
+        Long after = null;
+        List<T> chunk;
+        do {
+            Long from = after;
+            chunk = readOnly.execute(status -> chunks.apply(from, LOAD_CHUNK));
+            chunk.forEach(put);
+            after = chunk.isEmpty() ? null : id.apply(chunk.get(chunk.size() - 1));
+        } while (chunk.size() == LOAD_CHUNK);
+    }
+
+    /**
+     * Runs an update of the indexes once the current transaction commits; the entity is read then, in its final
+     * state, after every change the transaction made to it.
+     */
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
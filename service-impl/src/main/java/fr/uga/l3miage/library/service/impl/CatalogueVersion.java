@@ -0,0 +1,34 @@
+package fr.uga.l3miage.library.service.impl;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the whole catalogue, bumped once a write is committed so that a reader never pairs the new version
+ * with data read before the commit. The embedded database is only written through the services.
+ */
+@Component
+public class CatalogueVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    void written() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                version.incrementAndGet();
+            }
+        });
+    }
+
+    long get() {
+        return version.get();
+    }
+}
@@ -0,0 +1,45 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the embedded database with the same data as the mock services.
+ */
+@Component
+public class InitialData implements ApplicationRunner {
+
+    private final AuthorService authorService;
+    private final BookService bookService;
+
+    @Autowired
+    public InitialData(AuthorService authorService, BookService bookService) {
+        this.authorService = authorService;
+        this.bookService = bookService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!authorService.list().isEmpty()) {
+            return;
+        }
+
+        Author me = new Author();
+        me.setFullName("Benoit Bordigoni");
+        me = authorService.save(me);
+
+        Book jpa = new Book();
+        jpa.setTitle("The Art of JPA");
+        jpa.setIsbn(2145673168735453L);
+        jpa.setPublisher("Dunod");
+        jpa.setYear((short) 2023);
+        jpa.setLanguage(Book.Language.ENGLISH);
+        bookService.save(me.getId(), jpa);
+    }
+}
@@ -0,0 +1,57 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.repo.AuthorRepository;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.data.repo.BorrowRepository;
+import fr.uga.l3miage.data.repo.BorrowerRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Maps the domain of the {@code data} module on the embedded database.
+ * <p>
+ * Inserts, updates and deletes are sent in JDBC batches, ordered by entity so that a batch is not broken each
+ * time a different table is written. The lists bound to {@code in} are padded to a power of two, so that lookups by
+ * many ids share a few statements.
+ */
+@Configuration
+@EntityScan(basePackageClasses = Author.class)
+public class PersistenceConfig {
+
+    static final int BATCH_SIZE = 50;
+
+    @Bean
+    public AuthorRepository authorRepository() {
+        return new AuthorRepository();
+    }
+
+    @Bean
+    public BookRepository bookRepository() {
+        return new BookRepository();
+    }
+
+    @Bean
+    public BorrowerRepository borrowerRepository() {
+        return new BorrowerRepository();
+    }
+
+    @Bean
+    public BorrowRepository borrowRepository() {
+        return new BorrowRepository();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer batchingCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_BATCH_SIZE, BATCH_SIZE);
+            properties.put(AvailableSettings.ORDER_INSERTS, true);
+            properties.put(AvailableSettings.ORDER_UPDATES, true);
+            properties.put(AvailableSettings.BATCH_VERSIONED_DATA, true);
+            properties.put(AvailableSettings.IN_CLAUSE_PARAMETER_PADDING, true);
+        };
+    }
+}
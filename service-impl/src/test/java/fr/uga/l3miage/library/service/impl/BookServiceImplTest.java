@@ -0,0 +1,42 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.repo.BookRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+@SpringBootTest
+class BookServiceImplTest {
+
+    @Autowired
+    BookRepository bookRepository;
+
+    /* the name the database gives to the violated constraint, only the ISBN one is a duplicate */
+    @Test
+    @Transactional
+    void recognizesTheIsbnConstraint() {
+        bookRepository.save(book("First holder"));
+        bookRepository.flush();
+        bookRepository.save(book("Second holder"));
+
+        ConstraintViolationException violation = catchThrowableOfType(bookRepository::flush,
+                ConstraintViolationException.class);
+
+        assertThat(BookServiceImpl.isIsbnConstraint(violation.getConstraintName())).isTrue();
+        assertThat(BookServiceImpl.isIsbnConstraint("FK_BOOK_AUTHOR_AUTHORS_ID")).isFalse();
+        assertThat(BookServiceImpl.isIsbnConstraint(null)).isFalse();
+    }
+
+    private static Book book(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(9_781_999_000_001L);
+        return book;
+    }
+}
@@ -0,0 +1,174 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class BorrowServiceImplTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    /* books may not share an ISBN */
+    private static final AtomicLong ISBNS = new AtomicLong(1_235_000_000L);
+
+    @Autowired
+    AuthorService authorService;
+    @Autowired
+    BookService bookService;
+    @Autowired
+    BorrowerService borrowerService;
+    @Autowired
+    BorrowService borrowService;
+
+    Author author;
+
+    @BeforeEach
+    void setUp() {
+        author = new Author();
+        author.setFullName("Lent");
+        author = authorService.save(author);
+    }
+
+    @Test
+    void checkoutAndReturn() throws Exception {
+        Book first = newBook();
+        Book second = newBook();
+        Borrower borrower = newBorrower();
+
+        Borrow borrow = borrowService.checkout(borrower.getId(), List.of(first.getId(), second.getId()), in(-1));
+
+        assertThat(borrowService.isAvailable(first.getId())).isFalse();
+        assertThat(borrowService.getActiveByBorrower(borrower.getId())).extracting(Borrow::getId)
+                .containsExactly(borrow.getId());
+        assertThat(borrowService.getOverdue(new Date())).extracting(Borrow::getId).contains(borrow.getId());
+        assertThatThrownBy(() -> borrowService.checkout(newBorrower().getId(), List.of(second.getId()), in(7)))
+                .isInstanceOf(BookUnavailableException.class);
+
+        assertThat(borrowService.returnBorrow(borrow.getId()).getReturned()).isNotNull();
+
+        assertThat(borrowService.isAvailable(first.getId())).isTrue();
+        assertThat(borrowService.getActiveByBorrower(borrower.getId())).isEmpty();
+        assertThat(borrowService.getOverdue(new Date())).extracting(Borrow::getId).doesNotContain(borrow.getId());
+    }
+
+    @Test
+    void returnsMaintainLateRatio() throws Exception {
+        Borrower borrower = newBorrower();
+        Borrow late = borrowService.checkout(borrower.getId(), List.of(newBook().getId()), in(-1));
+        assertThat(borrowService.returnBorrow(late.getId()).isLate()).isTrue();
+
+        assertThat(borrowerService.get(borrower.getId()).getLateRatio()).isEqualTo(1f);
+        assertThat(borrowerService.getMostLate(1000)).extracting(Borrower::getId).contains(borrower.getId());
+        assertThat(List.copyOf(borrowerService.getMostLate(1000)))
+                .isSortedAccordingTo(Comparator.comparing(Borrower::getLateRatio).reversed());
+
+        Borrow onTime = borrowService.checkout(borrower.getId(), List.of(newBook().getId()), in(7));
+        assertThat(borrowService.returnBorrow(onTime.getId()).isLate()).isFalse();
+
+        assertThat(borrowerService.get(borrower.getId()).getLateRatio()).isEqualTo(0.5f);
+    }
+
+    @Test
+    void sweepFlagsOverdueOnce() throws Exception {
+        Borrow borrow = borrowService.checkout(newBorrower().getId(), List.of(newBook().getId()), in(-1));
+        Borrow notDue = borrowService.checkout(newBorrower().getId(), List.of(newBook().getId()), in(7));
+
+        assertThat(borrowService.flagOverdue(new Date())).isPositive();
+        assertThat(borrowService.get(borrow.getId()).isLate()).isTrue();
+        assertThat(borrowService.get(notDue.getId()).isLate()).isFalse();
+        assertThat(borrowService.flagOverdue(new Date())).isZero();
+
+        Borrow renewal = new Borrow();
+        renewal.setId(borrow.getId());
+        renewal.setEnd(in(7));
+        borrowService.update(renewal);
+        assertThat(borrowService.get(borrow.getId()).isLate()).isFalse();
+    }
+
+    @Test
+    void oneCheckoutWinsEachCopy() throws Exception {
+        Book hot = newBook();
+        int threads = 8;
+        List<Long> borrowers = new ArrayList<>();
+        List<Long> own = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            borrowers.add(newBorrower().getId());
+            own.add(newBook().getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        borrowService.checkout(borrowers.get(index), List.of(own.get(index), hot.getId()), in(7));
+                        return true;
+                    } catch (BookUnavailableException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int lent = 0;
+            for (Future<Boolean> future : futures) {
+                lent += future.get(1, TimeUnit.MINUTES) ? 1 : 0;
+            }
+            assertThat(lent).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int ownLent = 0;
+        for (Long id : own) {
+            ownLent += borrowService.isAvailable(id) ? 0 : 1;
+        }
+        assertThat(ownLent).isEqualTo(1);
+    }
+
+    private Book newBook() throws EntityNotFoundException {
+        Book book = new Book();
+        book.setTitle("Lent book");
+        book.setIsbn(ISBNS.incrementAndGet());
+        book.setLanguage(Book.Language.FRENCH);
+        return bookService.save(author.getId(), book);
+    }
+
+    private Borrower newBorrower() {
+        Borrower borrower = new Borrower();
+        borrower.setFirstName("Victor").setLastName("Reader");
+        return borrowerService.save(borrower);
+    }
+
+    private static Date in(int days) {
+        return new Date(System.currentTimeMillis() + days * DAY);
+    }
+}
@@ -0,0 +1,281 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Page;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Counts the statements each endpoint runs against the database, whatever the number of books involved.
+ * <p>
+ * Results are walked the way the DTO mappers do once the transaction is over, so a missing fetch would fail
+ * with a lazy loading error rather than add queries.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class QueryCountTest {
+
+    private static final int BOOKS = 20;
+    /* books may not share an ISBN */
+    private static final AtomicLong ISBNS = new AtomicLong(1_234_000_000L);
+
+    @Autowired
+    AuthorService authorService;
+    @Autowired
+    BookService bookService;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+    Author author;
+    Author coAuthor;
+    List<Book> books;
+
+    @BeforeEach
+    void setUp() throws EntityNotFoundException {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        author = newAuthor("Query Counter");
+        coAuthor = newAuthor("Query Co-Counter");
+        books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(bookService.save(author.getId(), newBook("Counted book " + i)));
+        }
+        bookService.addAuthor(books.get(0).getId(), coAuthor.getId());
+
+        statistics.clear();
+    }
+
+    /* GET /books */
+    @Test
+    void listBooks() {
+        assertAuthorsLoaded(bookService.list());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /* GET /books?limit=&after= */
+    @Test
+    void listBooksPage() {
+        Page<Book, Long> page = bookService.list(books.get(4).getId(), 5);
+        assertThat(page.content()).extracting(Book::getId)
+                .isEqualTo(books.subList(5, 10).stream().map(Book::getId).toList());
+        assertThat(page.next()).isEqualTo(books.get(9).getId());
+        assertAuthorsLoaded(page.content());
+        // ids of the page, then the books with their authors
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    /* GET /books?q= */
+    @Test
+    void findByTitle() {
+        Collection<Book> found = bookService.findByTitle("COUNTED BOOK");
+        assertThat(found).extracting(Book::getId).containsAll(books.stream().map(Book::getId).toList());
+        assertAuthorsLoaded(found);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /* GET /books?q= with accents and another case */
+    @Test
+    void findByTitleIgnoresAccents() {
+        Collection<Book> found = bookService.findByTitle("cOuNtéd bÔok");
+        assertThat(found).extracting(Book::getId).containsAll(books.stream().map(Book::getId).toList());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /* GET /books/{id} */
+    @Test
+    void getBook() throws EntityNotFoundException {
+        assertAuthorsLoaded(List.of(bookService.get(books.get(0).getId())));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /* GET /authors */
+    @Test
+    void listAuthors() {
+        assertThat(authorService.list()).extracting(Author::getFullName).contains("Query Counter");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /* GET /authors?limit=&after= */
+    @Test
+    void listAuthorsPage() {
+        Page<Author, Long> page = authorService.list(author.getId(), 1);
+        assertThat(page.content()).extracting(Author::getId).containsExactly(coAuthor.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /* GET /authors?q= */
+    @Test
+    void searchByName() {
+        assertThat(authorService.searchByName("co-counter")).extracting(Author::getId).contains(coAuthor.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /* GET /authors/{id} */
+    @Test
+    void getAuthor() throws EntityNotFoundException {
+        assertThat(authorService.get(author.getId()).getFullName()).isEqualTo("Query Counter");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /* GET /authors/{id}/books */
+    @Test
+    void getByAuthor() throws EntityNotFoundException {
+        Collection<Book> found = bookService.getByAuthor(author.getId());
+        assertThat(found).hasSize(BOOKS);
+        assertAuthorsLoaded(found);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    /* GET /authors/{id}/books?limit=&after= */
+    @Test
+    void getByAuthorPage() throws EntityNotFoundException {
+        Page<Book, Long> page = bookService.getByAuthor(author.getId(), null, BOOKS - 1);
+        assertThat(page.content()).hasSize(BOOKS - 1);
+        assertAuthorsLoaded(page.content());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+        page = bookService.getByAuthor(author.getId(), page.next(), BOOKS - 1);
+        assertThat(page.content()).extracting(Book::getId).containsExactly(books.get(BOOKS - 1).getId());
+        assertThat(page.next()).isNull();
+    }
+
+    /* GET /authors/{id}/books?q= */
+    @Test
+    void findByAuthor() throws EntityNotFoundException {
+        Collection<Book> found = bookService.findByAuthor(author.getId(), "book 1");
+        assertThat(found).hasSize(11);
+        assertAuthorsLoaded(found);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    /* POST /authors/{id}/books */
+    @Test
+    void saveBook() throws EntityNotFoundException {
+        Book book = bookService.save(author.getId(), newBook("Saved book"));
+        assertAuthorsLoaded(List.of(book));
+        // author lookup, ISBN check, book and association inserts, and possibly the next sequence block
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+
+    /* PUT /books/{id} */
+    @Test
+    void updateBook() throws EntityNotFoundException {
+        Book book = newBook("Updated book");
+        book.setId(books.get(1).getId());
+        assertAuthorsLoaded(List.of(bookService.update(book)));
+        // book with authors, check of the new ISBN, book update
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    /* GET /books/isbn/{isbn} */
+    @Test
+    void getByIsbn() throws EntityNotFoundException {
+        Book book = bookService.getByIsbn(books.get(5).getIsbn());
+        assertThat(book.getId()).isEqualTo(books.get(5).getId());
+        assertAuthorsLoaded(List.of(book));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /* POST /books/isbn/exists */
+    @Test
+    void findExistingIsbns() {
+        long[] isbns = {books.get(6).getIsbn(), 1L, books.get(7).getIsbn()};
+        assertThat(bookService.findExistingIsbns(isbns)).containsExactly(isbns[0], isbns[2]);
+        // answered by the index
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+    }
+
+    /* POST /authors/{id}/books with the ISBN of another book */
+    @Test
+    void saveDuplicateIsbn() {
+        Book book = newBook("Duplicate book");
+        book.setIsbn(books.get(8).getIsbn());
+        assertThatThrownBy(() -> bookService.save(author.getId(), book)).isInstanceOf(DuplicateIsbnException.class);
+        Book other = newBook("Renumbered book");
+        other.setId(books.get(9).getId());
+        other.setIsbn(books.get(8).getIsbn());
+        assertThatThrownBy(() -> bookService.update(other)).isInstanceOf(DuplicateIsbnException.class);
+    }
+
+    /* PUT /books/{id}/authors */
+    @Test
+    void addAuthor() throws EntityNotFoundException {
+        Book book = bookService.addAuthor(books.get(2).getId(), coAuthor.getId());
+        assertAuthorsLoaded(List.of(book));
+        assertThat(book.getAuthors()).hasSize(2);
+        // book with authors, co-author, association insert, book version increment
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    /* DELETE /books/{id} */
+    @Test
+    void deleteBook() throws EntityNotFoundException {
+        bookService.delete(books.get(3).getId());
+        // book with authors, association and book deletes
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    /* DELETE /authors/{id} */
+    @Test
+    void deleteAuthor() throws EntityNotFoundException, DeleteAuthorException {
+        Author single = newAuthor("Single author");
+        for (int i = 0; i < BOOKS; i++) {
+            bookService.save(single.getId(), newBook("Single book " + i));
+        }
+        statistics.clear();
+
+        authorService.delete(single.getId());
+        // author with books, co-authoring check, then batched association, book and author deletes
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+        assertThat(bookService.findByTitle("single book")).isEmpty();
+    }
+
+    /* DELETE /authors/{id} of a co-author */
+    @Test
+    void deleteCoAuthor() {
+        assertThatThrownBy(() -> authorService.delete(author.getId())).isInstanceOf(DeleteAuthorException.class);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private Author newAuthor(String fullName) {
+        Author newAuthor = new Author();
+        newAuthor.setFullName(fullName);
+        return authorService.save(newAuthor);
+    }
+
+    private static Book newBook(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(ISBNS.incrementAndGet());
+        book.setPublisher("Dunod");
+        book.setYear((short) 2023);
+        book.setLanguage(Book.Language.FRENCH);
+        return book;
+    }
+
+    /* what the BooksMapper reads */
+    private static void assertAuthorsLoaded(Collection<Book> books) {
+        for (Book book : books) {
+            assertThat(book.getAuthors()).isNotEmpty().allSatisfy(a -> assertThat(a.getFullName()).isNotNull());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * One direction of a many-to-many association: for each id, the sorted array of the ids it is linked to.
+ * <p>
+ * An edge costs one long in the array of each side, instead of a node of a concurrent set holding the entity. The
+ * arrays are shared by successive {@link Links} snapshots: appending a greater id, the usual case as ids come from
+ * a sequence, writes past the end of the published snapshot then publishes a longer one. Any other change copies
+ * the array, so a snapshot never sees its slots change.
+ * <p>
+ * Readers never lock. The writers of the links of a given id must hold its stripe.
+ */
+final class Adjacency {
+
+    private static final Links NONE = new Links(new long[0], 0);
+
+    private final LongStore<Links> links;
+
+    Adjacency(long origin) {
+        this.links = new LongStore<>(origin);
+    }
+
+    /**
+     * The ids currently linked to an id.
+     */
+    Links of(long from) {
+        Links current = links.get(from);
+        return current == null ? NONE : current;
+    }
+
+    void add(long from, long to) {
+        Links current = of(from);
+        int position = current.indexOf(to);
+        if (position >= 0) {
+            return;
+        }
+        int insertion = -position - 1;
+        long[] ids = current.ids;
+        if (insertion == current.size && current.size < ids.length) {
+            ids[current.size] = to;
+        } else {
+            long[] grown = new long[Math.max(4, current.size * 2)];
+            System.arraycopy(ids, 0, grown, 0, insertion);
+            grown[insertion] = to;
+            System.arraycopy(ids, insertion, grown, insertion + 1, current.size - insertion);
+            ids = grown;
+        }
+        links.put(from, new Links(ids, current.size + 1));
+    }
+
+    void remove(long from, long to) {
+        Links current = of(from);
+        int position = current.indexOf(to);
+        if (position < 0) {
+            return;
+        }
+        if (current.size == 1) {
+            links.remove(from);
+            return;
+        }
+        long[] shrunk = new long[current.size - 1];
+        System.arraycopy(current.ids, 0, shrunk, 0, position);
+        System.arraycopy(current.ids, position + 1, shrunk, position, current.size - position - 1);
+        links.put(from, new Links(shrunk, shrunk.length));
+    }
+
+    /**
+     * Removes every link, to be called while nothing else reads or writes the links.
+     */
+    void clear() {
+        links.clear();
+    }
+
+    /**
+     * Unlinks an id from everything, returning what it was linked to.
+     */
+    Links removeAll(long from) {
+        Links removed = links.remove(from);
+        return removed == null ? NONE : removed;
+    }
+
+    /**
+     * An immutable snapshot of the ids linked to an id, the {@code size} first slots of {@code ids}.
+     */
+    record Links(long[] ids, int size) {
+
+        /**
+         * @return the position of the id, or {@code -(insertion point) - 1} as {@link Arrays#binarySearch}
+         */
+        int indexOf(long id) {
+            // fast path of the appends
+            if (size == 0 || ids[size - 1] < id) {
+                return -size - 1;
+            }
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        boolean contains(long id) {
+            return indexOf(id) >= 0;
+        }
+
+        /**
+         * The position of the first id greater than the given one.
+         */
+        int after(long id) {
+            int position = indexOf(id);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+
+        long id(int position) {
+            return ids[position];
+        }
+
+        LongStream stream() {
+            return Arrays.stream(ids, 0, size);
+        }
+    }
+}
@@ -2,40 +2,103 @@ package fr.uga.l3miage.library.service.mock;
 
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.SearchKeys;
 import fr.uga.l3miage.library.service.AuthorService;
 import fr.uga.l3miage.library.service.DeleteAuthorException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Component
 public class AuthorServiceMockImpl implements AuthorService {
 
+    /**
+     * The query is folded once, then compared to the keys the authors computed when named.
+     */
     @Override
     public Collection<Author> searchByName(String name) {
-        return MockData.authors.values()
-                .stream()
-                .filter(author -> author.getFullName().toLowerCase().contains(name.toLowerCase()))
+        String key = SearchKeys.fold(name);
+        Set<Long> candidates = MockData.authorNames.candidates(key);
+        Stream<Author> authors = candidates == null
+                ? MockData.authors.values()
+                : candidates.stream().map(MockData.authors::get).filter(Objects::nonNull);
+        return authors
+                .filter(author -> author.getFullNameKey().contains(key))
                 .toList();
     }
 
+    @Override
+    public Page<Author, Long> searchByName(String name, Long after, int limit) {
+        String key = SearchKeys.fold(name);
+        Set<Long> candidates = MockData.authorNames.candidates(key);
+        Stream<Author> authors = candidates == null
+                ? MockData.authors.values(after)
+                : candidates.stream()
+                .filter(id -> after == null || id > after)
+                .sorted()
+                .map(MockData.authors::get)
+                .filter(Objects::nonNull);
+        return page(authors.filter(author -> author.getFullNameKey().contains(key)), limit);
+    }
+
+    @Override
+    public List<Author> search(String query, SearchMode mode, int limit) {
+        return MockData.authorText.search(query, mode, limit).stream()
+                .map(hit -> MockData.authors.get(hit.id()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return MockData.authorSuggestions.complete(prefix, limit);
+    }
 
     @Override
     public Author save(Author author) {
         author.setId(MockData.getNextId(Author.class));
-        doUpdate(author);
+        MockData.booksOf(author);
+        long logged;
+        try (var held = MockData.locks.lock(MockData.authorStripe(author.getId()))) {
+            MockData.authors.put(author.getId(), author);
+            MockData.authorNames.add(author.getId(), author.getFullNameKey());
+            MockData.index(author);
+            logged = MockData.journal.author(author);
+        }
+        MockData.written();
+        MockData.journal.await(logged);
         return author;
     }
 
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        for (Author author : authors) {
+            save(author);
+        }
+        return authors;
+    }
+
     @Override
     public Author get(Long id) throws EntityNotFoundException {
         return doGet(id);
     }
 
+    @Override
+    public Batch<Author, Long> getAll(Collection<Long> ids) {
+        return Batch.of(ids, MockData.authors::get);
+    }
+
     static Author doGet(Long id) throws EntityNotFoundException {
         return Optional.ofNullable(MockData.authors.get(id))
                 .orElseThrow(() -> new EntityNotFoundException("Cannot find author with id: " + id));
@@ -43,44 +106,84 @@ public class AuthorServiceMockImpl implements AuthorService {
 
     @Override
     public Collection<Author> list() {
-        return MockData.authors.values().stream().toList();
+        return MockData.authors.values().toList();
+    }
+
+    @Override
+    public Page<Author, Long> list(Long after, int limit) {
+        return page(MockData.authors.values(after), limit);
     }
 
     @Override
     public Author update(Author author) throws EntityNotFoundException {
-        get(author.getId());
-        doUpdate(author);
-        return MockData.authors.get(author.getId());
+        Author stored;
+        long logged;
+        try (var held = MockData.locks.lock(MockData.authorStripe(author.getId()))) {
+            stored = doGet(author.getId());
+            MockData.authorNames.remove(stored.getId(), stored.getFullNameKey());
+            stored.setFullName(author.getFullName());
+            stored.setVersion(stored.getVersion() + 1);
+            MockData.authorNames.add(stored.getId(), stored.getFullNameKey());
+            MockData.index(stored);
+            logged = MockData.journal.author(stored);
+            MockData.written();
+        }
+        MockData.journal.await(logged);
+        return stored;
     }
 
+    /**
+     * Deletes the author with its books, under the stripes of the author and of each of its books: nothing can link
+     * them meanwhile, while the deletes of other authors proceed. The books are checked for co-authors by the size
+     * of their links, then both directions of the association are dropped at once.
+     */
     @Override
     public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
-        Set<Book> books = get(id)
-                .getBooks();
-        if (books != null) {
-
-            Optional<Integer> bookWithManyAuthor = books.stream()
-                    .map(Book::getAuthors)
-                    .filter(Objects::nonNull)
-                    .map(Collection::size)
-                    .filter(s -> s > 1)
-                    .findFirst();
-
-            if (bookWithManyAuthor.isPresent()) {
-                throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
+        while (true) {
+            Author author = doGet(id);
+            Adjacency.Links bookIds = MockData.authorBooks.of(id);
+            IntStream bookStripes = bookIds.stream().mapToInt(MockData::bookStripe);
+            int[] stripes = IntStream.concat(IntStream.of(MockData.authorStripe(id)), bookStripes).toArray();
+
+            long logged;
+            try (var held = MockData.locks.lock(stripes)) {
+                // the author may have gained or lost a book between the snapshot and the locking
+                if (MockData.authorBooks.of(id) != bookIds || MockData.authors.get(id) != author) {
+                    continue;
+                }
+                for (int i = 0; i < bookIds.size(); i++) {
+                    if (MockData.bookAuthors.of(bookIds.id(i)).size() > 1) {
+                        throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
+                    }
+                }
+
+                for (int i = 0; i < bookIds.size(); i++) {
+                    Book book = MockData.books.remove(bookIds.id(i));
+                    MockData.bookTitles.remove(book.getId(), book.getTitleKey());
+                    MockData.unindex(book);
+                    // the author is the only one, its own links are dropped below in one go
+                    MockData.bookAuthors.removeAll(book.getId());
+                    MockData.journal.deleteBook(book.getId());
+                }
+                MockData.authorBooks.removeAll(id);
+                MockData.authors.remove(id);
+                MockData.authorNames.remove(id, author.getFullNameKey());
+                MockData.unindex(author);
+                logged = MockData.journal.deleteAuthor(id);
+                MockData.written();
             }
-
-            books.stream().map(Book::getId).forEach(MockData.books::remove);
-
+            MockData.journal.await(logged);
+            return;
         }
+    }
 
-        MockData.authors.remove(id);
-
-
+    @Override
+    public long version() {
+        return MockData.version();
     }
 
-    private static void doUpdate(Author author) {
-        MockData.authors.put(author.getId(), author);
+    private static Page<Author, Long> page(Stream<Author> authors, int limit) {
+        return Page.of(authors.limit(limit + 1L).toList(), limit, Author::getId);
     }
 
 }
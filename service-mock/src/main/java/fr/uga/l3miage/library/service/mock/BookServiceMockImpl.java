@@ -2,36 +2,96 @@ package fr.uga.l3miage.library.service.mock;
 
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
-import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.data.domain.SearchKeys;
 import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
-import org.springframework.beans.factory.annotation.Autowired;
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.BookFilter;
+import fr.uga.l3miage.library.service.search.Facets;
+import fr.uga.l3miage.library.service.search.IsbnIndex;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Component
 public class BookServiceMockImpl implements BookService {
 
-    private final AuthorService authorService;
-
-    @Autowired
-    public BookServiceMockImpl(AuthorService authorService) {
-        this.authorService = authorService;
-    }
-
     @Override
     public Book save(Long authorId, Book book) throws EntityNotFoundException {
         book.setId(MockData.getNextId(Book.class));
-        doSave(book);
-
-        Author author = bind(authorId, book);
+        MockData.authorsOf(book);
 
-        authorService.update(author);
+        long logged;
+        try (var held = MockData.locks.lock(MockData.authorStripe(authorId), MockData.bookStripe(book.getId()))) {
+            Author author = AuthorServiceMockImpl.doGet(authorId);
+            claimIsbns(List.of(book));
+            doSave(book);
+            MockData.link(author, book);
+            MockData.journal.book(book);
+            logged = MockData.journal.link(authorId, book.getId());
+        }
+        MockData.written();
+        MockData.journal.await(logged);
         return book;
     }
 
+    @Override
+    public List<Book> saveAll(List<Book> books) throws EntityNotFoundException {
+        List<List<Long>> authorIds = books.stream()
+                .map(book -> book.getAuthors() == null
+                        ? List.<Long>of()
+                        : book.getAuthors().stream().map(Author::getId).toList())
+                .toList();
+        for (Book book : books) {
+            book.setId(MockData.getNextId(Book.class));
+        }
+        IntStream bookStripes = books.stream().mapToInt(book -> MockData.bookStripe(book.getId()));
+        IntStream authorStripes = authorIds.stream().flatMap(List::stream).mapToInt(MockData::authorStripe);
+
+        long logged = 0;
+        // the whole list is written under its stripes, no author can be deleted between its lookup and its links
+        try (var held = MockData.locks.lock(IntStream.concat(bookStripes, authorStripes).toArray())) {
+            List<List<Author>> authors = new ArrayList<>(books.size());
+            for (List<Long> ids : authorIds) {
+                List<Author> bookAuthors = new ArrayList<>(ids.size());
+                for (Long id : ids) {
+                    bookAuthors.add(AuthorServiceMockImpl.doGet(id));
+                }
+                authors.add(bookAuthors);
+            }
+            // once the authors are found, only a duplicate ISBN can fail the list, before anything is written
+            claimIsbns(books);
+
+            for (int i = 0; i < books.size(); i++) {
+                Book book = books.get(i);
+                book.setAuthors(null);
+                MockData.authorsOf(book);
+                doSave(book);
+                logged = MockData.journal.book(book);
+                for (Author author : authors.get(i)) {
+                    MockData.link(author, book);
+                    logged = MockData.journal.link(author.getId(), book.getId());
+                }
+            }
+        }
+        MockData.written();
+        // the books share the wait for their last record
+        MockData.journal.await(logged);
+        return books;
+    }
 
     @Override
     public Book get(Long id) throws EntityNotFoundException {
@@ -39,62 +99,261 @@ public class BookServiceMockImpl implements BookService {
                 .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
     }
 
+    @Override
+    public Book getByIsbn(long isbn) throws EntityNotFoundException {
+        long id = MockData.isbns.get(isbn);
+        Book book = id == IsbnIndex.ABSENT ? null : MockData.books.get(id);
+        // the book may be claiming the ISBN and not stored yet, or have been given another since
+        if (book == null || book.getIsbn() != isbn) {
+            throw new EntityNotFoundException("Cannot find book with isbn: " + isbn);
+        }
+        return book;
+    }
+
+    @Override
+    public long[] findExistingIsbns(long[] isbns) {
+        return MockData.isbns.existing(isbns);
+    }
+
+    @Override
+    public Batch<Book, Long> getAll(Collection<Long> ids) {
+        return Batch.of(ids, MockData.books::get);
+    }
+
     @Override
     public Collection<Book> list() {
-        return MockData.books.values().stream().toList();
+        return MockData.books.values().toList();
+    }
+
+    @Override
+    public Page<Book, Long> list(Long after, int limit) {
+        return page(MockData.books.values(after), limit);
     }
 
     @Override
     public Book update(Book book) throws EntityNotFoundException {
-        get(book.getId());
-        doSave(book);
-        return MockData.books.get(book.getId());
+        Book stored;
+        long logged;
+        try (var held = MockData.locks.lock(MockData.bookStripe(book.getId()))) {
+            stored = get(book.getId());
+            // the new ISBN is claimed before anything changes, the previous one freed once it is held
+            if (book.getIsbn() != stored.getIsbn()) {
+                if (MockData.isbns.claim(book.getIsbn(), stored.getId()) != stored.getId()) {
+                    throw new DuplicateIsbnException("ISBN already held by another book: " + book.getIsbn());
+                }
+                MockData.isbns.release(stored.getIsbn(), stored.getId());
+            }
+            MockData.bookTitles.remove(stored.getId(), stored.getTitleKey());
+            stored.setTitle(book.getTitle());
+            MockData.bookTitles.add(stored.getId(), stored.getTitleKey());
+            stored.setIsbn(book.getIsbn());
+            stored.setPublisher(book.getPublisher());
+            stored.setYear(book.getYear());
+            stored.setLanguage(book.getLanguage());
+            stored.setVersion(stored.getVersion() + 1);
+            MockData.index(stored);
+            logged = MockData.journal.book(stored);
+            MockData.written();
+        }
+        MockData.journal.await(logged);
+        return stored;
     }
 
     public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
-        var book = get(bookId);
-        bind(authorId, book);
+        Book book;
+        long logged;
+        try (var held = MockData.locks.lock(MockData.bookStripe(bookId), MockData.authorStripe(authorId))) {
+            book = get(bookId);
+            MockData.link(AuthorServiceMockImpl.doGet(authorId), book);
+            book.setVersion(book.getVersion() + 1);
+            MockData.journal.link(authorId, bookId);
+            logged = MockData.journal.book(book);
+            MockData.written();
+        }
+        MockData.journal.await(logged);
         return book;
     }
 
     @Override
     public void delete(Long id) throws EntityNotFoundException {
-        get(id);
-        MockData.books.remove(id);
+        while (true) {
+            Book book = get(id);
+            Adjacency.Links authorIds = MockData.bookAuthors.of(id);
+            IntStream authorStripes = authorIds.stream().mapToInt(MockData::authorStripe);
+            int[] stripes = IntStream.concat(IntStream.of(MockData.bookStripe(id)), authorStripes).toArray();
+
+            long logged;
+            try (var held = MockData.locks.lock(stripes)) {
+                // the book may have gained an author between the snapshot and the locking
+                if (MockData.bookAuthors.of(id) != authorIds || MockData.books.get(id) != book) {
+                    continue;
+                }
+                MockData.books.remove(id);
+                MockData.bookTitles.remove(id, book.getTitleKey());
+                MockData.unindex(book);
+                MockData.unlink(book);
+                logged = MockData.journal.deleteBook(id);
+                MockData.written();
+            }
+            MockData.journal.await(logged);
+            return;
+        }
     }
 
+    /**
+     * The query is folded once, then compared to the keys the books computed when titled.
+     */
     @Override
     public Collection<Book> findByTitle(String title) {
-        return filterBooks(MockData.books.values(), title);
+        String key = SearchKeys.fold(title);
+        Set<Long> candidates = MockData.bookTitles.candidates(key);
+        if (candidates == null) {
+            return filterBooks(MockData.books.values(), key);
+        }
+        return filterBooks(candidates.stream().map(MockData.books::get).filter(Objects::nonNull), key);
+    }
+
+    @Override
+    public Page<Book, Long> findByTitle(String title, Long after, int limit) {
+        String key = SearchKeys.fold(title);
+        Set<Long> candidates = MockData.bookTitles.candidates(key);
+        if (candidates == null) {
+            return page(MockData.books.values(after).filter(titleContains(key)), limit);
+        }
+        Stream<Book> books = candidates.stream()
+                .filter(id -> after == null || id > after)
+                .sorted()
+                .map(MockData.books::get)
+                .filter(Objects::nonNull);
+        return page(books.filter(titleContains(key)), limit);
+    }
+
+    @Override
+    public Page<Book, Long> findByFilter(BookFilter filter, Long after, int limit) {
+        List<Long> ids = MockData.bookFacets.find(filter, titled(filter.title()), after, limit + 1);
+        return Page.of(ids.stream().map(MockData.books::get).filter(Objects::nonNull).toList(), limit, Book::getId);
     }
 
+    @Override
+    public Facets countFacets(BookFilter filter) {
+        return MockData.bookFacets.count(filter, titled(filter.title()));
+    }
+
+    @Override
+    public List<Book> search(String query, SearchMode mode, int limit) {
+        return MockData.bookText.search(query, mode, limit).stream()
+                .map(hit -> MockData.books.get(hit.id()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return MockData.bookSuggestions.complete(prefix, limit);
+    }
+
+    /**
+     * A snapshot of the books of the author: the controller iterates it while other threads may link or unlink
+     * books, without copying nor locking.
+     */
     @Override
     public Collection<Book> getByAuthor(Long authorId) throws EntityNotFoundException {
-        return AuthorServiceMockImpl.doGet(authorId).getBooks();
+        return MockData.booksOf(AuthorServiceMockImpl.doGet(authorId)).snapshot();
     }
 
     @Override
     public Collection<Book> findByAuthor(Long authorId, String title) throws EntityNotFoundException {
-        AuthorServiceMockImpl.doGet(authorId);
-        return filterBooks(MockData.authors.get(authorId).getBooks(), title);
+        Author author = AuthorServiceMockImpl.doGet(authorId);
+        String key = SearchKeys.fold(title);
+        return filterBooks(booksOf(author, key, null), key);
+    }
+
+
+    @Override
+    public Page<Book, Long> getByAuthor(Long authorId, Long after, int limit) throws EntityNotFoundException {
+        Author author = AuthorServiceMockImpl.doGet(authorId);
+        return page(MockData.booksAfter(author, after), limit);
     }
 
+    @Override
+    public Page<Book, Long> findByAuthor(Long authorId, String title, Long after, int limit) throws EntityNotFoundException {
+        Author author = AuthorServiceMockImpl.doGet(authorId);
+        String key = SearchKeys.fold(title);
+        return page(booksOf(author, key, after).filter(titleContains(key)), limit);
+    }
 
-    private Author bind(Long authorId, Book book) throws EntityNotFoundException {
-        Author author = authorService.get(authorId);
-        author.addBook(book);
-        book.addAuthor(author);
-        return author;
+
+    @Override
+    public long version() {
+        return MockData.version();
     }
 
     private static void doSave(Book book) {
         MockData.books.put(book.getId(), book);
+        MockData.bookTitles.add(book.getId(), book.getTitleKey());
+        MockData.index(book);
+    }
+
+    /**
+     * Claims the ISBNs of new books before any of them is written, all or none: a book claiming the ISBN of a saved
+     * book, or of another book of the list, fails them all.
+     */
+    private static void claimIsbns(List<Book> books) {
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            if (MockData.isbns.claim(book.getIsbn(), book.getId()) != book.getId()) {
+                books.subList(0, i).forEach(claimed -> MockData.isbns.release(claimed.getIsbn(), claimed.getId()));
+                throw new DuplicateIsbnException("ISBN already held by another book: " + book.getIsbn());
+            }
+        }
+    }
+
+    /**
+     * The books of an author which may contain a title, following an id, in id order: the candidates of the title
+     * index are intersected with the sorted ids of the author, a scan of the author's books is left to the queries
+     * too short for the index.
+     */
+    private static Stream<Book> booksOf(Author author, String key, Long after) {
+        Set<Long> candidates = MockData.bookTitles.candidates(key);
+        if (candidates == null) {
+            return MockData.booksAfter(author, after);
+        }
+        return MockData.booksOf(author).among(candidates, after);
     }
 
-    private static Collection<Book> filterBooks(Collection<Book> books, String title) {
-        return books.stream()
-                .filter(book -> book.getTitle().toLowerCase().contains(title.toLowerCase()))
+    private static Collection<Book> filterBooks(Stream<Book> books, String key) {
+        return books
+                .filter(titleContains(key))
                 .toList();
     }
 
+    /**
+     * The ids of the books whose title contains a part, null for no part, to be intersected with the facets.
+     */
+    private static Set<Long> titled(String title) {
+        if (title == null) {
+            return null;
+        }
+        String key = SearchKeys.fold(title);
+        Set<Long> candidates = MockData.bookTitles.candidates(key);
+        Stream<Book> books = candidates == null
+                ? MockData.books.values()
+                : candidates.stream().map(MockData.books::get).filter(Objects::nonNull);
+        return books.filter(titleContains(key)).map(Book::getId).collect(Collectors.toSet());
+    }
+
+    /**
+     * @param key a folded query, see {@link SearchKeys}
+     */
+    private static Predicate<Book> titleContains(String key) {
+        return book -> book.getTitleKey().contains(key);
+    }
+
+    /**
+     * Takes one book more than the limit, the stream being lazy the rest is never looked at.
+     */
+    private static Page<Book, Long> page(Stream<Book> books, int limit) {
+        return Page.of(books.limit(limit + 1L).toList(), limit, Book::getId);
+    }
+
 }
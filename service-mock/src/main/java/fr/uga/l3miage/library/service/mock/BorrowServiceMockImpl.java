@@ -0,0 +1,211 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Borrows held by {@link MockData}, along with the indexes answering the availability, active and overdue queries.
+ * <p>
+ * A borrow is written, and the indexes updated, while holding the stripes of its borrower and of all its books, so
+ * two checkouts sharing a book are serialized and the second one sees the book borrowed. The late ratio of the
+ * borrower is updated under the same locks, from the counters of returns.
+ */
+@Component
+public class BorrowServiceMockImpl implements BorrowService {
+
+    @Override
+    public Borrow checkout(Long borrowerId, Collection<Long> bookIds, Date end)
+            throws EntityNotFoundException, BookUnavailableException {
+        Borrower borrower = BorrowerServiceMockImpl.doGet(borrowerId);
+        Set<Book> books = new LinkedHashSet<>();
+        for (Long bookId : bookIds) {
+            books.add(getBook(bookId));
+        }
+
+        Borrow borrow = new Borrow();
+        borrow.setId(MockData.getNextId(Borrow.class));
+        borrow.setBorrower(borrower);
+        borrow.setBooks(books);
+        borrow.setStart(new Date());
+        borrow.setEnd(end);
+
+        try (var held = MockData.locks.lock(stripes(borrow))) {
+            List<Long> borrowed = new ArrayList<>();
+            for (Book book : books) {
+                // the book may have been deleted since it was looked up
+                if (MockData.books.get(book.getId()) != book) {
+                    throw new EntityNotFoundException("Cannot find book with id: " + book.getId());
+                }
+                if (MockData.borrowedBooks.containsKey(book.getId())) {
+                    borrowed.add(book.getId());
+                }
+            }
+            if (!borrowed.isEmpty()) {
+                throw new BookUnavailableException("Books already borrowed: " + borrowed);
+            }
+
+            MockData.borrows.put(borrow.getId(), borrow);
+            for (Book book : books) {
+                MockData.borrowedBooks.put(book.getId(), borrow);
+            }
+            MockData.activeBorrowsOf(borrowerId).add(borrow);
+            MockData.dueBorrows.add(borrow);
+            MockData.pendingDue.add(borrow);
+        }
+        MockData.written();
+        return borrow;
+    }
+
+    @Override
+    public Borrow returnBorrow(Long id) throws EntityNotFoundException {
+        Borrow borrow = get(id);
+        try (var held = MockData.locks.lock(stripes(borrow))) {
+            if (borrow.getReturned() != null) {
+                return borrow;
+            }
+            // removed from the due date indexes before any of its fields change
+            MockData.dueBorrows.remove(borrow);
+            MockData.pendingDue.remove(borrow);
+            MockData.activeBorrowsOf(borrow.getBorrower().getId()).remove(borrow);
+            for (Book book : borrow.getBooks()) {
+                MockData.borrowedBooks.remove(book.getId(), borrow);
+            }
+            Date returned = new Date();
+            borrow.setReturned(returned);
+            borrow.setLate(borrow.isLate() || returned.after(borrow.getEnd()));
+            borrow.setVersion(borrow.getVersion() + 1);
+
+            Borrower borrower = borrow.getBorrower();
+            MockData.lateBorrowers.remove(borrower);
+            borrower.returned(borrow.isLate());
+            if (borrower.getLateReturns() > 0) {
+                MockData.lateBorrowers.add(borrower);
+            }
+            borrower.setVersion(borrower.getVersion() + 1);
+        }
+        MockData.written();
+        return borrow;
+    }
+
+    @Override
+    public boolean isAvailable(Long bookId) throws EntityNotFoundException {
+        getBook(bookId);
+        return !MockData.borrowedBooks.containsKey(bookId);
+    }
+
+    @Override
+    public Collection<Borrow> getActiveByBorrower(Long borrowerId) throws EntityNotFoundException {
+        BorrowerServiceMockImpl.doGet(borrowerId);
+        return List.copyOf(MockData.activeBorrowsOf(borrowerId));
+    }
+
+    @Override
+    public Collection<Borrow> getOverdue(Date asOf) {
+        return List.copyOf(MockData.dueBorrows.headSet(dueAt(asOf), false));
+    }
+
+    @Override
+    public int flagOverdue(Date asOf) {
+        int flagged = 0;
+        for (Borrow borrow : MockData.pendingDue.headSet(dueAt(asOf), false)) {
+            try (var held = MockData.locks.lock(stripes(borrow))) {
+                // returned or renewed meanwhile otherwise
+                if (borrow.getEnd().before(asOf) && MockData.pendingDue.remove(borrow)) {
+                    borrow.setLate(true);
+                    borrow.setVersion(borrow.getVersion() + 1);
+                    flagged++;
+                }
+            }
+        }
+        if (flagged > 0) {
+            MockData.written();
+        }
+        return flagged;
+    }
+
+    @Override
+    public Borrow get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(MockData.borrows.get(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrow with id: " + id));
+    }
+
+    @Override
+    public Batch<Borrow, Long> getAll(Collection<Long> ids) {
+        return Batch.of(ids, MockData.borrows::get);
+    }
+
+    @Override
+    public Collection<Borrow> list() {
+        return MockData.borrows.values().stream().toList();
+    }
+
+    @Override
+    public Page<Borrow, Long> list(Long after, int limit) {
+        return Page.of(MockData.after(MockData.borrows, after).values().stream().limit(limit + 1L).toList(),
+                limit, Borrow::getId);
+    }
+
+    @Override
+    public Borrow update(Borrow borrow) throws EntityNotFoundException {
+        Borrow stored = get(borrow.getId());
+        try (var held = MockData.locks.lock(stripes(stored))) {
+            boolean active = MockData.dueBorrows.remove(stored);
+            MockData.pendingDue.remove(stored);
+            stored.setEnd(borrow.getEnd());
+            if (active) {
+                MockData.dueBorrows.add(stored);
+                if (stored.getEnd().after(new Date())) {
+                    stored.setLate(false);
+                }
+                if (!stored.isLate()) {
+                    MockData.pendingDue.add(stored);
+                }
+            }
+            stored.setVersion(stored.getVersion() + 1);
+        }
+        MockData.written();
+        return stored;
+    }
+
+    @Override
+    public long version() {
+        return MockData.version();
+    }
+
+    private static Book getBook(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(MockData.books.get(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
+    }
+
+    /**
+     * A bound of the due date indexes, before any borrow due at the given date.
+     */
+    private static Borrow dueAt(Date date) {
+        Borrow bound = new Borrow();
+        bound.setEnd(date);
+        bound.setId(Long.MIN_VALUE);
+        return bound;
+    }
+
+    private static int[] stripes(Borrow borrow) {
+        IntStream bookStripes = borrow.getBooks().stream().mapToInt(book -> MockData.bookStripe(book.getId()));
+        return IntStream.concat(IntStream.of(MockData.borrowerStripe(borrow.getBorrower().getId())), bookStripes)
+                .toArray();
+    }
+}
@@ -0,0 +1,77 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.BorrowerService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Optional;
+
+@Component
+public class BorrowerServiceMockImpl implements BorrowerService {
+
+    @Override
+    public Borrower save(Borrower borrower) {
+        borrower.setId(MockData.getNextId(Borrower.class));
+        if (borrower.getRegistered() == null) {
+            borrower.setRegistered(new Date());
+        }
+        MockData.borrowers.put(borrower.getId(), borrower);
+        MockData.written();
+        return borrower;
+    }
+
+    @Override
+    public Collection<Borrower> getMostLate(int limit) {
+        return MockData.lateBorrowers.stream().limit(limit).toList();
+    }
+
+    @Override
+    public Borrower get(Long id) throws EntityNotFoundException {
+        return doGet(id);
+    }
+
+    @Override
+    public Batch<Borrower, Long> getAll(Collection<Long> ids) {
+        return Batch.of(ids, MockData.borrowers::get);
+    }
+
+    static Borrower doGet(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(MockData.borrowers.get(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrower with id: " + id));
+    }
+
+    @Override
+    public Collection<Borrower> list() {
+        return MockData.borrowers.values().stream().toList();
+    }
+
+    @Override
+    public Page<Borrower, Long> list(Long after, int limit) {
+        return Page.of(MockData.after(MockData.borrowers, after).values().stream().limit(limit + 1L).toList(),
+                limit, Borrower::getId);
+    }
+
+    @Override
+    public Borrower update(Borrower borrower) throws EntityNotFoundException {
+        try (var held = MockData.locks.lock(MockData.borrowerStripe(borrower.getId()))) {
+            Borrower stored = doGet(borrower.getId());
+            stored.setFirstName(borrower.getFirstName());
+            stored.setLastName(borrower.getLastName());
+            stored.setGender(borrower.getGender());
+            stored.setBirth(borrower.getBirth());
+            stored.setVersion(stored.getVersion() + 1);
+            MockData.written();
+            return stored;
+        }
+    }
+
+    @Override
+    public long version() {
+        return MockData.version();
+    }
+}
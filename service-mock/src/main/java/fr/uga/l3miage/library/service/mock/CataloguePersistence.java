@@ -0,0 +1,128 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the catalogue to {@code library.snapshot.file}, as snapshots completed by a {@link WriteAheadLog}.
+ * <p>
+ * At startup the catalogue is loaded from the snapshot, when the file exists, then the segments of the log written
+ * since are replayed over it. The writes are then logged with the {@code library.wal.durability} level, and the
+ * catalogue is written back every {@code library.snapshot.interval} if anything changed, and once more on shutdown.
+ * Each snapshot starts a new segment of the log and deletes those it covers.
+ * <p>
+ * Snapshots are written by a thread of their own, so request threads never wait for one. Nothing is loaded, logged
+ * nor written when no file is configured.
+ */
+@Component
+public class CataloguePersistence implements InitializingBean, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CataloguePersistence.class);
+
+    private final Path file;
+    private final Path directory;
+    /* the file name of the segments of the log, followed by their number */
+    private final String prefix;
+    private final Duration interval;
+    private final WriteAheadLog.Durability durability;
+    private WriteAheadLog journal;
+    private ScheduledExecutorService writer;
+    /* the version of the store last written or loaded, -1 to write a snapshot at the first run */
+    private long written = -1;
+
+    public CataloguePersistence(@Value("${library.snapshot.file:}") String file,
+            @Value("${library.snapshot.interval:PT5M}") Duration interval,
+            @Value("${library.wal.durability:fsync}") String durability) {
+        this.file = file.isBlank() ? null : Path.of(file).toAbsolutePath();
+        this.directory = this.file == null ? null : this.file.getParent();
+        this.prefix = this.file == null ? null : this.file.getFileName() + ".wal";
+        this.interval = interval;
+        this.durability = WriteAheadLog.Durability.valueOf(durability.toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (file == null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+        boolean snapshot = Files.exists(file);
+        // without a snapshot, the log holds the writes made over the seed data
+        long from = snapshot ? CatalogueSnapshot.read(file) : 0;
+        WriteAheadLog.Replayed replayed = WriteAheadLog.replay(directory, prefix, from);
+        CatalogueRecords.Counts loaded = CatalogueRecords.settle();
+        if (snapshot || replayed.records() > 0) {
+            LOG.info("Loaded {} authors, {} books and {} links from {} and {} records of {} log segments in {} ms",
+                    loaded.authors(), loaded.books(), loaded.links(), file, replayed.records(), replayed.segments(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        if (snapshot && replayed.segments() == 0) {
+            written = MockData.version();
+        }
+
+        SortedMap<Long, Path> segments = WriteAheadLog.segments(directory, prefix);
+        long next = Math.max(from, segments.isEmpty() ? 0 : segments.lastKey() + 1);
+        journal = WriteAheadLog.open(directory, prefix, next, durability);
+        MockData.journal = journal;
+
+        writer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("catalogue-snapshot")
+                .daemon()
+                .factory());
+        // the log replayed, if any, is covered by a snapshot right away
+        writer.scheduleWithFixedDelay(this::writeIfChanged, written == -1 ? 0 : interval.toMillis(),
+                interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        writer.awaitTermination(1, TimeUnit.MINUTES);
+        writeIfChanged();
+        MockData.journal = WriteAheadLog.DISABLED;
+        journal.close();
+    }
+
+    /**
+     * Writes a snapshot unless the store is unchanged since the last one.
+     */
+    synchronized void writeIfChanged() {
+        long version = MockData.version();
+        if (version == written) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            long segment;
+            try (var held = MockData.locks.lockAll()) {
+                segment = journal.rotate();
+            }
+            CatalogueRecords.Counts counts = CatalogueSnapshot.write(file, segment);
+            WriteAheadLog.deleteBefore(directory, prefix, segment);
+            written = version;
+            LOG.info("Wrote {} authors, {} books and {} links to {} in {} ms", counts.authors(), counts.books(),
+                    counts.links(), file, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            // the previous snapshot and the log since are left in place, the next run tries again
+            LOG.warn("Cannot write the catalogue snapshot to {}", file, e);
+        }
+    }
+}
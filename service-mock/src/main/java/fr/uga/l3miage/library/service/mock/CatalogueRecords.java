@@ -0,0 +1,183 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The records the catalogue of {@link MockData} is saved as, by {@link CatalogueSnapshot} and
+ * {@link WriteAheadLog}.
+ * <p>
+ * An author or a book record holds the whole entity, and applying it creates or overwrites the entity, so applying
+ * a record twice, or an older record over a newer state, converges as soon as the later records are applied too.
+ * That is what allows a snapshot taken while writers run to be completed by the log of the writes it may or may
+ * not have seen.
+ * <p>
+ * Applying records does not maintain the search indexes nor the sequences: {@link #settle()} does once all are
+ * applied.
+ */
+final class CatalogueRecords {
+
+    static final byte END = 0;
+    static final byte AUTHOR = 1;
+    static final byte BOOK = 2;
+    static final byte LINK = 3;
+    static final byte DELETE_AUTHOR = 4;
+    static final byte DELETE_BOOK = 5;
+
+    private static final Book.Language[] LANGUAGES = Book.Language.values();
+
+    private CatalogueRecords() {
+        // static helpers only
+    }
+
+    /**
+     * What a catalogue holds.
+     */
+    record Counts(int authors, int books, int links) {
+    }
+
+    static void writeAuthor(DataOutput out, Author author) throws IOException {
+        out.writeByte(AUTHOR);
+        out.writeLong(author.getId());
+        out.writeLong(author.getVersion());
+        writeString(out, author.getFullName());
+    }
+
+    static void writeBook(DataOutput out, Book book) throws IOException {
+        out.writeByte(BOOK);
+        out.writeLong(book.getId());
+        out.writeLong(book.getVersion());
+        writeString(out, book.getTitle());
+        out.writeLong(book.getIsbn());
+        writeString(out, book.getPublisher());
+        out.writeShort(book.getYear());
+        out.writeByte(book.getLanguage() == null ? -1 : book.getLanguage().ordinal());
+    }
+
+    static void writeLink(DataOutput out, long authorId, long bookId) throws IOException {
+        out.writeByte(LINK);
+        out.writeLong(authorId);
+        out.writeLong(bookId);
+    }
+
+    /**
+     * @param tag {@link #DELETE_AUTHOR} or {@link #DELETE_BOOK}
+     */
+    static void writeDelete(DataOutput out, byte tag, long id) throws IOException {
+        out.writeByte(tag);
+        out.writeLong(id);
+    }
+
+    /**
+     * Reads the next record and applies it to the catalogue, while nothing else uses {@link MockData}.
+     *
+     * @return false when the record read is the end one
+     */
+    static boolean apply(RecordInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case END -> {
+                return false;
+            }
+            case AUTHOR -> {
+                long id = in.readLong();
+                Author author = MockData.authors.get(id);
+                if (author == null) {
+                    author = new Author();
+                    author.setId(id);
+                    MockData.booksOf(author);
+                    MockData.authors.put(id, author);
+                }
+                author.setVersion(in.readLong());
+                author.setFullName(in.readString());
+            }
+            case BOOK -> {
+                long id = in.readLong();
+                Book book = MockData.books.get(id);
+                if (book == null) {
+                    book = new Book();
+                    book.setId(id);
+                    MockData.authorsOf(book);
+                    MockData.books.put(id, book);
+                }
+                book.setVersion(in.readLong());
+                book.setTitle(in.readString());
+                book.setIsbn(in.readLong());
+                book.setPublisher(in.readString());
+                book.setYear(in.readShort());
+                byte language = in.readByte();
+                book.setLanguage(language < 0 ? null : LANGUAGES[language]);
+            }
+            case LINK -> {
+                Author author = MockData.authors.get(in.readLong());
+                Book book = MockData.books.get(in.readLong());
+                if (author != null && book != null) {
+                    MockData.link(author, book);
+                }
+            }
+            case DELETE_AUTHOR -> {
+                long id = in.readLong();
+                MockData.authors.remove(id);
+                Adjacency.Links bookIds = MockData.authorBooks.removeAll(id);
+                for (int i = 0; i < bookIds.size(); i++) {
+                    MockData.bookAuthors.remove(bookIds.id(i), id);
+                }
+            }
+            case DELETE_BOOK -> {
+                Book book = MockData.books.remove(in.readLong());
+                if (book != null) {
+                    MockData.unlink(book);
+                }
+            }
+            default -> throw new IOException("corrupted catalogue, unknown record " + tag);
+        }
+        return true;
+    }
+
+    /**
+     * Completes the records applied, while nothing else uses {@link MockData}: drops the books left without an
+     * author, moves the sequences past every id ever stored and rebuilds the indexes, in parallel.
+     */
+    static Counts settle() {
+        MockData.books.values()
+                .filter(book -> MockData.bookAuthors.of(book.getId()).size() == 0)
+                .toList()
+                .forEach(book -> MockData.books.remove(book.getId()));
+        MockData.restoreSequences(MockData.authors.lastId(), MockData.books.lastId());
+
+        MockData.authorNames.clear();
+        MockData.bookTitles.clear();
+        MockData.authorText.clear();
+        MockData.bookText.clear();
+        MockData.authorSuggestions.clear();
+        MockData.bookSuggestions.clear();
+        MockData.bookFacets.clear();
+        MockData.isbns.clear();
+        MockData.authors.values().parallel().forEach(author -> {
+            MockData.authorNames.add(author.getId(), author.getFullNameKey());
+            MockData.index(author);
+        });
+        MockData.books.values().parallel().forEach(book -> {
+            MockData.bookTitles.add(book.getId(), book.getTitleKey());
+            MockData.isbns.put(book.getIsbn(), book.getId());
+            MockData.index(book);
+        });
+        MockData.written();
+        int links = MockData.authors.values().mapToInt(author -> MockData.authorBooks.of(author.getId()).size()).sum();
+        return new Counts(MockData.authors.size(), MockData.books.size(), links);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
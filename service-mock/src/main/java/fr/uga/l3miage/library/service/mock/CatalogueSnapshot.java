@@ -0,0 +1,99 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * The binary snapshot of the catalogue of {@link MockData}: authors, books and the links between them.
+ * <p>
+ * The file is a sequence of {@link CatalogueRecords} closed by an end tag, so that a truncated file is detected.
+ * Writing goes through the stores without blocking them: each entity is read under its stripe, so its record is
+ * consistent, but the snapshot as a whole is not a point in time. Its header names the first segment of the
+ * {@link WriteAheadLog} started before the pass, whose replay brings the catalogue to the state of the last write;
+ * without a log, loading repairs what the pass can leave: links to entities not captured are dropped, and so are
+ * the books left without an author.
+ * <p>
+ * Loading maps the file with {@link FileChannel#map} and reads the records in one sequential pass. The search
+ * indexes are not part of the file: a copy taken while writers run could disagree with the entities captured
+ * alongside, so they are rebuilt from the loaded keys by {@link CatalogueRecords#settle()}.
+ */
+final class CatalogueSnapshot {
+
+    private static final int MAGIC = 0x4C49424B;
+    private static final int FORMAT = 2;
+
+    private CatalogueSnapshot() {
+        // static helpers only
+    }
+
+    /**
+     * Writes the catalogue to a file, replaced atomically once complete.
+     *
+     * @param segment the first segment of the log to replay over this snapshot
+     */
+    static CatalogueRecords.Counts write(Path file, long segment) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        int authors = 0;
+        int books = 0;
+        int links = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(segment);
+            for (Iterator<Author> it = MockData.authors.values().iterator(); it.hasNext(); authors++) {
+                Author author = it.next();
+                try (var held = MockData.locks.lock(MockData.authorStripe(author.getId()))) {
+                    CatalogueRecords.writeAuthor(out, author);
+                }
+            }
+            for (Iterator<Book> it = MockData.books.values().iterator(); it.hasNext(); books++) {
+                Book book = it.next();
+                try (var held = MockData.locks.lock(MockData.bookStripe(book.getId()))) {
+                    CatalogueRecords.writeBook(out, book);
+                }
+            }
+            for (Iterator<Author> it = MockData.authors.values().iterator(); it.hasNext(); ) {
+                long authorId = it.next().getId();
+                Adjacency.Links bookIds = MockData.authorBooks.of(authorId);
+                for (int i = 0; i < bookIds.size(); i++, links++) {
+                    CatalogueRecords.writeLink(out, authorId, bookIds.id(i));
+                }
+            }
+            out.writeByte(CatalogueRecords.END);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new CatalogueRecords.Counts(authors, books, links);
+    }
+
+    /**
+     * Replaces the catalogue by the one of a file, while nothing else uses {@link MockData}. The catalogue is left
+     * to be completed by the log then settled, see {@link CatalogueRecords#settle()}.
+     *
+     * @return the first segment of the log to replay over this snapshot
+     */
+    static long read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedInput in = new MappedInput(channel);
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IOException("not a catalogue snapshot: " + file);
+            }
+            long segment = in.readLong();
+            MockData.clearCatalogue();
+            while (CatalogueRecords.apply(in)) {
+                // applied
+            }
+            return segment;
+        }
+    }
+}
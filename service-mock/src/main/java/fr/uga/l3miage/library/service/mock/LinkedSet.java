@@ -0,0 +1,155 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The entities linked to an entity, as a read-only set backed by an {@link Adjacency} and the {@link LongStore} of
+ * the other side. It is what {@code Author.getBooks()} and {@code Book.getAuthors()} return for the entities of the
+ * mock, so the entities hold no collection of their own.
+ * <p>
+ * Iterations go in id order over the snapshot of the links taken when they start, and skip the entities removed
+ * since. Links are written through {@link MockData#link}.
+ *
+ * @param <T> the type of the linked entities
+ */
+final class LinkedSet<T> extends AbstractSet<T> {
+
+    private final Adjacency adjacency;
+    private final long id;
+    private final LongStore<T> linked;
+    private final Class<T> type;
+    private final Function<T, Long> idOf;
+
+    LinkedSet(Adjacency adjacency, long id, LongStore<T> linked, Class<T> type, Function<T, Long> idOf) {
+        this.adjacency = adjacency;
+        this.id = id;
+        this.linked = linked;
+        this.type = type;
+        this.idOf = idOf;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Linked(adjacency.of(id), 0);
+    }
+
+    /**
+     * The linked entities following an id, in id order.
+     *
+     * @param after the id to start after, null to start from the first entity
+     */
+    Stream<T> after(Long after) {
+        Adjacency.Links links = adjacency.of(id);
+        return stream(new Linked(links, after == null ? 0 : links.after(after)));
+    }
+
+    /**
+     * The linked entities among some ids, following an id, in id order. The smaller side drives the intersection:
+     * the ids are probed in the sorted links when they are fewer, else the links are walked and looked up in them.
+     *
+     * @param ids   the ids to keep, as returned by a search index
+     * @param after the id to start after, null to start from the first entity
+     */
+    Stream<T> among(Set<Long> ids, Long after) {
+        Adjacency.Links links = adjacency.of(id);
+        int from = after == null ? 0 : links.after(after);
+        if (ids.size() < links.size() - from) {
+            return ids.stream()
+                    .filter(linkedId -> (after == null || linkedId > after) && links.contains(linkedId))
+                    .sorted()
+                    .map(linked::get)
+                    .filter(Objects::nonNull);
+        }
+        return stream(new Linked(links, from)).filter(entity -> ids.contains(idOf.apply(entity)));
+    }
+
+    /**
+     * The linked entities as of now, a read-only collection that keeps iterating the same links whatever is linked
+     * afterwards, without copying them. Entities removed since are still skipped.
+     */
+    Collection<T> snapshot() {
+        Adjacency.Links links = adjacency.of(id);
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new Linked(links, 0);
+            }
+
+            @Override
+            public int size() {
+                return count(links);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return count(adjacency.of(id));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!type.isInstance(o)) {
+            return false;
+        }
+        T entity = type.cast(o);
+        Long linkedId = idOf.apply(entity);
+        return linkedId != null && adjacency.of(id).contains(linkedId) && linked.get(linkedId) == entity;
+    }
+
+    private int count(Adjacency.Links links) {
+        int size = 0;
+        for (int i = 0; i < links.size(); i++) {
+            if (linked.get(links.id(i)) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private Stream<T> stream(Iterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+    }
+
+    private final class Linked implements Iterator<T> {
+
+        private final Adjacency.Links links;
+        private int position;
+        private T next;
+
+        private Linked(Adjacency.Links links, int position) {
+            this.links = links;
+            this.position = position;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && position < links.size()) {
+                next = linked.get(links.id(position++));
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T value = next;
+            next = null;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Values keyed by primitive long ids, held in chunks of an array indexed by the id.
+ * <p>
+ * The mock hands out ids from a sequence, so they are dense: a slot of the array costs one reference per id,
+ * where a {@link java.util.concurrent.ConcurrentSkipListMap} costs a boxed key, a node and its share of the index
+ * levels. Iterating the slots from an id gives the values in id order, as pagination needs.
+ * <p>
+ * Readers never lock. Writers of a given id must be serialized by the caller, e.g. with {@link StripedLocks}.
+ *
+ * @param <T> the type of the values
+ */
+final class LongStore<T> {
+
+    static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /* the lowest id that can be stored, held by the first slot */
+    private final long origin;
+    private volatile AtomicReferenceArray<T>[] chunks;
+    /* one more than the highest slot ever written, iterations stop there */
+    private final AtomicLong end = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    LongStore(long origin) {
+        this.origin = origin;
+        this.chunks = new AtomicReferenceArray[0];
+    }
+
+    T get(long id) {
+        long slot = id - origin;
+        AtomicReferenceArray<T>[] current = chunks;
+        if (slot < 0 || slot >= (long) current.length << CHUNK_BITS) {
+            return null;
+        }
+        return current[(int) (slot >>> CHUNK_BITS)].get((int) slot & CHUNK_MASK);
+    }
+
+    /**
+     * @return the value replaced, null if there was none
+     */
+    T put(long id, T value) {
+        long slot = slot(id);
+        T previous = chunk(slot).getAndSet((int) slot & CHUNK_MASK, value);
+        if (previous == null) {
+            size.incrementAndGet();
+        }
+        end.accumulateAndGet(slot + 1, Math::max);
+        return previous;
+    }
+
+    /**
+     * @return the value removed, null if there was none
+     */
+    T remove(long id) {
+        long slot = id - origin;
+        AtomicReferenceArray<T>[] current = chunks;
+        if (slot < 0 || slot >= (long) current.length << CHUNK_BITS) {
+            return null;
+        }
+        T previous = current[(int) (slot >>> CHUNK_BITS)].getAndSet((int) slot & CHUNK_MASK, null);
+        if (previous != null) {
+            size.decrementAndGet();
+        }
+        return previous;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * The highest id ever stored, even if removed since, or one less than the origin when none was.
+     */
+    long lastId() {
+        return origin + end.get() - 1;
+    }
+
+    /**
+     * Removes every value, to be called while nothing else reads or writes the store.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized void clear() {
+        chunks = new AtomicReferenceArray[0];
+        end.set(0);
+        size.set(0);
+    }
+
+    /**
+     * The values in id order.
+     */
+    Stream<T> values() {
+        return values(null);
+    }
+
+    /**
+     * The values following an id, in id order, values written meanwhile may or may not be seen.
+     *
+     * @param after the id to start after, null to start from the first value
+     */
+    Stream<T> values(Long after) {
+        long from = after == null ? 0 : Math.max(0, after - origin + 1);
+        Spliterator<T> values = Spliterators.spliteratorUnknownSize(new Slots(from),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT);
+        return StreamSupport.stream(values, false);
+    }
+
+    private long slot(long id) {
+        long slot = id - origin;
+        if (slot < 0 || slot >= (long) Integer.MAX_VALUE << CHUNK_BITS) {
+            throw new IllegalArgumentException("id out of the store range: " + id);
+        }
+        return slot;
+    }
+
+    private AtomicReferenceArray<T> chunk(long slot) {
+        int index = (int) (slot >>> CHUNK_BITS);
+        AtomicReferenceArray<T>[] current = chunks;
+        if (index < current.length) {
+            return current[index];
+        }
+        return grow(index);
+    }
+
+    /**
+     * Chunks are only ever added, so readers holding the previous array still find every value they could see.
+     */
+    private synchronized AtomicReferenceArray<T> grow(int index) {
+        AtomicReferenceArray<T>[] current = chunks;
+        if (index >= current.length) {
+            AtomicReferenceArray<T>[] grown = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new AtomicReferenceArray<>(CHUNK_SIZE);
+            }
+            chunks = grown;
+            current = grown;
+        }
+        return current[index];
+    }
+
+    private final class Slots implements Iterator<T> {
+
+        private long slot;
+        private T next;
+
+        private Slots(long from) {
+            this.slot = from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            AtomicReferenceArray<T>[] current = chunks;
+            long last = Math.min(end.get(), (long) current.length << CHUNK_BITS);
+            while (slot < last) {
+                next = current[(int) (slot >>> CHUNK_BITS)].get((int) slot & CHUNK_MASK);
+                slot++;
+                if (next != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T value = next;
+            next = null;
+            return value;
+        }
+    }
+}
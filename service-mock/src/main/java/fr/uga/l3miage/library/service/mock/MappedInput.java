@@ -0,0 +1,48 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sequential reads over a file mapped by windows, as a buffer is limited to 2 GiB, the next window starting where
+ * the reads stopped.
+ */
+final class MappedInput extends RecordInput {
+
+    private static final long WINDOW = 1L << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private long base;
+
+    MappedInput(FileChannel channel) throws IOException {
+        super(null);
+        this.channel = channel;
+        this.size = channel.size();
+        map(0);
+    }
+
+    @Override
+    protected void require(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            map(position());
+            super.require(bytes);
+        }
+    }
+
+    /**
+     * The offset in the file of the next read.
+     */
+    long position() {
+        return base + buffer.position();
+    }
+
+    long remaining() {
+        return size - position();
+    }
+
+    private void map(long position) throws IOException {
+        base = position;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+    }
+}
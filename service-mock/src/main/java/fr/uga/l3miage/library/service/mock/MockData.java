@@ -2,17 +2,77 @@ package fr.uga.l3miage.library.service.mock;
 
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.search.FacetIndex;
+import fr.uga.l3miage.library.service.search.IsbnIndex;
+import fr.uga.l3miage.library.service.search.SuggestIndex;
+import fr.uga.l3miage.library.service.search.TextIndex;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Comparator;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+/**
+ * The in-memory store of the mock services.
+ * <p>
+ * Authors and books, the bulk of the data, are held in {@link LongStore}s indexed by their primitive ids, and the
+ * association between them in an {@link Adjacency} per direction: an author or a book costs a slot of an array and
+ * an edge a long on each side. The entities only hold {@link LinkedSet} views of the association.
+ */
 @Component
 public class MockData {
-    static Map<Long, Author> authors = new HashMap<>();
-    static Map<Long, Book> books = new HashMap<>();
-    private static long nextBookId;
-    private static long nextAuthorId;
+    /* the lowest id, taken by the seed data, sequences start right after */
+    static final long FIRST_ID = -1;
+    private static final Comparator<Borrow> DUE_ORDER =
+            Comparator.comparing(Borrow::getEnd).thenComparing(Borrow::getId);
+    static final LongStore<Author> authors = new LongStore<>(FIRST_ID);
+    static final LongStore<Book> books = new LongStore<>(FIRST_ID);
+    /* the ids of the books of each author, and of the authors of each book */
+    static final Adjacency authorBooks = new Adjacency(FIRST_ID);
+    static final Adjacency bookAuthors = new Adjacency(FIRST_ID);
+    static final ConcurrentNavigableMap<Long, Borrower> borrowers = new ConcurrentSkipListMap<>();
+    static final ConcurrentNavigableMap<Long, Borrow> borrows = new ConcurrentSkipListMap<>();
+    /* the active borrow holding each borrowed book, by book id */
+    static final ConcurrentMap<Long, Borrow> borrowedBooks = new ConcurrentHashMap<>();
+    /* the active borrows of each borrower, by borrower id */
+    static final ConcurrentMap<Long, NavigableSet<Borrow>> activeBorrows = new ConcurrentHashMap<>();
+    /* the active borrows, by due date */
+    static final NavigableSet<Borrow> dueBorrows = new ConcurrentSkipListSet<>(DUE_ORDER);
+    /* the active borrows not flagged late yet, by due date: the sweep polls its head */
+    static final NavigableSet<Borrow> pendingDue = new ConcurrentSkipListSet<>(DUE_ORDER);
+    /* the borrowers returning late, the most often late first */
+    static final NavigableSet<Borrower> lateBorrowers = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Borrower::getLateRatio).thenComparing(Borrower::getLateReturns).reversed()
+                    .thenComparing(Borrower::getId));
+    static final TrigramIndex authorNames = new TrigramIndex();
+    static final TrigramIndex bookTitles = new TrigramIndex();
+    /* the full-text indexes: names, and titles weighing twice the publishers */
+    static final TextIndex authorText = new TextIndex(1);
+    static final TextIndex bookText = new TextIndex(2, 1);
+    /* the completions of the names and titles */
+    static final SuggestIndex authorSuggestions = new SuggestIndex();
+    static final SuggestIndex bookSuggestions = new SuggestIndex();
+    /* the bitmaps of the books by language, publisher and year */
+    static final FacetIndex bookFacets = new FacetIndex(FIRST_ID);
+    /* the book holding each ISBN, claimed before a book is written so that no two books share one */
+    static final IsbnIndex isbns = new IsbnIndex();
+    static final StripedLocks locks = new StripedLocks(Runtime.getRuntime().availableProcessors() * 16);
+    /* the log of the writes to the catalogue, see CataloguePersistence */
+    static volatile WriteAheadLog journal = WriteAheadLog.DISABLED;
+    private static final AtomicLong version = new AtomicLong();
+    private static final AtomicLong nextBookId = new AtomicLong();
+    private static final AtomicLong nextAuthorId = new AtomicLong();
+    private static final AtomicLong nextBorrowerId = new AtomicLong();
+    private static final AtomicLong nextBorrowId = new AtomicLong();
 
     private MockData() {
         // to hide the public one
@@ -20,12 +80,161 @@ public class MockData {
 
     public static <T> long getNextId(Class<T> c) {
         if (c.equals(Book.class)) {
-            return nextBookId++;
+            return nextBookId.getAndIncrement();
+        } else if (c.equals(Borrower.class)) {
+            return nextBorrowerId.getAndIncrement();
+        } else if (c.equals(Borrow.class)) {
+            return nextBorrowId.getAndIncrement();
         } else {
-            return nextAuthorId++;
+            return nextAuthorId.getAndIncrement();
         }
     }
 
+    /**
+     * Bumps the version of the whole store, to be called once a write is visible.
+     */
+    static void written() {
+        version.incrementAndGet();
+    }
+
+    static long version() {
+        return version.get();
+    }
+
+    /**
+     * Indexes an entity in the full-text, completion and facet indexes, replacing its previous values. The trigram
+     * indexes are maintained apart, as they need the previous key.
+     */
+    static void index(Author author) {
+        authorText.put(author.getId(), null, author.getFullName());
+        authorSuggestions.put(author.getId(), author.getFullName());
+    }
+
+    static void index(Book book) {
+        bookText.put(book.getId(), book.getLanguage(), book.getTitle(), book.getPublisher());
+        bookSuggestions.put(book.getId(), book.getTitle());
+        bookFacets.put(book.getId(), book.getLanguage(), book.getPublisher(), book.getYear());
+    }
+
+    static void unindex(Author author) {
+        authorText.remove(author.getId());
+        authorSuggestions.remove(author.getId());
+    }
+
+    /**
+     * Removes a book from the indexes, freeing its ISBN too, which the services claim apart before writing a book.
+     */
+    static void unindex(Book book) {
+        isbns.release(book.getIsbn(), book.getId());
+        bookText.remove(book.getId());
+        bookSuggestions.remove(book.getId());
+        bookFacets.remove(book.getId());
+    }
+
+    /**
+     * Empties the catalogue, authors, books and their indexes, before a snapshot is loaded in its place.
+     */
+    static void clearCatalogue() {
+        authors.clear();
+        books.clear();
+        authorBooks.clear();
+        bookAuthors.clear();
+        authorNames.clear();
+        bookTitles.clear();
+        authorText.clear();
+        bookText.clear();
+        authorSuggestions.clear();
+        bookSuggestions.clear();
+        bookFacets.clear();
+        isbns.clear();
+    }
+
+    /**
+     * Moves the sequences past the ids of a loaded catalogue, so that new entities never reuse them.
+     */
+    static void restoreSequences(long lastAuthorId, long lastBookId) {
+        nextAuthorId.accumulateAndGet(lastAuthorId + 1, Math::max);
+        nextBookId.accumulateAndGet(lastBookId + 1, Math::max);
+    }
+
+    static int authorStripe(Long id) {
+        return locks.stripe(Author.class, id);
+    }
+
+    static int bookStripe(Long id) {
+        return locks.stripe(Book.class, id);
+    }
+
+    static int borrowerStripe(Long id) {
+        return locks.stripe(Borrower.class, id);
+    }
+
+    /**
+     * The active borrows of a borrower ordered by id, created on first use.
+     */
+    static NavigableSet<Borrow> activeBorrowsOf(Long borrowerId) {
+        return activeBorrows.computeIfAbsent(borrowerId,
+                id -> new ConcurrentSkipListSet<>(Comparator.comparing(Borrow::getId)));
+    }
+
+    /**
+     * Binds both sides of the many-to-many association, the stripes of both entities must be held.
+     */
+    static void link(Author author, Book book) {
+        authorBooks.add(author.getId(), book.getId());
+        bookAuthors.add(book.getId(), author.getId());
+    }
+
+    /**
+     * Unbinds a book from all its authors, the stripes of the book and of its authors must be held.
+     */
+    static void unlink(Book book) {
+        Adjacency.Links authorIds = bookAuthors.removeAll(book.getId());
+        for (int i = 0; i < authorIds.size(); i++) {
+            authorBooks.remove(authorIds.id(i), book.getId());
+        }
+    }
+
+    /**
+     * The entries of a store following the given id, in id order.
+     */
+    static <T> NavigableMap<Long, T> after(ConcurrentNavigableMap<Long, T> store, Long after) {
+        return after == null ? store : store.tailMap(after, false);
+    }
+
+    /**
+     * The books of an author following the given id, in id order.
+     */
+    static Stream<Book> booksAfter(Author author, Long after) {
+        return booksOf(author).after(after);
+    }
+
+    /**
+     * The books of an author ordered by id, as a view of the association that can be iterated while writers add
+     * to it. The author must have its id, the view replaces the books it held.
+     */
+    static LinkedSet<Book> booksOf(Author author) {
+        if (!(author.getBooks() instanceof LinkedSet<Book> linked)) {
+            LinkedSet<Book> view = new LinkedSet<>(authorBooks, author.getId(), books, Book.class, Book::getId);
+            author.setBooks(view);
+            return view;
+        }
+        return linked;
+    }
+
+    /**
+     * The authors of a book ordered by id, as a view of the association that can be iterated while writers add
+     * to it. The book must have its id, the view replaces the authors it held.
+     */
+    static LinkedSet<Author> authorsOf(Book book) {
+        if (!(book.getAuthors() instanceof LinkedSet<Author> linked)) {
+            LinkedSet<Author> view = new LinkedSet<>(bookAuthors, book.getId(), authors, Author.class, Author::getId);
+            book.setAuthors(view);
+            return view;
+        }
+        return linked;
+    }
+
     static {
 
         Author me = new Author();
@@ -40,11 +249,17 @@ public class MockData {
         jpa.setYear((short) 2023);
         jpa.setLanguage(Book.Language.ENGLISH);
 
-        jpa.addAuthor(me);
-        me.addBook(jpa);
+        booksOf(me);
+        authorsOf(jpa);
+        link(me, jpa);
 
         authors.put(me.getId(), me);
+        authorNames.add(me.getId(), me.getFullNameKey());
+        index(me);
         books.put(jpa.getId(), jpa);
+        bookTitles.add(jpa.getId(), jpa.getTitleKey());
+        isbns.put(jpa.getIsbn(), jpa.getId());
+        index(jpa);
 
     }
 
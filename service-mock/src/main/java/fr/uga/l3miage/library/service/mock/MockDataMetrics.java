@@ -0,0 +1,61 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.library.service.search.TextIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the statistics of {@link MockData}: the size of the stores, of the search indexes and how often a query
+ * is resolved by them, and the activity of the {@link WriteAheadLog}. All are read when the metrics are scraped,
+ * the services only maintain counters.
+ */
+@Component
+public class MockDataMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.mock.entities", MockData.authors, LongStore::size)
+                .tag("type", "author")
+                .register(registry);
+        Gauge.builder("library.mock.entities", MockData.books, LongStore::size)
+                .tag("type", "book")
+                .register(registry);
+        bindIndex(registry, "author-names", MockData.authorNames);
+        bindIndex(registry, "book-titles", MockData.bookTitles);
+        bindText(registry, "author-text", MockData.authorText);
+        bindText(registry, "book-text", MockData.bookText);
+
+        FunctionCounter.builder("library.mock.log.records", MockData.class, type -> MockData.journal.records())
+                .register(registry);
+        FunctionCounter.builder("library.mock.log.batches", MockData.class, type -> MockData.journal.batches())
+                .description("writes of the log, each shared by the records appended meanwhile")
+                .register(registry);
+    }
+
+    private static void bindIndex(MeterRegistry registry, String name, TrigramIndex index) {
+        Gauge.builder("library.mock.index.trigrams", index, TrigramIndex::trigrams)
+                .tag("index", name)
+                .register(registry);
+        Gauge.builder("library.mock.index.entries", index, TrigramIndex::entries)
+                .tag("index", name)
+                .register(registry);
+        FunctionCounter.builder("library.mock.index.queries", index, TrigramIndex::indexed)
+                .tags("index", name, "resolution", "index")
+                .register(registry);
+        FunctionCounter.builder("library.mock.index.queries", index, TrigramIndex::scanned)
+                .tags("index", name, "resolution", "scan")
+                .register(registry);
+    }
+
+    private static void bindText(MeterRegistry registry, String name, TextIndex index) {
+        Gauge.builder("library.mock.index.terms", index, TextIndex::terms)
+                .tag("index", name)
+                .register(registry);
+        Gauge.builder("library.mock.index.documents", index, TextIndex::documents)
+                .tag("index", name)
+                .register(registry);
+    }
+}
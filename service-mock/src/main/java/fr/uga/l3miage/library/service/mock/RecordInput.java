@@ -0,0 +1,69 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sequential reads of the fields of {@link CatalogueRecords} from a buffer.
+ */
+class RecordInput {
+
+    protected ByteBuffer buffer;
+
+    RecordInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Makes sure the given number of bytes can be read.
+     *
+     * @throws IOException when the input ends before
+     */
+    protected void require(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            throw new IOException("truncated record");
+        }
+    }
+
+    byte readByte() throws IOException {
+        require(Byte.BYTES);
+        return buffer.get();
+    }
+
+    short readShort() throws IOException {
+        require(Short.BYTES);
+        return buffer.getShort();
+    }
+
+    int readInt() throws IOException {
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    long readLong() throws IOException {
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    String readString() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The next bytes as a buffer of their own, the input moving past them.
+     */
+    ByteBuffer readBuffer(int length) throws IOException {
+        require(length);
+        ByteBuffer bytes = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return bytes;
+    }
+}
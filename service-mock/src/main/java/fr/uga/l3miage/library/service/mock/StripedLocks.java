@@ -0,0 +1,79 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * A fixed pool of locks guarding the entities held by {@link MockData}.
+ * <p>
+ * Every entity maps to one stripe. A writer locks all the stripes of the entities it touches at once,
+ * always in ascending order, so two writers can never deadlock. Readers never lock.
+ */
+final class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+
+    StripedLocks(int minSize) {
+        int size = Integer.highestOneBit(Math.max(2, minSize) - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    int stripe(Class<?> type, Long id) {
+        int h = type.hashCode() * 31 + Long.hashCode(id);
+        h ^= h >>> 16;
+        return h & (stripes.length - 1);
+    }
+
+    /**
+     * Locks the given stripes, duplicates are allowed.
+     *
+     * @param stripes stripe indexes as returned by {@link #stripe(Class, Long)}
+     * @return a handle releasing the locks when closed
+     */
+    Held lock(int... stripes) {
+        int[] sorted = Arrays.stream(stripes).sorted().distinct().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : sorted) {
+                this.stripes[stripe].lock();
+                locked++;
+            }
+        } finally {
+            if (locked < sorted.length) {
+                unlock(sorted, locked);
+            }
+        }
+        return new Held(sorted);
+    }
+
+    /**
+     * Locks every stripe, pausing all the writers.
+     */
+    Held lockAll() {
+        return lock(IntStream.range(0, stripes.length).toArray());
+    }
+
+    private void unlock(int[] sorted, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            this.stripes[sorted[i]].unlock();
+        }
+    }
+
+    final class Held implements AutoCloseable {
+
+        private final int[] sorted;
+
+        private Held(int[] sorted) {
+            this.sorted = sorted;
+        }
+
+        @Override
+        public void close() {
+            unlock(sorted, sorted.length);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An inverted index from the trigrams of a search key to the ids of the entities holding that key.
+ * <p>
+ * Keys and queries are folded by {@link fr.uga.l3miage.data.domain.SearchKeys} beforehand. Every substring of
+ * length 3 of a folded query must appear in the key of a match, so the intersection of the posting lists of the
+ * query trigrams is a superset of the matches. Callers still verify the survivors with
+ * {@link String#contains(CharSequence)}.
+ */
+final class TrigramIndex {
+
+    static final int N = 3;
+
+    private final ConcurrentMap<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    /* statistics: ids over all the posting lists, queries resolved by the index or left to a scan */
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder indexed = new LongAdder();
+    private final LongAdder scanned = new LongAdder();
+
+    void add(Long id, String key) {
+        for (String gram : grams(key)) {
+            postings.compute(gram, (k, ids) -> {
+                if (ids == null) {
+                    ids = ConcurrentHashMap.newKeySet();
+                }
+                if (ids.add(id)) {
+                    entries.increment();
+                }
+                return ids;
+            });
+        }
+    }
+
+    void remove(Long id, String key) {
+        for (String gram : grams(key)) {
+            postings.computeIfPresent(gram, (k, ids) -> {
+                if (ids.remove(id)) {
+                    entries.decrement();
+                }
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        entries.reset();
+    }
+
+    int trigrams() {
+        return postings.size();
+    }
+
+    long entries() {
+        return entries.sum();
+    }
+
+    long indexed() {
+        return indexed.sum();
+    }
+
+    long scanned() {
+        return scanned.sum();
+    }
+
+    /**
+     * Ids of the entities whose key may contain the query.
+     *
+     * @param query the folded query
+     * @return the candidates, or null when the query is too short to be resolved by the index
+     */
+    Set<Long> candidates(String query) {
+        Set<String> grams = grams(query);
+        if (grams.isEmpty()) {
+            scanned.increment();
+            return null;
+        }
+        indexed.increment();
+        List<Set<Long>> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Set.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>();
+        for (Long id : lists.get(0)) {
+            if (containedInAll(id, lists)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static boolean containedInAll(Long id, List<Set<Long>> lists) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> grams(String key) {
+        if (key == null) {
+            return Set.of();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= key.length(); i++) {
+            grams.add(key.substring(i, i + N));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,430 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * The append-only log of the writes to the catalogue of {@link MockData}, replayed over the last
+ * {@link CatalogueSnapshot} on restart.
+ * <p>
+ * Writers append {@link CatalogueRecords} holding the new state of what they changed, while they hold the stripes
+ * of the entities, so the records of an entity are in the order of its writes. Then, once the stripes are released,
+ * they {@link #await(long)} the durability level of the log:
+ * <ul>
+ *     <li>{@link Durability#OFF}: nothing is logged, the writes since the last snapshot are lost on a crash,</li>
+ *     <li>{@link Durability#ASYNC}: the writer does not wait, the log is written and synced in the background,</li>
+ *     <li>{@link Durability#WRITE}: the writer waits for the operating system to have the record, which survives a
+ *     crash of the process but not of the machine,</li>
+ *     <li>{@link Durability#FSYNC}: the writer waits for the record to be synced to the disk.</li>
+ * </ul>
+ * The file is written by a thread of its own, by group commit: the records appended while it writes and syncs a
+ * batch make the next batch, so concurrent writers share one {@link FileChannel#force(boolean)} instead of paying
+ * one each. The state shared with the writer thread is guarded by a {@link ReentrantLock} rather than a monitor, so
+ * that a virtual thread waiting for its record unmounts from its carrier.
+ * <p>
+ * Each record is framed by its length and its CRC32. A crash can leave the last frame truncated or torn, partly
+ * written: replay ignores the end of a segment from its first invalid frame, which was never acknowledged to a
+ * writer waiting for {@code WRITE} or {@code FSYNC}.
+ * <p>
+ * The log is a sequence of numbered segments, a new one starting with each snapshot, see {@link #rotate()}. The
+ * segments older than the last snapshot can be deleted.
+ */
+final class WriteAheadLog implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    /* length and CRC32 of each record */
+    private static final int FRAME_HEADER = 2 * Integer.BYTES;
+
+    /**
+     * The log of a catalogue that is not persisted.
+     */
+    static final WriteAheadLog DISABLED = new WriteAheadLog(null, null, 0, Durability.OFF);
+
+    enum Durability {
+        OFF, ASYNC, WRITE, FSYNC
+    }
+
+    /**
+     * What a replay went through.
+     *
+     * @param torn the number of segments whose end was ignored from an invalid frame
+     */
+    record Replayed(int segments, int records, int torn) {
+    }
+
+    @FunctionalInterface
+    private interface Record {
+        void writeTo(DataOutput out) throws IOException;
+    }
+
+    private final Path directory;
+    private final String prefix;
+    private final Durability durability;
+    private final ReentrantLock lock = new ReentrantLock();
+    /* signalled when a frame is appended or the log closed, and when a batch is written or synced or failed */
+    private final Condition appendedOrClosed = lock.newCondition();
+    private final Condition progressed = lock.newCondition();
+    /* the frames appended but not written yet */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(1 << 16);
+    /* the number of records appended, reached the operating system, and completed by their batch */
+    private long appended;
+    private long written;
+    private long completed;
+    private long batches;
+    private long segment;
+    private FileChannel channel;
+    private Thread writer;
+    private IOException failure;
+    private boolean closed;
+
+    private WriteAheadLog(Path directory, String prefix, long segment, Durability durability) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segment = segment;
+        this.durability = durability;
+    }
+
+    /**
+     * Starts logging to a new segment. Nothing is written with {@link Durability#OFF}, the log only keeps the
+     * segment number for the snapshots.
+     *
+     * @param directory where the segments are
+     * @param prefix    the file name of the segments, followed by their number
+     * @param segment   the number of the first segment, greater than those of the existing segments
+     */
+    static WriteAheadLog open(Path directory, String prefix, long segment, Durability durability) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(directory, prefix, segment, durability);
+        if (durability != Durability.OFF) {
+            log.channel = log.create(segment);
+            log.writer = Thread.ofPlatform()
+                    .name("catalogue-log")
+                    .daemon()
+                    .unstarted(log::drain);
+            log.writer.start();
+        }
+        return log;
+    }
+
+    /**
+     * The segments of a log by number.
+     */
+    static SortedMap<Long, Path> segments(Path directory, String prefix) throws IOException {
+        SortedMap<Long, Path> segments = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.length() > prefix.length() + 1 && name.startsWith(prefix + ".")
+                        && name.substring(prefix.length() + 1).chars().allMatch(Character::isDigit)) {
+                    segments.put(Long.parseLong(name.substring(prefix.length() + 1)), file);
+                }
+            });
+        }
+        return segments;
+    }
+
+    /**
+     * Applies the records of the segments from the given one to the catalogue, while nothing else uses
+     * {@link MockData}. The catalogue is left to be settled, see {@link CatalogueRecords#settle()}.
+     */
+    static Replayed replay(Path directory, String prefix, long from) throws IOException {
+        int segments = 0;
+        int records = 0;
+        int torn = 0;
+        for (Path file : segments(directory, prefix).tailMap(from).values()) {
+            segments++;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedInput in = new MappedInput(channel);
+                while (in.remaining() > 0) {
+                    long start = in.position();
+                    ByteBuffer payload = frame(in);
+                    if (payload == null) {
+                        LOG.warn("Ignoring the end of {} from byte {}: torn or truncated record", file, start);
+                        torn++;
+                        break;
+                    }
+                    CatalogueRecords.apply(new RecordInput(payload));
+                    records++;
+                }
+            }
+        }
+        return new Replayed(segments, records, torn);
+    }
+
+    /**
+     * Deletes the segments older than the given one, covered by a snapshot.
+     */
+    static void deleteBefore(Path directory, String prefix, long segment) throws IOException {
+        for (Path file : segments(directory, prefix).headMap(segment).values()) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * The payload of the next frame, or null if the frame is truncated or its checksum does not match.
+     */
+    private static ByteBuffer frame(MappedInput in) throws IOException {
+        if (in.remaining() < FRAME_HEADER) {
+            return null;
+        }
+        int length = in.readInt();
+        int checksum = in.readInt();
+        if (length <= 0 || length > in.remaining()) {
+            return null;
+        }
+        ByteBuffer payload = in.readBuffer(length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue() == checksum ? payload : null;
+    }
+
+    /*
+     * Appending, to be called while holding the stripes of the entities written.
+     */
+
+    long author(Author author) {
+        return append(out -> CatalogueRecords.writeAuthor(out, author));
+    }
+
+    long book(Book book) {
+        return append(out -> CatalogueRecords.writeBook(out, book));
+    }
+
+    long link(long authorId, long bookId) {
+        return append(out -> CatalogueRecords.writeLink(out, authorId, bookId));
+    }
+
+    long deleteAuthor(long id) {
+        return append(out -> CatalogueRecords.writeDelete(out, CatalogueRecords.DELETE_AUTHOR, id));
+    }
+
+    long deleteBook(long id) {
+        return append(out -> CatalogueRecords.writeDelete(out, CatalogueRecords.DELETE_BOOK, id));
+    }
+
+    /**
+     * Waits for a record to reach the durability level of the log, to be called once the stripes are released.
+     *
+     * @param ticket as returned when appending, waiting for the last record of a write covers the previous ones
+     * @throws UncheckedIOException if the log cannot be written, the write is applied in memory but may not survive
+     *                              a restart
+     */
+    void await(long ticket) {
+        if (durability == Durability.OFF || durability == Durability.ASYNC) {
+            return;
+        }
+        lock.lock();
+        try {
+            while ((durability == Durability.WRITE ? written : completed) < ticket) {
+                if (failure != null) {
+                    throw new UncheckedIOException("cannot write the catalogue log", failure);
+                }
+                // keeps the interruption for the caller
+                progressed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new segment once the records appended so far are written, to be called while holding every stripe:
+     * no write is then between its record and its publication, so a snapshot started after the rotation sees every
+     * write logged in the previous segments.
+     *
+     * @return the number of the new segment
+     */
+    long rotate() throws IOException {
+        lock.lock();
+        try {
+            if (durability == Durability.OFF) {
+                return segment;
+            }
+            while (completed < appended && failure == null) {
+                progressed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            channel.force(false);
+            channel.close();
+            channel = create(++segment);
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The number of records appended.
+     */
+    long records() {
+        lock.lock();
+        try {
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The number of batches written, each synced once unless the durability is {@link Durability#WRITE}.
+     */
+    long batches() {
+        lock.lock();
+        try {
+            return batches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes and syncs the records appended so far then closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            closed = true;
+            appendedOrClosed.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long append(Record record) {
+        if (durability == Durability.OFF) {
+            return 0;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        bytes.writeBytes(new byte[FRAME_HEADER]);
+        try {
+            record.writeTo(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] frame = bytes.toByteArray();
+        int length = frame.length - FRAME_HEADER;
+        CRC32 crc = new CRC32();
+        crc.update(frame, FRAME_HEADER, length);
+        ByteBuffer.wrap(frame).putInt(length).putInt((int) crc.getValue());
+
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new UncheckedIOException("cannot write the catalogue log", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("the catalogue log is closed");
+            }
+            pending.writeBytes(frame);
+            appendedOrClosed.signal();
+            return ++appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The loop of the writer thread, writing the pending frames by batches until closed.
+     */
+    private void drain() {
+        while (true) {
+            ByteBuffer batch;
+            long last;
+            FileChannel target;
+            lock.lock();
+            try {
+                while (pending.size() == 0 && !closed) {
+                    // only closing stops the writer
+                    appendedOrClosed.awaitUninterruptibly();
+                }
+                if (pending.size() == 0) {
+                    return;
+                }
+                batch = ByteBuffer.wrap(pending.toByteArray());
+                pending.reset();
+                last = appended;
+                target = channel;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                while (batch.hasRemaining()) {
+                    target.write(batch);
+                }
+                progress(() -> written = last);
+                if (durability != Durability.WRITE) {
+                    target.force(false);
+                }
+                progress(() -> {
+                    completed = last;
+                    batches++;
+                });
+            } catch (IOException e) {
+                LOG.error("Cannot write the catalogue log to {}", directory, e);
+                progress(() -> failure = e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Updates the progress of the writer and wakes up the threads waiting for it.
+     */
+    private void progress(Runnable update) {
+        lock.lock();
+        try {
+            update.run();
+            progressed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private FileChannel create(long number) throws IOException {
+        Path file = directory.resolve("%s.%010d".formatted(prefix, number));
+        return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+}
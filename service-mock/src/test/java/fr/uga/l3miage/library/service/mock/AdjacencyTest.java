@@ -0,0 +1,53 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdjacencyTest {
+
+    @Test
+    void linksStaySortedAndDistinct() {
+        Random random = new Random(42);
+        Adjacency adjacency = new Adjacency(-1);
+        Map<Long, TreeSet<Long>> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long from = random.nextInt(50) - 1;
+            // mostly appends, as ids come from a sequence, with some inserts and removals
+            long to = random.nextInt(10) == 0 ? random.nextInt(i + 1) : i;
+            if (random.nextInt(4) == 0) {
+                adjacency.remove(from, to);
+                expected.computeIfAbsent(from, k -> new TreeSet<>()).remove(to);
+            } else {
+                adjacency.add(from, to);
+                expected.computeIfAbsent(from, k -> new TreeSet<>()).add(to);
+            }
+        }
+        expected.forEach((from, ids) -> assertThat(adjacency.of(from).stream().boxed().toList())
+                .containsExactlyElementsOf(ids));
+    }
+
+    @Test
+    void snapshotsNeverChange() {
+        Adjacency adjacency = new Adjacency(0);
+        adjacency.add(1, 10);
+        adjacency.add(1, 20);
+        Adjacency.Links before = adjacency.of(1);
+
+        adjacency.add(1, 30);
+        adjacency.add(1, 15);
+        adjacency.remove(1, 10);
+
+        assertThat(before.stream()).containsExactly(10L, 20L);
+        assertThat(adjacency.of(1).stream()).containsExactly(15L, 20L, 30L);
+        assertThat(adjacency.of(1).after(15)).isEqualTo(1);
+        assertThat(adjacency.of(1).after(16)).isEqualTo(1);
+        assertThat(adjacency.removeAll(1).stream()).containsExactly(15L, 20L, 30L);
+        assertThat(adjacency.of(1).size()).isZero();
+    }
+}
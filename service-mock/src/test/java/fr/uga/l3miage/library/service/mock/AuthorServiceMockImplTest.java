@@ -12,7 +12,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 class AuthorServiceMockImplTest {
 
     AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
-    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl(authorServiceMock);
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl();
 
     @Test
     void delete() throws EntityNotFoundException {
@@ -0,0 +1,319 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Batch;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.BookFilter;
+import fr.uga.l3miage.library.service.search.Facets;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookServiceMockImplTest {
+
+    AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl();
+
+    @Test
+    void pagesCoverEveryBookOnce() throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Paged");
+        author = authorServiceMock.save(author);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Book book = new Book();
+            book.setTitle("Paginated book " + i);
+            ids.add(bookServiceMock.save(author.getId(), book).getId());
+        }
+
+        List<Long> byAuthor = new ArrayList<>();
+        Long after = null;
+        int pages = 0;
+        do {
+            Page<Book, Long> page = bookServiceMock.getByAuthor(author.getId(), after, 10);
+            page.content().forEach(book -> byAuthor.add(book.getId()));
+            after = page.next();
+            pages++;
+        } while (after != null);
+        assertThat(byAuthor).isEqualTo(ids);
+        assertThat(pages).isEqualTo(3);
+
+        List<Long> byTitle = new ArrayList<>();
+        after = null;
+        do {
+            Page<Book, Long> page = bookServiceMock.findByTitle("PAGINATED", after, 7);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(7);
+            page.content().forEach(book -> byTitle.add(book.getId()));
+            after = page.next();
+        } while (after != null);
+        assertThat(byTitle).isEqualTo(ids);
+    }
+
+    @Test
+    void getAllReportsMissingIds() throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Batched");
+        author = authorServiceMock.save(author);
+        Book first = new Book();
+        first.setTitle("First of the batch");
+        first = bookServiceMock.save(author.getId(), first);
+        Book second = new Book();
+        second.setTitle("Second of the batch");
+        second = bookServiceMock.save(author.getId(), second);
+
+        Batch<Book, Long> batch = bookServiceMock.getAll(List.of(second.getId(), -42L, first.getId(), second.getId()));
+
+        assertThat(batch.content()).containsExactly(second, first);
+        assertThat(batch.missing()).containsExactly(-42L);
+    }
+
+    @Test
+    void lastPageHasNoCursor() throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Single page");
+        author = authorServiceMock.save(author);
+        Book book = new Book();
+        book.setTitle("Alone");
+        bookServiceMock.save(author.getId(), book);
+
+        Page<Book, Long> page = bookServiceMock.findByAuthor(author.getId(), "alone", null, 1);
+        assertThat(page.content()).extracting(Book::getTitle).containsExactly("Alone");
+        assertThat(page.next()).isNull();
+    }
+
+    @Test
+    void searchesIgnoreAccents() throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Hélène Œdipe-Müller");
+        author = authorServiceMock.save(author);
+        Book book = new Book();
+        book.setTitle("Programmation Avancée des Cœurs");
+        bookServiceMock.save(author.getId(), book);
+
+        assertThat(bookServiceMock.findByTitle("AVANCEE DES COEURS")).extracting(Book::getId).contains(book.getId());
+        assertThat(bookServiceMock.findByTitle("avancée")).extracting(Book::getId).contains(book.getId());
+        assertThat(authorServiceMock.searchByName("helene oedipe")).extracting(Author::getId)
+                .containsExactly(author.getId());
+
+        Book renamed = new Book();
+        renamed.setId(book.getId());
+        renamed.setTitle("Débutants");
+        bookServiceMock.update(renamed);
+        assertThat(bookServiceMock.findByTitle("avancee")).extracting(Book::getId).doesNotContain(book.getId());
+        assertThat(bookServiceMock.findByAuthor(author.getId(), "DEBUTANT")).extracting(Book::getId)
+                .containsExactly(book.getId());
+    }
+
+    @Test
+    void searchRanksTheBestMatchesFirst() throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Ranked");
+        author = authorServiceMock.save(author);
+        Book guide = bookServiceMock.save(author.getId(), book("Zymurgy for brewers", "Dunod", Book.Language.ENGLISH));
+        Book shortest = bookServiceMock.save(author.getId(), book("Zymurgy", "Dunod", Book.Language.ENGLISH));
+        Book published = bookServiceMock.save(author.getId(), book("Brewing", "Zymurgy Press", Book.Language.ENGLISH));
+        Book french = bookServiceMock.save(author.getId(), book("Zythologie avancée", "Dunod", Book.Language.FRENCH));
+
+        // a shorter title weighs more, a title more than a publisher
+        assertThat(bookServiceMock.search("ZYMURGY", SearchMode.TERMS, 10)).extracting(Book::getId)
+                .containsExactly(shortest.getId(), guide.getId(), published.getId());
+        assertThat(bookServiceMock.search("zymurgies brewing", SearchMode.TERMS, 1)).extracting(Book::getId)
+                .containsExactly(published.getId());
+        assertThat(bookServiceMock.search("les zythologies avancees", SearchMode.TERMS, 10)).extracting(Book::getId)
+                .containsExactly(french.getId());
+
+        Book renamed = book("Mead", "Dunod", Book.Language.ENGLISH);
+        renamed.setId(shortest.getId());
+        bookServiceMock.update(renamed);
+        bookServiceMock.delete(guide.getId());
+        assertThat(bookServiceMock.search("zymurgy", SearchMode.TERMS, 10)).extracting(Book::getId)
+                .containsExactly(published.getId());
+    }
+
+    @Test
+    void searchMatchesPrefixesAndTypos() throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Honoré de Quimbalzac");
+        author = authorServiceMock.save(author);
+        Book book = bookServiceMock.save(author.getId(), book("Xenobibliotheca", "Dunod", Book.Language.ENGLISH));
+
+        assertThat(bookServiceMock.search("xenobib", SearchMode.TERMS, 10)).isEmpty();
+        assertThat(bookServiceMock.search("xenobib", SearchMode.PREFIX, 10)).extracting(Book::getId)
+                .containsExactly(book.getId());
+        assertThat(bookServiceMock.search("xenobilbiotheca", SearchMode.TERMS, 10)).isEmpty();
+        assertThat(bookServiceMock.search("xenobilbiotheca", SearchMode.FUZZY, 10)).extracting(Book::getId)
+                .containsExactly(book.getId());
+        assertThat(authorServiceMock.search("honore quimbalzak", SearchMode.FUZZY, 10)).extracting(Author::getId)
+                .contains(author.getId());
+    }
+
+    @Test
+    void suggestionsFollowTheWrites() throws EntityNotFoundException, DeleteAuthorException {
+        Author author = new Author();
+        author.setFullName("Ygritte Suggestová");
+        author = authorServiceMock.save(author);
+        Book book = bookServiceMock.save(author.getId(), book("Quokka Patterns", "Dunod", Book.Language.ENGLISH));
+
+        assertThat(bookServiceMock.suggest("QUOK", 10))
+                .containsExactly(new Suggestion(book.getId(), "Quokka Patterns"));
+        assertThat(bookServiceMock.suggest("quokka pat", 10)).extracting(Suggestion::id).containsExactly(book.getId());
+        assertThat(authorServiceMock.suggest("suggestova", 10)).extracting(Suggestion::id)
+                .containsExactly(author.getId());
+
+        Book renamed = book("Quolls", "Dunod", Book.Language.ENGLISH);
+        renamed.setId(book.getId());
+        bookServiceMock.update(renamed);
+        assertThat(bookServiceMock.suggest("quok", 10)).isEmpty();
+        assertThat(bookServiceMock.suggest("quol", 10)).containsExactly(new Suggestion(book.getId(), "Quolls"));
+
+        authorServiceMock.delete(author.getId());
+        assertThat(bookServiceMock.suggest("quol", 10)).isEmpty();
+        assertThat(authorServiceMock.suggest("ygritte", 10)).isEmpty();
+    }
+
+    @Test
+    void filtersCombineFacetsAndTitle() throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Facet Filterson");
+        author = authorServiceMock.save(author);
+        Book first = book("Bitmaps en pratique", "Éditions Facettes", Book.Language.FRENCH);
+        first.setYear((short) 2018);
+        first = bookServiceMock.save(author.getId(), first);
+        Book second = book("Bitmaps in Practice", "Éditions Facettes", Book.Language.ENGLISH);
+        second.setYear((short) 2021);
+        second = bookServiceMock.save(author.getId(), second);
+        Book third = book("Index inversés", "Éditions Facettes", Book.Language.FRENCH);
+        third.setYear((short) 2022);
+        third = bookServiceMock.save(author.getId(), third);
+
+        BookFilter byPublisher = new BookFilter(null, null, Set.of("Éditions Facettes"), null, null);
+        assertThat(bookServiceMock.findByFilter(byPublisher, null, 10).content()).extracting(Book::getId)
+                .containsExactly(first.getId(), second.getId(), third.getId());
+        Page<Book, Long> page = bookServiceMock.findByFilter(byPublisher, null, 2);
+        assertThat(bookServiceMock.findByFilter(byPublisher, page.next(), 2).content()).extracting(Book::getId)
+                .containsExactly(third.getId());
+
+        BookFilter french = new BookFilter("BITMAP", Set.of(Book.Language.FRENCH), Set.of("Éditions Facettes"),
+                (short) 2015, (short) 2020);
+        assertThat(bookServiceMock.findByFilter(french, null, 10).content()).extracting(Book::getId)
+                .containsExactly(first.getId());
+
+        Facets facets = bookServiceMock.countFacets(french);
+        assertThat(facets.total()).isEqualTo(1);
+        // each facet is counted without its own filter
+        assertThat(facets.languages()).containsEntry(Book.Language.FRENCH, 1).containsEntry(Book.Language.ENGLISH, 0);
+        assertThat(facets.publishers()).containsEntry("Éditions Facettes", 1);
+        assertThat(facets.years()).containsEntry((short) 2018, 1).doesNotContainKey((short) 2021);
+
+        bookServiceMock.delete(first.getId());
+        assertThat(bookServiceMock.countFacets(byPublisher).total()).isEqualTo(2);
+    }
+
+    @Test
+    void isbnsAreHeldByOneBookAtATime() throws EntityNotFoundException, DeleteAuthorException {
+        Author author = new Author();
+        author.setFullName("Isabel Isbnova");
+        author = authorServiceMock.save(author);
+        Book first = book("Unique Keys", "Dunod", Book.Language.ENGLISH);
+        first.setIsbn(9_781_000_000_001L);
+        first = bookServiceMock.save(author.getId(), first);
+        assertThat(bookServiceMock.getByIsbn(9_781_000_000_001L).getId()).isEqualTo(first.getId());
+
+        Book copy = book("Unique Keys, again", "Dunod", Book.Language.ENGLISH);
+        copy.setIsbn(9_781_000_000_001L);
+        Long authorId = author.getId();
+        assertThatThrownBy(() -> bookServiceMock.save(authorId, copy)).isInstanceOf(DuplicateIsbnException.class);
+        // a list sharing an ISBN is rejected as a whole, the ISBNs it claimed are freed
+        Book second = book("Unique Keys II", "Dunod", Book.Language.ENGLISH);
+        second.setIsbn(9_781_000_000_002L);
+        second.addAuthor(author);
+        Book twin = book("Unique Keys II bis", "Dunod", Book.Language.ENGLISH);
+        twin.setIsbn(9_781_000_000_002L);
+        twin.addAuthor(author);
+        assertThatThrownBy(() -> bookServiceMock.saveAll(List.of(second, twin)))
+                .isInstanceOf(DuplicateIsbnException.class);
+        assertThat(bookServiceMock.findExistingIsbns(new long[]{9_781_000_000_002L, 9_781_000_000_001L, 0}))
+                .containsExactly(9_781_000_000_001L);
+        // so is a list naming a missing author, without claiming any ISBN nor writing any book
+        Author missing = new Author();
+        missing.setId(Long.MAX_VALUE);
+        Book orphan = book("Unique Keys III", "Dunod", Book.Language.ENGLISH);
+        orphan.setIsbn(9_781_000_000_004L);
+        orphan.addAuthor(missing);
+        int stored = bookServiceMock.list().size();
+        assertThatThrownBy(() -> bookServiceMock.saveAll(List.of(second, orphan)))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThat(bookServiceMock.findExistingIsbns(new long[]{9_781_000_000_002L, 9_781_000_000_004L})).isEmpty();
+        assertThat(bookServiceMock.list()).hasSize(stored);
+
+        Book moved = book("Unique Keys", "Dunod", Book.Language.ENGLISH);
+        moved.setId(first.getId());
+        moved.setIsbn(9_781_000_000_003L);
+        bookServiceMock.update(moved);
+        assertThat(bookServiceMock.findExistingIsbns(new long[]{9_781_000_000_001L, 9_781_000_000_003L}))
+                .containsExactly(9_781_000_000_003L);
+        assertThatThrownBy(() -> bookServiceMock.getByIsbn(9_781_000_000_001L))
+                .isInstanceOf(EntityNotFoundException.class);
+
+        authorServiceMock.delete(author.getId());
+        assertThat(bookServiceMock.findExistingIsbns(new long[]{9_781_000_000_003L})).isEmpty();
+    }
+
+    @Test
+    void authorBooksAreSnapshotsFilteredByTheTitleIndex() throws EntityNotFoundException {
+        Author prolific = new Author();
+        prolific.setFullName("Prolific");
+        prolific = authorServiceMock.save(prolific);
+        Author other = new Author();
+        other.setFullName("Other");
+        other = authorServiceMock.save(other);
+        List<Long> common = new ArrayList<>();
+        List<Long> rare = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Book book = bookServiceMock.save(prolific.getId(), book("Quokka diaries " + i, "Dunod", null));
+            (i % 10 == 0 ? rare : common).add(book.getId());
+            if (i % 10 == 0) {
+                book.setTitle("Quokka wombat " + i);
+                bookServiceMock.update(book);
+            }
+            // more books of another author hold the words, so both sides of the intersection drive it in turn
+            bookServiceMock.save(other.getId(), book("Quokka diaries elsewhere " + i, "Dunod", null));
+            bookServiceMock.save(other.getId(), book("Quokka diaries elsewhere again " + i, "Dunod", null));
+        }
+
+        assertThat(bookServiceMock.findByAuthor(prolific.getId(), "QUOKKA DIARIES")).extracting(Book::getId)
+                .isEqualTo(common);
+        assertThat(bookServiceMock.findByAuthor(prolific.getId(), "wombat")).extracting(Book::getId)
+                .isEqualTo(rare);
+        Page<Book, Long> page = bookServiceMock.findByAuthor(prolific.getId(), "wombat", rare.get(0), 1);
+        assertThat(page.content()).extracting(Book::getId).containsExactly(rare.get(1));
+        assertThat(bookServiceMock.findByAuthor(prolific.getId(), "diaries", common.get(20), 10).content())
+                .extracting(Book::getId).isEqualTo(common.subList(21, common.size()));
+
+        Collection<Book> snapshot = bookServiceMock.getByAuthor(prolific.getId());
+        bookServiceMock.save(prolific.getId(), book("Quokka diaries, the sequel", "Dunod", null));
+        assertThat(snapshot).hasSize(30);
+        assertThat(bookServiceMock.getByAuthor(prolific.getId())).hasSize(31);
+        assertThatThrownBy(() -> snapshot.add(new Book())).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static Book book(String title, String publisher, Book.Language language) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setPublisher(publisher);
+        book.setLanguage(language);
+        return book;
+    }
+}
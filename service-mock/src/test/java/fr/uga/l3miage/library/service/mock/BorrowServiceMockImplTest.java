@@ -0,0 +1,215 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.BookUnavailableException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BorrowServiceMockImplTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl();
+    BorrowerServiceMockImpl borrowerServiceMock = new BorrowerServiceMockImpl();
+    BorrowServiceMockImpl borrowServiceMock = new BorrowServiceMockImpl();
+
+    Author author;
+
+    @BeforeEach
+    void setUp() {
+        author = new Author();
+        author.setFullName("Lent");
+        author = authorServiceMock.save(author);
+    }
+
+    @Test
+    void checkoutAndReturn() throws Exception {
+        Book first = newBook();
+        Book second = newBook();
+        Borrower borrower = newBorrower();
+
+        Borrow borrow = borrowServiceMock.checkout(borrower.getId(), List.of(first.getId(), second.getId()), in(-1));
+
+        assertThat(borrowServiceMock.isAvailable(first.getId())).isFalse();
+        assertThat(borrowServiceMock.getActiveByBorrower(borrower.getId())).containsExactly(borrow);
+        assertThat(borrowServiceMock.getOverdue(new Date())).contains(borrow);
+        assertThatThrownBy(() -> borrowServiceMock.checkout(newBorrower().getId(), List.of(second.getId()), in(7)))
+                .isInstanceOf(BookUnavailableException.class);
+
+        borrowServiceMock.returnBorrow(borrow.getId());
+
+        assertThat(borrow.getReturned()).isNotNull();
+        assertThat(borrowServiceMock.isAvailable(first.getId())).isTrue();
+        assertThat(borrowServiceMock.getActiveByBorrower(borrower.getId())).isEmpty();
+        assertThat(borrowServiceMock.getOverdue(new Date())).doesNotContain(borrow);
+    }
+
+    @Test
+    void overdueUntilRenewed() throws Exception {
+        Borrow borrow = borrowServiceMock.checkout(newBorrower().getId(), List.of(newBook().getId()), in(-2));
+        assertThat(borrowServiceMock.getOverdue(in(-3))).doesNotContain(borrow);
+        assertThat(borrowServiceMock.getOverdue(in(-1))).contains(borrow);
+
+        Borrow renewal = new Borrow();
+        renewal.setId(borrow.getId());
+        renewal.setEnd(in(7));
+        borrowServiceMock.update(renewal);
+
+        assertThat(borrowServiceMock.getOverdue(new Date())).doesNotContain(borrow);
+        assertThat(borrowServiceMock.getOverdue(in(8))).contains(borrow);
+    }
+
+    @Test
+    void returnsMaintainLateRatio() throws Exception {
+        Borrower borrower = newBorrower();
+        Borrow late = borrowServiceMock.checkout(borrower.getId(), List.of(newBook().getId()), in(-1));
+        borrowServiceMock.returnBorrow(late.getId());
+
+        assertThat(late.isLate()).isTrue();
+        assertThat(borrower.getLateRatio()).isEqualTo(1f);
+        assertThat(List.copyOf(borrowerServiceMock.getMostLate(1000))).contains(borrower)
+                .isSortedAccordingTo(Comparator.comparing(Borrower::getLateRatio).reversed());
+
+        Borrow onTime = borrowServiceMock.checkout(borrower.getId(), List.of(newBook().getId()), in(7));
+        borrowServiceMock.returnBorrow(onTime.getId());
+
+        assertThat(onTime.isLate()).isFalse();
+        assertThat(borrower.getLateRatio()).isEqualTo(0.5f);
+        assertThat(List.copyOf(borrowerServiceMock.getMostLate(1000))).contains(borrower)
+                .isSortedAccordingTo(Comparator.comparing(Borrower::getLateRatio).reversed());
+    }
+
+    @Test
+    void sweepFlagsOverdueOnce() throws Exception {
+        Borrow borrow = borrowServiceMock.checkout(newBorrower().getId(), List.of(newBook().getId()), in(-1));
+        Borrow notDue = borrowServiceMock.checkout(newBorrower().getId(), List.of(newBook().getId()), in(7));
+
+        assertThat(borrowServiceMock.flagOverdue(new Date())).isPositive();
+        assertThat(borrow.isLate()).isTrue();
+        assertThat(notDue.isLate()).isFalse();
+        assertThat(borrowServiceMock.flagOverdue(new Date())).isZero();
+
+        Borrow renewal = new Borrow();
+        renewal.setId(borrow.getId());
+        renewal.setEnd(in(7));
+        borrowServiceMock.update(renewal);
+        assertThat(borrow.isLate()).isFalse();
+
+        assertThat(borrowServiceMock.flagOverdue(in(8))).isPositive();
+        assertThat(borrow.isLate()).isTrue();
+        assertThat(notDue.isLate()).isTrue();
+    }
+
+    @Test
+    void unknownBookLendsNothing() throws Exception {
+        Book book = newBook();
+        assertThatThrownBy(() -> borrowServiceMock.checkout(newBorrower().getId(), List.of(book.getId(), -42L), in(7)))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThat(borrowServiceMock.isAvailable(book.getId())).isTrue();
+    }
+
+    @Test
+    void oneCheckoutWinsEachCopy() throws Exception {
+        // every checkout wants the hot book and one of its own, only one of them can get both
+        Book hot = newBook();
+        int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        List<Long> borrowers = new ArrayList<>();
+        List<Book> own = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            borrowers.add(newBorrower().getId());
+            own.add(newBook());
+        }
+
+        AtomicInteger unavailable = new AtomicInteger();
+        List<Callable<Borrow>> checkouts = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            checkouts.add(() -> {
+                try {
+                    return borrowServiceMock.checkout(borrowers.get(index),
+                            List.of(own.get(index).getId(), hot.getId()), in(7));
+                } catch (BookUnavailableException e) {
+                    unavailable.incrementAndGet();
+                    return null;
+                }
+            });
+        }
+
+        List<Borrow> lent = run(checkouts);
+
+        assertThat(lent).hasSize(1);
+        assertThat(unavailable).hasValue(threads - 1);
+        long ownLent = own.stream().filter(book -> !available(book)).count();
+        assertThat(ownLent).isEqualTo(1);
+        assertThat(lent.get(0).getBooks()).contains(hot);
+    }
+
+    private boolean available(Book book) {
+        try {
+            return borrowServiceMock.isAvailable(book.getId());
+        } catch (EntityNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Borrow> run(List<Callable<Borrow>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Borrow>> futures = new ArrayList<>();
+            for (Callable<Borrow> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<Borrow> results = new ArrayList<>();
+            for (Future<Borrow> future : futures) {
+                Borrow borrow = future.get(1, TimeUnit.MINUTES);
+                if (borrow != null) {
+                    results.add(borrow);
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Book newBook() throws EntityNotFoundException {
+        Book book = new Book();
+        book.setTitle("Lent book");
+        return bookServiceMock.save(author.getId(), book);
+    }
+
+    private Borrower newBorrower() {
+        Borrower borrower = new Borrower();
+        borrower.setFirstName("Victor").setLastName("Reader");
+        return borrowerServiceMock.save(borrower);
+    }
+
+    private static Date in(int days) {
+        return new Date(System.currentTimeMillis() + days * DAY);
+    }
+}
@@ -0,0 +1,86 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogueSnapshotTest {
+
+    AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void catalogueSurvivesARestart() throws Exception {
+        Author author = newAuthor("Émile Snapshot");
+        Author coAuthor = newAuthor("Co Snapshot");
+        Book book = newBook(author, "Le Mappage Mémoire");
+        book.setPublisher("Dunod");
+        book.setYear((short) 2023);
+        book.setLanguage(Book.Language.FRENCH);
+        bookServiceMock.addAuthor(book.getId(), coAuthor.getId());
+        int authors = MockData.authors.size();
+        int books = MockData.books.size();
+
+        Path file = directory.resolve("catalogue.snapshot");
+        CatalogueSnapshot.write(file, 7);
+        assertThat(CatalogueSnapshot.read(file)).isEqualTo(7);
+        CatalogueRecords.Counts loaded = CatalogueRecords.settle();
+
+        assertThat(loaded.authors()).isEqualTo(authors);
+        assertThat(loaded.books()).isEqualTo(books);
+        Book restored = bookServiceMock.get(book.getId());
+        assertThat(restored).isNotSameAs(book);
+        assertThat(restored.getTitle()).isEqualTo("Le Mappage Mémoire");
+        assertThat(restored.getPublisher()).isEqualTo("Dunod");
+        assertThat(restored.getYear()).isEqualTo((short) 2023);
+        assertThat(restored.getLanguage()).isEqualTo(Book.Language.FRENCH);
+        assertThat(restored.getVersion()).isEqualTo(book.getVersion());
+        assertThat(restored.getAuthors()).extracting(Author::getId)
+                .containsExactly(author.getId(), coAuthor.getId());
+        assertThat(authorServiceMock.get(coAuthor.getId()).getBooks()).containsExactly(restored);
+        assertThat(bookServiceMock.findByTitle("mappage memoire")).containsExactly(restored);
+        assertThat(authorServiceMock.searchByName("emile snap")).extracting(Author::getId)
+                .containsExactly(author.getId());
+
+        // the sequences go on after the loaded ids
+        assertThat(newBook(author, "After the restart").getId()).isGreaterThan(book.getId());
+    }
+
+    @Test
+    void truncatedSnapshotIsRefused() throws Exception {
+        Path file = directory.resolve("catalogue.snapshot");
+        CatalogueSnapshot.write(file, 0);
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = directory.resolve("truncated.snapshot");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThatThrownBy(() -> CatalogueSnapshot.read(truncated)).isInstanceOf(IOException.class);
+        CatalogueSnapshot.read(file);
+        CatalogueRecords.settle();
+    }
+
+    private Author newAuthor(String fullName) {
+        Author author = new Author();
+        author.setFullName(fullName);
+        return authorServiceMock.save(author);
+    }
+
+    private Book newBook(Author author, String title) throws EntityNotFoundException {
+        Book book = new Book();
+        book.setTitle(title);
+        return bookServiceMock.save(author.getId(), book);
+    }
+}
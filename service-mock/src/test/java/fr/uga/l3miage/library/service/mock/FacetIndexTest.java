@@ -0,0 +1,129 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.search.BookFilter;
+import fr.uga.l3miage.library.service.search.FacetIndex;
+import fr.uga.l3miage.library.service.search.Facets;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTest {
+
+    private static final long ORIGIN = 100;
+    private static final String[] PUBLISHERS = {"Dunod", "Eyrolles", "O'Reilly", "Manning", "Addison-Wesley"};
+
+    private record Values(Book.Language language, String publisher, short year) {
+    }
+
+    @Test
+    void filtersAndCountsMatchAScan() {
+        Random random = new Random(42);
+        FacetIndex index = new FacetIndex(ORIGIN);
+        Map<Long, Values> books = new TreeMap<>();
+        // spans several chunks of the bitmaps
+        for (long id = ORIGIN; id < ORIGIN + 150_000; id += 1 + random.nextInt(20)) {
+            Values values = randomValues(random);
+            books.put(id, values);
+            index.put(id, values.language(), values.publisher(), values.year());
+        }
+        // changes and removes some books to exercise the clearing of their bits
+        for (Long id : List.copyOf(books.keySet())) {
+            int draw = random.nextInt(10);
+            if (draw == 0) {
+                books.remove(id);
+                index.remove(id);
+            } else if (draw == 1) {
+                Values values = randomValues(random);
+                books.put(id, values);
+                index.put(id, values.language(), values.publisher(), values.year());
+            }
+        }
+        Set<Long> titled = books.keySet().stream().filter(id -> id % 3 == 0).collect(Collectors.toSet());
+
+        List<BookFilter> filters = List.of(
+                new BookFilter(null, null, null, null, null),
+                new BookFilter(null, Set.of(Book.Language.FRENCH), null, null, null),
+                new BookFilter(null, null, Set.of("Dunod", "Manning", "absent"), (short) 2010, null),
+                new BookFilter(null, Set.of(Book.Language.ENGLISH), Set.of("O'Reilly"), (short) 2005, (short) 2015),
+                new BookFilter(null, null, null, (short) 2020, (short) 2010),
+                new BookFilter("any", Set.of(Book.Language.FRENCH, Book.Language.ENGLISH), null, null, (short) 2012));
+        for (BookFilter filter : filters) {
+            Set<Long> ids = filter.title() == null ? null : titled;
+            List<Long> expected = books.keySet().stream()
+                    .filter(id -> ids == null || ids.contains(id))
+                    .filter(id -> matches(filter, books.get(id)))
+                    .toList();
+            assertThat(index.find(filter, ids, null, Integer.MAX_VALUE)).isEqualTo(expected);
+            if (expected.size() > 10) {
+                Long after = expected.get(expected.size() / 2);
+                assertThat(index.find(filter, ids, after, 10))
+                        .isEqualTo(expected.subList(expected.size() / 2 + 1, expected.size() / 2 + 11));
+            }
+
+            Facets facets = index.count(filter, ids);
+            assertThat(facets.total()).isEqualTo(expected.size());
+            for (Book.Language language : Book.Language.values()) {
+                BookFilter other = new BookFilter(filter.title(), Set.of(), filter.publishers(), filter.yearFrom(),
+                        filter.yearTo());
+                assertThat(facets.languages().get(language))
+                        .isEqualTo(count(books, ids, other, v -> v.language() == language));
+            }
+            BookFilter anyPublisher = new BookFilter(filter.title(), filter.languages(), Set.of(), filter.yearFrom(),
+                    filter.yearTo());
+            facets.publishers().forEach((publisher, count) -> assertThat(count)
+                    .isEqualTo(count(books, ids, anyPublisher, v -> publisher.equals(v.publisher()))));
+            BookFilter anyYear = new BookFilter(filter.title(), filter.languages(), filter.publishers(), null, null);
+            Map<Short, Integer> years = new HashMap<>();
+            books.forEach((id, v) -> {
+                if ((ids == null || ids.contains(id)) && matches(anyYear, v)) {
+                    years.merge(v.year(), 1, Integer::sum);
+                }
+            });
+            assertThat(facets.years()).isEqualTo(years);
+        }
+    }
+
+    @Test
+    void clearedIndexFindsNothing() {
+        FacetIndex index = new FacetIndex(ORIGIN);
+        index.put(ORIGIN, Book.Language.FRENCH, "Dunod", (short) 2020);
+        index.put(ORIGIN + 70_000, Book.Language.ENGLISH, "Manning", (short) 2021);
+        assertThat(index.size()).isEqualTo(2);
+        index.clear();
+        BookFilter any = new BookFilter(null, null, null, null, null);
+        assertThat(index.find(any, null, null, 10)).isEmpty();
+        assertThat(index.count(any, null).total()).isEqualTo(0);
+        assertThat(index.count(any, null).years()).isEmpty();
+    }
+
+    private static int count(Map<Long, Values> books, Set<Long> ids, BookFilter filter, Predicate<Values> value) {
+        return (int) books.entrySet().stream()
+                .filter(e -> ids == null || ids.contains(e.getKey()))
+                .filter(e -> matches(filter, e.getValue()) && value.test(e.getValue()))
+                .count();
+    }
+
+    private static boolean matches(BookFilter filter, Values values) {
+        return (filter.languages().isEmpty()
+                || values.language() != null && filter.languages().contains(values.language()))
+                && (filter.publishers().isEmpty() || filter.publishers().contains(values.publisher()))
+                && (filter.yearFrom() == null || values.year() >= filter.yearFrom())
+                && (filter.yearTo() == null || values.year() <= filter.yearTo());
+    }
+
+    private static Values randomValues(Random random) {
+        Book.Language[] languages = Book.Language.values();
+        return new Values(random.nextInt(10) == 0 ? null : languages[random.nextInt(languages.length)],
+                PUBLISHERS[random.nextInt(PUBLISHERS.length)], (short) (2000 + random.nextInt(25)));
+    }
+}
@@ -0,0 +1,65 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.library.service.search.IsbnIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IsbnIndexTest {
+
+    @Test
+    void lookupsMatchAMap() {
+        Random random = new Random(42);
+        IsbnIndex index = new IsbnIndex();
+        Map<Long, Long> holders = new HashMap<>();
+        // consecutive ISBNs, as a publisher hands them out, and a few random ones
+        for (long id = 0; id < 50_000; id++) {
+            long isbn = id % 10 == 0 ? 1_000_000_000L + random.nextInt(1_000_000) : 9_782_000_000_000L + id;
+            long holder = index.claim(isbn, id);
+            assertThat(holder).isEqualTo(holders.getOrDefault(isbn, id));
+            holders.putIfAbsent(isbn, id);
+        }
+        // frees some, and tries to free others with the wrong id
+        for (Map.Entry<Long, Long> entry : Map.copyOf(holders).entrySet()) {
+            int draw = random.nextInt(4);
+            if (draw == 0) {
+                index.release(entry.getKey(), entry.getValue());
+                holders.remove(entry.getKey());
+            } else if (draw == 1) {
+                index.release(entry.getKey(), entry.getValue() + 1);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(holders.size());
+        holders.forEach((isbn, id) -> assertThat(index.get(isbn)).isEqualTo(id));
+        long[] asked = new long[100_000];
+        int held = 0;
+        for (int i = 0; i < asked.length; i++) {
+            asked[i] = 9_782_000_000_000L + random.nextInt(60_000);
+            if (holders.containsKey(asked[i])) {
+                held++;
+            }
+        }
+        long[] existing = index.existing(asked);
+        assertThat(existing.length).isEqualTo(held);
+        for (long isbn : existing) {
+            assertThat(holders.containsKey(isbn)).isTrue();
+        }
+    }
+
+    @Test
+    void zeroIsNoIsbn() {
+        IsbnIndex index = new IsbnIndex();
+        assertThat(index.claim(0, 1)).isEqualTo(1L);
+        assertThat(index.claim(0, 2)).isEqualTo(2L);
+        assertThat(index.get(0)).isEqualTo(IsbnIndex.ABSENT);
+        assertThat(index.size()).isEqualTo(0);
+        index.put(1_234_567_890L, 3);
+        index.clear();
+        assertThat(index.get(1_234_567_890L)).isEqualTo(IsbnIndex.ABSENT);
+    }
+}
@@ -0,0 +1,44 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongStoreTest {
+
+    private static final int MANY = 3 << LongStore.CHUNK_BITS;
+
+    @Test
+    void valuesInIdOrderAcrossChunks() {
+        LongStore<String> store = new LongStore<>(-1);
+        for (long id = MANY - 1; id >= -1; id--) {
+            store.put(id, "v" + id);
+        }
+        for (long id = 0; id < MANY; id += 2) {
+            store.remove(id);
+        }
+
+        assertThat(store.size()).isEqualTo(MANY / 2 + 1);
+        assertThat(store.get(-1)).isEqualTo("v-1");
+        assertThat(store.get(1)).isEqualTo("v1");
+        assertThat(store.get(2)).isNull();
+        assertThat(store.get(MANY * 10L)).isNull();
+        assertThat(store.values()).containsExactlyElementsOf(
+                LongStream.concat(LongStream.of(-1), LongStream.range(0, MANY).filter(id -> id % 2 == 1))
+                        .mapToObj(id -> "v" + id).toList());
+        assertThat(store.values(-1L).findFirst()).contains("v1");
+        assertThat(store.values(4100L).findFirst()).contains("v4101");
+        assertThat(store.values((long) MANY)).isEmpty();
+    }
+
+    @Test
+    void idsBelowTheOriginAreRejected() {
+        LongStore<String> store = new LongStore<>(0);
+        assertThat(store.get(-5)).isNull();
+        assertThat(store.remove(-5)).isNull();
+        assertThatThrownBy(() -> store.put(-5, "v")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
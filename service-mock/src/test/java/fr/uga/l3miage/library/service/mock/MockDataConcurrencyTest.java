@@ -0,0 +1,236 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MockDataConcurrencyTest {
+
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+
+    AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl();
+
+    @Test
+    void noLostUpdates() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        List<Author> sharedAuthors = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Author author = new Author();
+            author.setFullName("Shared " + i);
+            sharedAuthors.add(authorServiceMock.save(author));
+        }
+
+        Set<Long> bookIds = ConcurrentHashMap.newKeySet();
+        Set<Long> authorIds = ConcurrentHashMap.newKeySet();
+        run(threads, () -> {
+            var random = ThreadLocalRandom.current();
+            Author own = new Author();
+            own.setFullName("Own");
+            own = authorServiceMock.save(own);
+            authorIds.add(own.getId());
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Book book = new Book();
+                book.setTitle("Book " + i);
+                book = bookServiceMock.save(own.getId(), book);
+                bookIds.add(book.getId());
+                Author coAuthor = sharedAuthors.get(random.nextInt(sharedAuthors.size()));
+                bookServiceMock.addAuthor(book.getId(), coAuthor.getId());
+            }
+        });
+
+        // every generated id is unique
+        assertThat(bookIds).hasSize(threads * OPERATIONS_PER_THREAD);
+        assertThat(authorIds).hasSize(threads);
+
+        // both sides of every association were recorded
+        int sharedLinks = 0;
+        for (Author shared : sharedAuthors) {
+            for (Book book : shared.getBooks()) {
+                assertThat(book.getAuthors()).contains(shared);
+            }
+            sharedLinks += shared.getBooks().size();
+        }
+        assertThat(sharedLinks).isEqualTo(threads * OPERATIONS_PER_THREAD);
+        for (Long id : bookIds) {
+            Book book = bookServiceMock.get(id);
+            assertThat(book.getAuthors()).hasSize(2);
+            for (Author author : book.getAuthors()) {
+                assertThat(author.getBooks()).contains(book);
+            }
+        }
+    }
+
+    @Test
+    void deletesNeverLeaveDanglingLinks() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        int rounds = OPERATIONS_PER_THREAD / 10;
+        Author linker = new Author();
+        linker.setFullName("Linker");
+        Long linkerId = authorServiceMock.save(linker).getId();
+
+        Set<Long> deleted = ConcurrentHashMap.newKeySet();
+        Set<Long> kept = ConcurrentHashMap.newKeySet();
+        run(threads, () -> {
+            var random = ThreadLocalRandom.current();
+            for (int i = 0; i < rounds; i++) {
+                Author author = new Author();
+                author.setFullName("Deleted " + i);
+                author = authorServiceMock.save(author);
+                Book first = new Book();
+                first.setTitle("First " + i);
+                first = bookServiceMock.save(author.getId(), first);
+                Book second = new Book();
+                second.setTitle("Second " + i);
+                bookServiceMock.save(author.getId(), second);
+
+                // half of the deletes race a co-author joining the first book
+                Long bookId = first.getId();
+                Future<?> link = random.nextBoolean() ? null : CompletableFuture.runAsync(() -> {
+                    try {
+                        bookServiceMock.addAuthor(bookId, linkerId);
+                    } catch (EntityNotFoundException e) {
+                        // deleted first
+                    }
+                });
+                try {
+                    authorServiceMock.delete(author.getId());
+                    deleted.add(author.getId());
+                } catch (DeleteAuthorException e) {
+                    kept.add(author.getId());
+                }
+                if (link != null) {
+                    link.get();
+                }
+            }
+        });
+
+        assertThat(deleted.size() + kept.size()).isEqualTo(threads * rounds);
+        for (Long id : deleted) {
+            assertThat(MockData.authors.get(id)).isNull();
+            assertThat(MockData.authorBooks.of(id).size()).isZero();
+        }
+        for (Long id : kept) {
+            assertThat(authorServiceMock.get(id).getBooks()).hasSize(2);
+        }
+        // the linker is only linked to books that still exist, and which link it back
+        Adjacency.Links linked = MockData.authorBooks.of(linkerId);
+        for (int i = 0; i < linked.size(); i++) {
+            assertThat(MockData.books.get(linked.id(i))).isNotNull();
+            assertThat(MockData.bookAuthors.of(linked.id(i)).contains(linkerId)).isTrue();
+        }
+        assertThat(linked.size()).isEqualTo(kept.size());
+    }
+
+    @Test
+    void racingBooksNeverShareAnIsbn() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        Author author = new Author();
+        author.setFullName("Racing");
+        Long authorId = authorServiceMock.save(author).getId();
+        long firstIsbn = 4_000_000_000L;
+        int isbns = 500;
+
+        AtomicInteger saved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        run(threads, () -> {
+            // every thread tries every ISBN, in the same order so that they collide
+            for (int i = 0; i < isbns; i++) {
+                Book book = new Book();
+                book.setTitle("Racing " + i);
+                book.setIsbn(firstIsbn + i);
+                try {
+                    bookServiceMock.save(authorId, book);
+                    saved.incrementAndGet();
+                } catch (DuplicateIsbnException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(saved.get()).isEqualTo(isbns);
+        assertThat(rejected.get()).isEqualTo(isbns * (threads - 1));
+        for (int i = 0; i < isbns; i++) {
+            assertThat(bookServiceMock.getByIsbn(firstIsbn + i).getTitle()).isEqualTo("Racing " + i);
+        }
+    }
+
+    /**
+     * Writers spread over many authors, hence over the stripes, as the throughput is measured by the
+     * {@code DurabilityBenchmark} of the benchmarks module.
+     */
+    @Test
+    void writesSpreadOverAuthorsAllLand() throws Exception {
+        List<Long> authorIds = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            Author author = new Author();
+            author.setFullName("Spread " + i);
+            authorIds.add(authorServiceMock.save(author).getId());
+        }
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        Set<Long> bookIds = ConcurrentHashMap.newKeySet();
+
+        run(threads, () -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Long authorId = authorIds.get(ThreadLocalRandom.current().nextInt(authorIds.size()));
+                Book book = new Book();
+                book.setTitle("Spread book " + i);
+                book = bookServiceMock.save(authorId, book);
+                assertThat(bookServiceMock.get(book.getId()).getAuthors()).extracting(Author::getId)
+                        .containsExactly(authorId);
+                bookIds.add(book.getId());
+            }
+        });
+
+        assertThat(bookIds).hasSize(threads * OPERATIONS_PER_THREAD);
+        int linked = 0;
+        for (Long authorId : authorIds) {
+            linked += bookServiceMock.getByAuthor(authorId).size();
+        }
+        assertThat(linked).isEqualTo(threads * OPERATIONS_PER_THREAD);
+    }
+
+    private static void run(int threads, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<Object> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,93 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.SearchKeys;
+import fr.uga.l3miage.library.service.search.SuggestIndex;
+import fr.uga.l3miage.library.service.search.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestIndexTest {
+
+    private static final String[] WORDS = {"Java", "JPA", "Spring", "Sprint", "Art", "Artisan", "Programmation",
+            "Programme", "BOOT", "avancée", "Avant", "Fowler", "Fowl"};
+
+    @Test
+    void completionsAreTheShortestMatches() {
+        Random random = new Random(42);
+        SuggestIndex index = new SuggestIndex();
+        Map<Long, String> texts = new HashMap<>();
+        for (long id = 0; id < 2_000; id++) {
+            String text = randomText(random);
+            texts.put(id, text);
+            index.put(id, text);
+        }
+        // retitle and remove some entries to exercise the patching of the trie
+        for (long id = 0; id < 800; id++) {
+            if (id % 2 == 0) {
+                texts.remove(id);
+                index.remove(id);
+            } else {
+                String text = randomText(random);
+                texts.put(id, text);
+                index.put(id, text);
+            }
+        }
+
+        for (String prefix : new String[]{"j", "ja", "SPRIN", "sprint", "art", "programm", "avance", "fowl",
+                "java spr", "boot av", "absent", ""}) {
+            String key = SearchKeys.fold(prefix);
+            List<Suggestion> expected = texts.entrySet().stream()
+                    .filter(e -> completes(e.getValue(), key))
+                    .map(e -> new Suggestion(e.getKey(), e.getValue()))
+                    .sorted(Comparator.comparingInt((Suggestion s) -> s.text().length())
+                            .thenComparing(Suggestion::text)
+                            .thenComparingLong(Suggestion::id))
+                    .limit(SuggestIndex.K)
+                    .toList();
+            assertThat(index.complete(prefix, SuggestIndex.K)).isEqualTo(expected);
+        }
+        assertThat(index.size()).isEqualTo(texts.size());
+    }
+
+    @Test
+    void emptiedIndexCompletesNothing() {
+        SuggestIndex index = new SuggestIndex();
+        index.put(1, "Refactoring");
+        index.put(2, "Refactoring Databases");
+        index.remove(1);
+        assertThat(index.complete("refac", 5)).containsExactly(new Suggestion(2, "Refactoring Databases"));
+        assertThat(index.complete("datab", 5)).containsExactly(new Suggestion(2, "Refactoring Databases"));
+        index.remove(2);
+        assertThat(index.complete("r", 5)).isEmpty();
+        assertThat(index.complete("", 5)).isEmpty();
+    }
+
+    /**
+     * Whether the prefix starts the text from one of its words.
+     */
+    private static boolean completes(String text, String key) {
+        String[] words = SearchKeys.fold(text).split(" ");
+        for (int i = 0; i < words.length; i++) {
+            if (String.join(" ", Arrays.copyOfRange(words, i, words.length)).startsWith(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int i = random.nextInt(4); i > 0; i--) {
+            text.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.SearchKeys;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    private static final String[] WORDS = {"Java", "JPA", "Spring", "l'Art", "de", "la", "Programmation", "BOOT", "avancée"};
+
+    @Test
+    void candidatesContainEveryMatch() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex();
+        Map<Long, String> texts = new HashMap<>();
+        for (long id = 0; id < 2_000; id++) {
+            String text = randomText(random);
+            texts.put(id, text);
+            index.add(id, SearchKeys.fold(text));
+        }
+        // rename and remove some entries to exercise the incremental maintenance
+        for (long id = 0; id < 500; id++) {
+            index.remove(id, SearchKeys.fold(texts.get(id)));
+            if (id % 2 == 0) {
+                texts.remove(id);
+            } else {
+                String text = randomText(random);
+                texts.put(id, text);
+                index.add(id, SearchKeys.fold(text));
+            }
+        }
+
+        for (String raw : new String[]{"java", "SPRING BOOT", "art de", "ée", "mmat", "jpa jpa", "AVANCEE", "absent"}) {
+            String query = SearchKeys.fold(raw);
+            Set<Long> expected = texts.entrySet().stream()
+                    .filter(e -> SearchKeys.fold(e.getValue()).contains(query))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+            Set<Long> candidates = index.candidates(query);
+            if (query.length() < TrigramIndex.N) {
+                assertThat(candidates).isNull();
+            } else {
+                assertThat(candidates).containsAll(expected);
+                Set<Long> verified = candidates.stream()
+                        .filter(id -> SearchKeys.fold(texts.get(id)).contains(query))
+                        .collect(Collectors.toSet());
+                assertThat(verified).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void unknownTrigramHasNoCandidate() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(1L, SearchKeys.fold("The Art of JPA"));
+        assertThat(index.candidates("xyz")).isEmpty();
+        assertThat(index.candidates("art of")).containsExactly(1L);
+        index.remove(1L, SearchKeys.fold("The Art of JPA"));
+        assertThat(index.candidates("art of")).isEmpty();
+    }
+
+    @Test
+    void statisticsFollowTheWrites() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(1L, "abcd");
+        index.add(2L, "bcde");
+        assertThat(index.trigrams()).isEqualTo(3);
+        assertThat(index.entries()).isEqualTo(4);
+        index.remove(1L, "abcd");
+        assertThat(index.trigrams()).isEqualTo(2);
+        assertThat(index.entries()).isEqualTo(2);
+
+        index.candidates("bcd");
+        index.candidates("bc");
+        assertThat(index.indexed()).isEqualTo(1);
+        assertThat(index.scanned()).isEqualTo(1);
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int words = 1 + random.nextInt(5);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
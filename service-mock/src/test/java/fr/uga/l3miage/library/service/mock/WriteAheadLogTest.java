@@ -0,0 +1,181 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAheadLogTest {
+
+    static final String PREFIX = "catalogue.snapshot.wal";
+
+    AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void detachLog() {
+        MockData.journal = WriteAheadLog.DISABLED;
+    }
+
+    @Test
+    void truncatedTailIsIgnored() throws Exception {
+        Path snapshot = snapshot(1);
+        WriteAheadLog log = start(1, WriteAheadLog.Durability.FSYNC);
+        Author author = newAuthor("Before The Crash");
+        Book book = newBook(author, "Logged Before The Crash");
+        rename(author, "Lost In The Crash");
+        log.close();
+
+        // the crash cut the last record
+        Path segment = segment(1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        WriteAheadLog.Replayed replayed = recover(snapshot);
+        assertThat(replayed.records()).isEqualTo(3);
+        assertThat(replayed.torn()).isEqualTo(1);
+        Author restored = authorServiceMock.get(author.getId());
+        assertThat(restored.getFullName()).isEqualTo("Before The Crash");
+        assertThat(restored.getBooks()).extracting(Book::getTitle).containsExactly("Logged Before The Crash");
+        assertThat(bookServiceMock.get(book.getId()).getAuthors()).containsExactly(restored);
+    }
+
+    @Test
+    void tornWriteEndsItsSegmentOnly() throws Exception {
+        Path snapshot = snapshot(1);
+        WriteAheadLog log = start(1, WriteAheadLog.Durability.WRITE);
+        Author author = newAuthor("Before The Tear");
+        rename(author, "Torn Apart");
+        log.close();
+
+        // the crash left the last page half written, the length is there but not all of the bytes
+        byte[] bytes = Files.readAllBytes(segment(1));
+        bytes[bytes.length - 2] ^= 0x5A;
+        Files.write(segment(1), bytes);
+
+        // the writes after the recovery went to the next segment
+        log = start(2, WriteAheadLog.Durability.FSYNC);
+        Author after = newAuthor("After The Recovery");
+        log.close();
+
+        WriteAheadLog.Replayed replayed = recover(snapshot);
+        assertThat(replayed.segments()).isEqualTo(2);
+        assertThat(replayed.records()).isEqualTo(2);
+        assertThat(replayed.torn()).isEqualTo(1);
+        assertThat(authorServiceMock.get(author.getId()).getFullName()).isEqualTo("Before The Tear");
+        assertThat(authorServiceMock.get(after.getId()).getFullName()).isEqualTo("After The Recovery");
+        assertThat(authorServiceMock.searchByName("torn")).isEmpty();
+    }
+
+    @Test
+    void deletesAreReplayed() throws Exception {
+        Author author = newAuthor("Deleted After The Snapshot");
+        Book book = newBook(author, "Deleted Too");
+        Author other = newAuthor("Kept");
+        Book kept = newBook(other, "Kept Book");
+        Book deleted = newBook(other, "Deleted Book");
+        Path snapshot = snapshot(1);
+
+        WriteAheadLog log = start(1, WriteAheadLog.Durability.FSYNC);
+        authorServiceMock.delete(author.getId());
+        bookServiceMock.delete(deleted.getId());
+        log.close();
+
+        recover(snapshot);
+        assertThat(MockData.authors.get(author.getId())).isNull();
+        assertThat(MockData.books.get(book.getId())).isNull();
+        assertThat(MockData.books.get(deleted.getId())).isNull();
+        assertThat(authorServiceMock.get(other.getId()).getBooks()).extracting(Book::getId)
+                .containsExactly(kept.getId());
+    }
+
+    @Test
+    void concurrentWritersAreAllDurable() throws Exception {
+        Path snapshot = snapshot(1);
+        WriteAheadLog log = start(1, WriteAheadLog.Durability.FSYNC);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Author>> saved = new ArrayList<>();
+        try {
+            for (int i = 0; i < 400; i++) {
+                String name = "Group Commit " + i;
+                saved.add(executor.submit(() -> newAuthor(name)));
+            }
+            for (Future<Author> author : saved) {
+                author.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        log.close();
+        assertThat(log.batches()).isBetween(1L, 400L);
+
+        WriteAheadLog.Replayed replayed = recover(snapshot);
+        assertThat(replayed.records()).isEqualTo(400);
+        for (Future<Author> author : saved) {
+            assertThat(authorServiceMock.get(author.get().getId()).getFullName())
+                    .isEqualTo(author.get().getFullName());
+        }
+    }
+
+    private Path snapshot(long segment) throws IOException {
+        Path snapshot = directory.resolve("catalogue.snapshot");
+        CatalogueSnapshot.write(snapshot, segment);
+        return snapshot;
+    }
+
+    private WriteAheadLog start(long segment, WriteAheadLog.Durability durability) throws IOException {
+        WriteAheadLog log = WriteAheadLog.open(directory, PREFIX, segment, durability);
+        MockData.journal = log;
+        return log;
+    }
+
+    private WriteAheadLog.Replayed recover(Path snapshot) throws IOException {
+        MockData.journal = WriteAheadLog.DISABLED;
+        long from = CatalogueSnapshot.read(snapshot);
+        WriteAheadLog.Replayed replayed = WriteAheadLog.replay(directory, PREFIX, from);
+        CatalogueRecords.settle();
+        return replayed;
+    }
+
+    private Path segment(long number) throws IOException {
+        return WriteAheadLog.segments(directory, PREFIX).get(number);
+    }
+
+    private Author newAuthor(String fullName) {
+        Author author = new Author();
+        author.setFullName(fullName);
+        return authorServiceMock.save(author);
+    }
+
+    private void rename(Author author, String fullName) throws EntityNotFoundException {
+        Author renamed = new Author();
+        renamed.setId(author.getId());
+        renamed.setFullName(fullName);
+        authorServiceMock.update(renamed);
+    }
+
+    private Book newBook(Author author, String title) throws EntityNotFoundException {
+        Book book = new Book();
+        book.setTitle(title);
+        return bookServiceMock.save(author.getId(), book);
+    }
+}
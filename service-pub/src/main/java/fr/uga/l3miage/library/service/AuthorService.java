@@ -2,8 +2,12 @@ package fr.uga.l3miage.library.service;
 
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.library.service.base.BaseService;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface AuthorService extends BaseService<Author, Long> {
 
@@ -16,13 +20,51 @@ public interface AuthorService extends BaseService<Author, Long> {
     Author save(Author author);
 
     /**
-     * Search an author by name ignoring case
+     * Saves several authors at once
+     *
+     * @param authors to be saved
+     * @return the authors with an id
+     */
+    List<Author> saveAll(List<Author> authors);
+
+    /**
+     * Search an author by name ignoring case and accents
      *
      * @param name partial or complete name of the author
      * @return found authors
      */
     Collection<Author> searchByName(String name);
 
+    /**
+     * Search a page of authors by name ignoring case and accents, ordered by id
+     *
+     * @param name  partial or complete name of the author
+     * @param after id of the last author of the previous page, null to get the first page
+     * @param limit maximum number of authors in the page
+     * @return found authors
+     */
+    Page<Author, Long> searchByName(String name, Long after, int limit);
+
+    /**
+     * Full-text search of authors by the words of their name, ranked by relevance (BM25). Words are matched ignoring
+     * case and accents
+     *
+     * @param query the words to look for
+     * @param mode  how the words match the indexed words
+     * @param limit maximum number of authors
+     * @return the matching authors, the most relevant first
+     */
+    List<Author> search(String query, SearchMode mode, int limit);
+
+    /**
+     * Complete the names being typed, ignoring case and accents, from any of their first words
+     *
+     * @param prefix the beginning of the name, or of one of its first words
+     * @param limit  maximum number of completions, at most {@link fr.uga.l3miage.library.service.search.SuggestIndex#K}
+     * @return the ids and names of the authors, the shortest first
+     */
+    List<Suggestion> suggest(String prefix, int limit);
+
     /**
      * Deletes an author
      *
@@ -2,8 +2,14 @@ package fr.uga.l3miage.library.service;
 
 import fr.uga.l3miage.data.domain.Book;
 import fr.uga.l3miage.library.service.base.BaseService;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.search.BookFilter;
+import fr.uga.l3miage.library.service.search.Facets;
+import fr.uga.l3miage.library.service.search.SearchMode;
+import fr.uga.l3miage.library.service.search.Suggestion;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface BookService extends BaseService<Book, Long> {
 
@@ -15,17 +21,94 @@ public interface BookService extends BaseService<Book, Long> {
      * @param book     the book to add
      * @return the book with an id set
      * @throws EntityNotFoundException if the author do not exist
+     * @throws DuplicateIsbnException  if another book holds the ISBN of the book
      */
     Book save(Long authorId, Book book) throws EntityNotFoundException;
 
     /**
-     * Find books by title. Title can partial, will be matched in case-insensitive fashion
+     * Saves several books at once. Each book is added to the authors it holds, which are only looked up by id
      *
-     * @param title the title of the book or a part of it (case-insensitive)
+     * @param books the books to save, with their authors
+     * @return the books with an id set
+     * @throws EntityNotFoundException if one of the authors do not exist, then no book is saved
+     * @throws DuplicateIsbnException  if a book is given the ISBN of another, saved or in the list, then no book is
+     *                                 saved
+     */
+    List<Book> saveAll(List<Book> books) throws EntityNotFoundException;
+
+    /**
+     * Get the book holding an ISBN
+     *
+     * @param isbn the ISBN of the book
+     * @return the book
+     * @throws EntityNotFoundException if no book holds the ISBN
+     */
+    Book getByIsbn(long isbn) throws EntityNotFoundException;
+
+    /**
+     * Tells which ISBNs are held by a book, without loading the books
+     *
+     * @param isbns the ISBNs to look for
+     * @return the ISBNs held by a book, in the order given
+     */
+    long[] findExistingIsbns(long[] isbns);
+
+    /**
+     * Find books by title. Title can partial, will be matched ignoring case and accents
+     *
+     * @param title the title of the book or a part of it (case and accent insensitive)
      * @return books with a matching title
      */
     Collection<Book> findByTitle(String title);
 
+    /**
+     * Find a page of books by title, ordered by id. Title can partial, will be matched ignoring case and accents
+     *
+     * @param title the title of the book or a part of it (case and accent insensitive)
+     * @param after id of the last book of the previous page, null to get the first page
+     * @param limit maximum number of books in the page
+     * @return books with a matching title
+     */
+    Page<Book, Long> findByTitle(String title, Long after, int limit);
+
+    /**
+     * Find a page of books by language, publisher, year range and title, ordered by id
+     *
+     * @param filter the filters the books must match
+     * @param after  id of the last book of the previous page, null to get the first page
+     * @param limit  maximum number of books in the page
+     * @return books matching the filter
+     */
+    Page<Book, Long> findByFilter(BookFilter filter, Long after, int limit);
+
+    /**
+     * Count the books of each language, publisher and year, among those matching a filter
+     *
+     * @param filter the filters the books must match, but for the facet counted
+     * @return the counts of each facet
+     */
+    Facets countFacets(BookFilter filter);
+
+    /**
+     * Full-text search of books by the words of their title and publisher, ranked by relevance (BM25). Words are
+     * matched ignoring case, accents, stop words and inflections
+     *
+     * @param query the words to look for
+     * @param mode  how the words match the indexed words
+     * @param limit maximum number of books
+     * @return the matching books, the most relevant first
+     */
+    List<Book> search(String query, SearchMode mode, int limit);
+
+    /**
+     * Complete the titles being typed, ignoring case and accents, from any of their first words
+     *
+     * @param prefix the beginning of the title, or of one of its first words
+     * @param limit  maximum number of completions, at most {@link fr.uga.l3miage.library.service.search.SuggestIndex#K}
+     * @return the ids and titles of the books, the shortest first
+     */
+    List<Suggestion> suggest(String prefix, int limit);
+
     /**
      * Get all books for a given author
      *
@@ -35,16 +118,39 @@ public interface BookService extends BaseService<Book, Long> {
      */
     Collection<Book> getByAuthor(Long id) throws EntityNotFoundException;
 
+    /**
+     * Get a page of the books of a given author, ordered by id
+     *
+     * @param id    the authors id
+     * @param after id of the last book of the previous page, null to get the first page
+     * @param limit maximum number of books in the page
+     * @return books belonging to the author
+     * @throws EntityNotFoundException if the author do not exist
+     */
+    Page<Book, Long> getByAuthor(Long id, Long after, int limit) throws EntityNotFoundException;
+
     /**
      * Find books for a given author
      *
      * @param id    author's id
-     * @param title the title of the book or a part of it (case-insensitive)
+     * @param title the title of the book or a part of it (case and accent insensitive)
      * @return all books belonging to the author with a matching title
      * @throws EntityNotFoundException if the author do not exist
      */
     Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException;
 
+    /**
+     * Find a page of books for a given author, ordered by id
+     *
+     * @param id    author's id
+     * @param title the title of the book or a part of it (case and accent insensitive)
+     * @param after id of the last book of the previous page, null to get the first page
+     * @param limit maximum number of books in the page
+     * @return books belonging to the author with a matching title
+     * @throws EntityNotFoundException if the author do not exist
+     */
+    Page<Book, Long> findByAuthor(Long id, String title, Long after, int limit) throws EntityNotFoundException;
+
     /**
      * Deletes a book
      *
@@ -0,0 +1,74 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.library.service.base.BaseService;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Lends books to borrowers.
+ * <p>
+ * {@link #update(Object)} only changes the date a borrow is due, a borrow due in the future again is no longer late.
+ */
+public interface BorrowService extends BaseService<Borrow, Long> {
+
+    /**
+     * Lends books to a borrower, starting now. Either all the books are lent or none is, even when other
+     * borrowers check some of them out at the same time
+     *
+     * @param borrowerId id of the borrower
+     * @param bookIds    ids of the books to lend
+     * @param end        the date the books are due
+     * @return the borrow with an id
+     * @throws EntityNotFoundException  if the borrower or one of the books do not exist
+     * @throws BookUnavailableException if one of the books is already borrowed
+     */
+    Borrow checkout(Long borrowerId, Collection<Long> bookIds, Date end)
+            throws EntityNotFoundException, BookUnavailableException;
+
+    /**
+     * Gives the books of a borrow back, now, and counts the return in the late ratio of the borrower.
+     * Returning a borrow twice has no effect
+     *
+     * @param id id of the borrow
+     * @return the returned borrow
+     * @throws EntityNotFoundException if the borrow do not exist
+     */
+    Borrow returnBorrow(Long id) throws EntityNotFoundException;
+
+    /**
+     * Tells whether a book can be borrowed
+     *
+     * @param bookId id of the book
+     * @return true unless an active borrow holds the book
+     * @throws EntityNotFoundException if the book do not exist
+     */
+    boolean isAvailable(Long bookId) throws EntityNotFoundException;
+
+    /**
+     * Get the borrows of a borrower that are not returned yet
+     *
+     * @param borrowerId id of the borrower
+     * @return the active borrows, in id order
+     * @throws EntityNotFoundException if the borrower do not exist
+     */
+    Collection<Borrow> getActiveByBorrower(Long borrowerId) throws EntityNotFoundException;
+
+    /**
+     * Get the borrows that are not returned yet and were due before a date
+     *
+     * @param asOf the date to compare the due dates with, usually now
+     * @return the overdue borrows, the longest overdue first
+     */
+    Collection<Borrow> getOverdue(Date asOf);
+
+    /**
+     * Flags the active borrows that became overdue since the previous call
+     *
+     * @param asOf the date to compare the due dates with, usually now
+     * @return the number of borrows flagged
+     */
+    int flagOverdue(Date asOf);
+
+}
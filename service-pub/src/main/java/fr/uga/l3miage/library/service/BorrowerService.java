@@ -0,0 +1,26 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.base.BaseService;
+
+import java.util.Collection;
+
+public interface BorrowerService extends BaseService<Borrower, Long> {
+
+    /**
+     * Saves a borrower, registered now unless a registration date is given
+     *
+     * @param borrower to be saved
+     * @return the borrower with an id
+     */
+    Borrower save(Borrower borrower);
+
+    /**
+     * Get the borrowers most often late, by descending late ratio then number of late returns
+     *
+     * @param limit maximum number of borrowers
+     * @return the borrowers with at least one late return
+     */
+    Collection<Borrower> getMostLate(int limit);
+
+}
@@ -0,0 +1,17 @@
+package fr.uga.l3miage.library.service;
+
+/**
+ * Thrown when a book is saved or updated with the ISBN of another book, the book being left unchanged. Unchecked, as
+ * {@code update} is declared by the base service. An ISBN of 0 is no ISBN and is never held
+ */
+public class DuplicateIsbnException extends RuntimeException {
+
+    public DuplicateIsbnException(String message) {
+        super(message);
+    }
+
+    public DuplicateIsbnException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
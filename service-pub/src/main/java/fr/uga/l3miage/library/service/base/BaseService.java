@@ -22,6 +22,14 @@ public interface BaseService<O, I> {
      */
     O get(I id) throws EntityNotFoundException;
 
+    /**
+     * get several transient objects at once, reporting those that do not exist instead of failing
+     *
+     * @param ids the object identifiers, duplicates are ignored
+     * @return the objects found, in the order of the identifiers, and the identifiers missing
+     */
+    Batch<O, I> getAll(Collection<I> ids);
+
     /**
      * Returns all objects
      *
@@ -29,6 +37,15 @@ public interface BaseService<O, I> {
      */
     Collection<O> list();
 
+    /**
+     * Returns a page of objects, ordered by identifier
+     *
+     * @param after identifier of the last object of the previous page, null to get the first page
+     * @param limit maximum number of objects in the page
+     * @return the page
+     */
+    Page<O, I> list(I after, int limit);
+
     /**
      * updates the object and return it (in case the object was updated internally)
      *
@@ -38,4 +55,11 @@ public interface BaseService<O, I> {
      */
     O update(O object) throws EntityNotFoundException;
 
+    /**
+     * A version of all the objects, that changes once any of them, or any object they embed, has been written
+     *
+     * @return the current version
+     */
+    long version();
+
 }
@@ -0,0 +1,39 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The objects found for a list of identifiers, as returned by {@link BaseService#getAll(Collection)}.
+ *
+ * @param content the objects found, in the order of their identifiers in the request
+ * @param missing the identifiers requested that match no object, in the order of the request
+ * @param <O>     the type of persistence object
+ * @param <I>     type of the identifier
+ */
+public record Batch<O, I>(List<O> content, List<I> missing) {
+
+    /**
+     * Looks up each distinct identifier once, in the order of the request.
+     *
+     * @param ids    the identifiers requested, duplicates are ignored
+     * @param lookup the object of an identifier, or null when there is none
+     * @return the objects found and the identifiers missing
+     */
+    public static <O, I> Batch<O, I> of(Collection<I> ids, Function<I, O> lookup) {
+        List<O> content = new ArrayList<>(ids.size());
+        List<I> missing = new ArrayList<>();
+        for (I id : new LinkedHashSet<>(ids)) {
+            O object = lookup.apply(id);
+            if (object == null) {
+                missing.add(id);
+            } else {
+                content.add(object);
+            }
+        }
+        return new Batch<>(content, missing);
+    }
+}
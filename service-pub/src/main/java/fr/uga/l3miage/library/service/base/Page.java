@@ -0,0 +1,53 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A page of objects ordered by id, as returned by keyset paginated queries.
+ *
+ * @param content the objects of the page
+ * @param next    id of the last object of the page when more objects follow, null on the last page
+ * @param <O>     the type of persistence object
+ * @param <I>     type of the identifier
+ */
+public record Page<O, I>(List<O> content, I next) {
+
+    /**
+     * Builds a page from a query that fetched one object more than the limit, to tell whether another page follows.
+     *
+     * @param fetched at most {@code limit + 1} objects ordered by id
+     * @param limit   the size of the page
+     * @param id      the identifier of an object
+     * @return the page
+     * @throws IllegalArgumentException when the limit is not positive
+     */
+    public static <O, I> Page<O, I> of(List<O> fetched, int limit, Function<O, I> id) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("page limit must be positive: " + limit);
+        }
+        if (fetched.size() <= limit) {
+            return new Page<>(fetched, null);
+        }
+        List<O> content = fetched.subList(0, limit);
+        return new Page<>(content, id.apply(content.get(limit - 1)));
+    }
+
+    /**
+     * Lazily walks all the objects of a service, in id order, one page at a time.
+     * <p>
+     * A page is only fetched once the previous one has been consumed, from the cursor of that page which stays held
+     * meanwhile, so at most two pages are in memory at once.
+     *
+     * @param service the service to read from
+     * @param size    the number of objects fetched at once
+     * @return all the objects of the service
+     */
+    public static <O, I> Stream<O> stream(BaseService<O, I> service, int size) {
+        return Stream.iterate(service.list(null, size), Objects::nonNull,
+                        page -> page.next() == null ? null : service.list(page.next(), size))
+                .flatMap(page -> page.content().stream());
+    }
+}
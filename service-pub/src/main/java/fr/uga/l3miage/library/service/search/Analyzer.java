@@ -0,0 +1,104 @@
+package fr.uga.l3miage.library.service.search;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.SearchKeys;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns texts into the terms of a {@link TextIndex}: the words of the folded text (see {@link SearchKeys}), without
+ * the stop words of its language, reduced to their stem.
+ * <p>
+ * A query does not say its language, so each of its words is looked up under its stems in both languages.
+ */
+public final class Analyzer {
+
+    private static final Set<String> ENGLISH_STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by",
+            "for", "from", "in", "into", "is", "it", "of", "on", "or", "the", "to", "with");
+    private static final Set<String> FRENCH_STOP_WORDS = Set.of("a", "au", "aux", "d", "dans", "de", "des", "du",
+            "en", "et", "l", "la", "le", "les", "ou", "par", "pour", "sur", "un", "une");
+
+    private Analyzer() {
+        // static helpers only
+    }
+
+    /**
+     * The terms of an indexed text, in order, repeated as often as their words.
+     *
+     * @param text     any text, may be null
+     * @param language the language of the text, null for names, which are neither filtered nor stemmed
+     */
+    public static List<String> terms(String text, Book.Language language) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words(text)) {
+            if (language == null) {
+                terms.add(word);
+            } else if (!stopWords(language).contains(word)) {
+                terms.add(stem(word, language));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * The words of a query worth looking up, folded but not stemmed. The stop words are dropped unless the query
+     * holds nothing else; the last word is kept for the {@link SearchMode#PREFIX} mode, as it may be a beginning.
+     */
+    static List<String> queryWords(String query, SearchMode mode) {
+        List<String> words = words(query);
+        List<String> kept = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            boolean last = i == words.size() - 1;
+            if ((mode == SearchMode.PREFIX && last) || !isStopWord(word)) {
+                kept.add(word);
+            }
+        }
+        return kept.isEmpty() ? words : kept;
+    }
+
+    /**
+     * The terms a query word may have been indexed as: the word itself, as in names, and its stems.
+     */
+    static Set<String> variants(String word) {
+        Set<String> variants = new LinkedHashSet<>(3);
+        variants.add(word);
+        variants.add(stem(word, Book.Language.ENGLISH));
+        variants.add(stem(word, Book.Language.FRENCH));
+        return variants;
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        String key = SearchKeys.fold(text);
+        if (key == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= key.length(); i++) {
+            boolean letter = i < key.length() && Character.isLetterOrDigit(key.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(key.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    static String stem(String word, Book.Language language) {
+        return language == Book.Language.FRENCH ? Stemmers.french(word) : Stemmers.english(word);
+    }
+
+    private static Set<String> stopWords(Book.Language language) {
+        return language == Book.Language.FRENCH ? FRENCH_STOP_WORDS : ENGLISH_STOP_WORDS;
+    }
+
+    private static boolean isStopWord(String word) {
+        return ENGLISH_STOP_WORDS.contains(word) || FRENCH_STOP_WORDS.contains(word);
+    }
+}
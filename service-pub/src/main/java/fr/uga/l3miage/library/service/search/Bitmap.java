@@ -0,0 +1,104 @@
+package fr.uga.l3miage.library.service.search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A set of positions, one bit each, in chunks of words that are only ever added.
+ * <p>
+ * Bits are set and cleared atomically, without locking, while queries combine the words of several bitmaps into a
+ * plain {@code long[]}: a query sees each word as it is when read, as the other lock-free reads of the catalogue.
+ */
+final class Bitmap {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int WORD_BITS = 6;
+    private static final int CHUNK_WORDS = 1 << (CHUNK_BITS - WORD_BITS);
+
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+    private final AtomicInteger cardinality = new AtomicInteger();
+
+    void set(int position) {
+        long mask = 1L << position;
+        int word = position >>> WORD_BITS;
+        long previous = chunk(word >>> (CHUNK_BITS - WORD_BITS))
+                .getAndAccumulate(word & (CHUNK_WORDS - 1), mask, (w, m) -> w | m);
+        if ((previous & mask) == 0) {
+            cardinality.incrementAndGet();
+        }
+    }
+
+    void clear(int position) {
+        int word = position >>> WORD_BITS;
+        int index = word >>> (CHUNK_BITS - WORD_BITS);
+        AtomicLongArray[] current = chunks;
+        if (index >= current.length) {
+            return;
+        }
+        long mask = 1L << position;
+        long previous = current[index].getAndAccumulate(word & (CHUNK_WORDS - 1), ~mask, (w, m) -> w & m);
+        if ((previous & mask) != 0) {
+            cardinality.decrementAndGet();
+        }
+    }
+
+    int cardinality() {
+        return cardinality.get();
+    }
+
+    /**
+     * The number of words the bitmap may have bits in.
+     */
+    int words() {
+        return chunks.length * CHUNK_WORDS;
+    }
+
+    /**
+     * Adds the bits of this bitmap to {@code words}.
+     */
+    void orInto(long[] words) {
+        AtomicLongArray[] current = chunks;
+        int length = Math.min(words.length, current.length * CHUNK_WORDS);
+        for (int i = 0; i < length; i++) {
+            words[i] |= current[i >>> (CHUNK_BITS - WORD_BITS)].get(i & (CHUNK_WORDS - 1));
+        }
+    }
+
+    /**
+     * The number of bits both in this bitmap and in {@code words}, without building their intersection.
+     */
+    int countAnd(long[] words) {
+        AtomicLongArray[] current = chunks;
+        int length = Math.min(words.length, current.length * CHUNK_WORDS);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            count += Long.bitCount(words[i] & current[i >>> (CHUNK_BITS - WORD_BITS)].get(i & (CHUNK_WORDS - 1)));
+        }
+        return count;
+    }
+
+    private AtomicLongArray chunk(int index) {
+        AtomicLongArray[] current = chunks;
+        if (index < current.length) {
+            return current[index];
+        }
+        return grow(index);
+    }
+
+    /**
+     * Chunks are only ever added, so readers holding the previous array still find every bit they could see.
+     */
+    private synchronized AtomicLongArray grow(int index) {
+        AtomicLongArray[] current = chunks;
+        if (index >= current.length) {
+            AtomicLongArray[] grown = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new AtomicLongArray(CHUNK_WORDS);
+            }
+            chunks = grown;
+            current = grown;
+        }
+        return current[index];
+    }
+}
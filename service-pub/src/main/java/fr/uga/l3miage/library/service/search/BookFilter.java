@@ -0,0 +1,31 @@
+package fr.uga.l3miage.library.service.search;
+
+import fr.uga.l3miage.data.domain.Book;
+
+import java.util.Set;
+
+/**
+ * Filters of the books by facet and title. A book matches when it matches every filter given, and a filter of
+ * several values when it has any of them.
+ *
+ * @param title      part of the title, ignoring case and accents, null for any title
+ * @param languages  languages of the books, empty for any language
+ * @param publishers publishers of the books, as written, empty for any publisher
+ * @param yearFrom   first year of publication, null for no lower bound
+ * @param yearTo     last year of publication, null for no upper bound
+ */
+public record BookFilter(String title, Set<Book.Language> languages, Set<String> publishers, Short yearFrom,
+                         Short yearTo) {
+
+    public BookFilter {
+        languages = languages == null ? Set.of() : Set.copyOf(languages);
+        publishers = publishers == null ? Set.of() : Set.copyOf(publishers);
+    }
+
+    /**
+     * Whether a filter other than the title is given.
+     */
+    public boolean hasFacets() {
+        return !languages.isEmpty() || !publishers.isEmpty() || yearFrom != null || yearTo != null;
+    }
+}
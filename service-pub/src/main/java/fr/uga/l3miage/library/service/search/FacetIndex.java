@@ -0,0 +1,248 @@
+package fr.uga.l3miage.library.service.search;
+
+import fr.uga.l3miage.data.domain.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Bitmap indexes of the books on their language, publisher and year, one bitmap per value, a book being the bit of
+ * its id.
+ * <p>
+ * A filter ORs the bitmaps of the values it accepts in each facet, then ANDs the facets together, with the books of
+ * a matching title if any: the result is a bitmap walked in id order for a page. The counts of the facets are the
+ * sizes of the intersections of each value with the filter, computed word by word without reading any book.
+ * <p>
+ * Years have a bitmap each, as the counts need them, and a range ORs those it covers: there are a few dozens of
+ * years in a catalogue. Puts and removes of the same id must not race; callers serialize them as they do their other
+ * writes of that id.
+ */
+public final class FacetIndex {
+
+    /* the publishers counted, those with the most books */
+    public static final int TOP_PUBLISHERS = 20;
+
+    private enum Facet { LANGUAGE, PUBLISHER, YEAR, NONE }
+
+    private record Values(Book.Language language, String publisher, short year) {
+    }
+
+    /* the lowest id, the first bit */
+    private final long origin;
+    private final Bitmap all = new Bitmap();
+    private final Map<Book.Language, Bitmap> languages = new EnumMap<>(Book.Language.class);
+    private final ConcurrentMap<String, Bitmap> publishers = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Short, Bitmap> years = new ConcurrentSkipListMap<>();
+    /* the values indexed for each id, to clear its bits */
+    private final ConcurrentMap<Long, Values> values = new ConcurrentHashMap<>();
+
+    /**
+     * @param origin the lowest id that can be indexed
+     */
+    public FacetIndex(long origin) {
+        this.origin = origin;
+        for (Book.Language language : Book.Language.values()) {
+            languages.put(language, new Bitmap());
+        }
+    }
+
+    /**
+     * Indexes a book, replacing its previous values.
+     *
+     * @param language  the language of the book, null for none
+     * @param publisher the publisher of the book, null for none
+     */
+    public void put(long id, Book.Language language, String publisher, short year) {
+        int position = position(id);
+        Values previous = values.put(id, new Values(language, publisher, year));
+        if (previous != null) {
+            clear(position, previous);
+        }
+        all.set(position);
+        if (language != null) {
+            languages.get(language).set(position);
+        }
+        if (publisher != null) {
+            publishers.computeIfAbsent(publisher, p -> new Bitmap()).set(position);
+        }
+        years.computeIfAbsent(year, y -> new Bitmap()).set(position);
+    }
+
+    public void remove(long id) {
+        Values previous = values.remove(id);
+        if (previous != null) {
+            int position = position(id);
+            all.clear(position);
+            clear(position, previous);
+        }
+    }
+
+    /**
+     * Removes every book, to be called while nothing else reads or writes the index.
+     */
+    public synchronized void clear() {
+        for (Long id : List.copyOf(values.keySet())) {
+            remove(id);
+        }
+        publishers.clear();
+        years.clear();
+    }
+
+    public int size() {
+        return all.cardinality();
+    }
+
+    /**
+     * The ids of the books matching a filter, following an id, in id order.
+     *
+     * @param titled the ids of the books with a matching title, null when the filter has no title
+     * @param after  the id to start after, null to start from the first book
+     * @param max    maximum number of ids
+     */
+    public List<Long> find(BookFilter filter, Collection<Long> titled, Long after, int max) {
+        long[] words = select(filter, titled, Facet.NONE);
+        List<Long> ids = new ArrayList<>(Math.min(max, 64));
+        long from = after == null ? 0 : Math.max(0, after - origin + 1);
+        if (from >= (long) words.length << 6) {
+            return ids;
+        }
+        int i = (int) (from >>> 6);
+        long word = words[i] & (-1L << from);
+        while (ids.size() < max) {
+            if (word == 0) {
+                if (++i == words.length) {
+                    break;
+                }
+                word = words[i];
+                continue;
+            }
+            ids.add(origin + ((long) i << 6) + Long.numberOfTrailingZeros(word));
+            // clears the lowest bit
+            word &= word - 1;
+        }
+        return ids;
+    }
+
+    /**
+     * The counts of the facets for a filter.
+     *
+     * @param titled the ids of the books with a matching title, null when the filter has no title
+     */
+    public Facets count(BookFilter filter, Collection<Long> titled) {
+        long[] matching = select(filter, titled, Facet.NONE);
+        int total = 0;
+        for (long word : matching) {
+            total += Long.bitCount(word);
+        }
+
+        long[] base = select(filter, titled, Facet.LANGUAGE);
+        Map<Book.Language, Integer> languageCounts = new EnumMap<>(Book.Language.class);
+        languages.forEach((language, bitmap) -> languageCounts.put(language, bitmap.countAnd(base)));
+
+        long[] publisherBase = select(filter, titled, Facet.PUBLISHER);
+        List<Map.Entry<String, Integer>> publisherCounts = new ArrayList<>();
+        publishers.forEach((publisher, bitmap) -> {
+            int count = bitmap.countAnd(publisherBase);
+            if (count > 0) {
+                publisherCounts.add(Map.entry(publisher, count));
+            }
+        });
+        publisherCounts.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> topPublishers = new LinkedHashMap<>();
+        publisherCounts.stream().limit(TOP_PUBLISHERS).forEach(e -> topPublishers.put(e.getKey(), e.getValue()));
+
+        long[] yearBase = select(filter, titled, Facet.YEAR);
+        Map<Short, Integer> yearCounts = new TreeMap<>(Comparator.naturalOrder());
+        years.forEach((year, bitmap) -> {
+            int count = bitmap.countAnd(yearBase);
+            if (count > 0) {
+                yearCounts.put(year, count);
+            }
+        });
+        return new Facets(total, languageCounts, topPublishers, yearCounts);
+    }
+
+    /**
+     * The books matching a filter, but for the filter of a facet, as words of a bitmap.
+     */
+    private long[] select(BookFilter filter, Collection<Long> titled, Facet ignored) {
+        long[] words = new long[all.words()];
+        all.orInto(words);
+        if (ignored != Facet.LANGUAGE && !filter.languages().isEmpty()) {
+            and(words, filter.languages().stream().map(languages::get).toList());
+        }
+        if (ignored != Facet.PUBLISHER && !filter.publishers().isEmpty()) {
+            and(words, filter.publishers().stream().map(publishers::get).toList());
+        }
+        if (ignored != Facet.YEAR && (filter.yearFrom() != null || filter.yearTo() != null)) {
+            short from = filter.yearFrom() == null ? Short.MIN_VALUE : filter.yearFrom();
+            short to = filter.yearTo() == null ? Short.MAX_VALUE : filter.yearTo();
+            and(words, from > to ? List.of() : years.subMap(from, true, to, true).values());
+        }
+        if (titled != null) {
+            long[] titles = new long[words.length];
+            for (Long id : titled) {
+                long position = id - origin;
+                if (position >= 0 && position < (long) words.length << 6) {
+                    titles[(int) (position >>> 6)] |= 1L << position;
+                }
+            }
+            for (int i = 0; i < words.length; i++) {
+                words[i] &= titles[i];
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Keeps the bits of {@code words} in any of the bitmaps, those of the values accepted by a facet.
+     */
+    private static void and(long[] words, Collection<Bitmap> accepted) {
+        long[] union = new long[words.length];
+        for (Bitmap bitmap : accepted) {
+            // a value no book has
+            if (bitmap != null) {
+                bitmap.orInto(union);
+            }
+        }
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= union[i];
+        }
+    }
+
+    private void clear(int position, Values previous) {
+        if (previous.language() != null) {
+            languages.get(previous.language()).clear(position);
+        }
+        if (previous.publisher() != null) {
+            Bitmap bitmap = publishers.get(previous.publisher());
+            if (bitmap != null) {
+                bitmap.clear(position);
+            }
+        }
+        Bitmap bitmap = years.get(previous.year());
+        if (bitmap != null) {
+            bitmap.clear(position);
+        }
+    }
+
+    private int position(long id) {
+        long position = id - origin;
+        if (position < 0 || position > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("id out of the index range: " + id);
+        }
+        return (int) position;
+    }
+}
@@ -0,0 +1,18 @@
+package fr.uga.l3miage.library.service.search;
+
+import fr.uga.l3miage.data.domain.Book;
+
+import java.util.Map;
+
+/**
+ * The number of books of each value of the facets, for a {@link BookFilter}. The counts of a facet apply the
+ * filters of the other facets but not its own, so that they tell what choosing another value would give.
+ *
+ * @param total      the number of books matching the whole filter
+ * @param languages  the books of each language, none missing
+ * @param publishers the books of the publishers with the most books, the most first
+ * @param years      the books of each year having some, in year order
+ */
+public record Facets(int total, Map<Book.Language, Integer> languages, Map<String, Integer> publishers,
+                     Map<Short, Integer> years) {
+}
@@ -0,0 +1,303 @@
+package fr.uga.l3miage.library.service.search;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The id of the book holding each ISBN, in primitive hash tables: an entry costs two longs, where a
+ * {@link java.util.concurrent.ConcurrentHashMap} costs two boxed keys and a node.
+ * <p>
+ * The table is split in segments, each an open addressing table with linear probing, its own lock and a load factor
+ * of at most a half. Lookups read a segment optimistically, without locking, and only take its read lock when a
+ * write went through meanwhile; writes of a segment are serialized, so that {@link #claim} is atomic. An ISBN of 0
+ * is no ISBN, it is never held.
+ */
+public final class IsbnIndex {
+
+    /* the id of an ISBN no book holds */
+    public static final long ABSENT = Long.MIN_VALUE;
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    public IsbnIndex() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Gives an ISBN to a book, unless another book holds it.
+     *
+     * @return the id of the book holding the ISBN, {@code id} when it was free or already held by that book
+     */
+    public long claim(long isbn, long id) {
+        if (isbn == 0) {
+            return id;
+        }
+        long hash = mix(isbn);
+        return segment(hash).claim(isbn, hash, id);
+    }
+
+    /**
+     * Gives an ISBN to a book, whichever held it, to rebuild the index from books already checked.
+     */
+    public void put(long isbn, long id) {
+        if (isbn != 0) {
+            long hash = mix(isbn);
+            segment(hash).put(isbn, hash, id);
+        }
+    }
+
+    /**
+     * Frees an ISBN, if the book still holds it.
+     */
+    public void release(long isbn, long id) {
+        if (isbn != 0) {
+            long hash = mix(isbn);
+            segment(hash).release(isbn, hash, id);
+        }
+    }
+
+    /**
+     * @return the id of the book holding the ISBN, {@link #ABSENT} if none does
+     */
+    public long get(long isbn) {
+        if (isbn == 0) {
+            return ABSENT;
+        }
+        long hash = mix(isbn);
+        return segment(hash).get(isbn, hash);
+    }
+
+    /**
+     * The ISBNs held by a book, in one pass over the ISBNs asked.
+     *
+     * @return the ISBNs held, in the order given
+     */
+    public long[] existing(long[] isbns) {
+        long[] found = new long[isbns.length];
+        int count = 0;
+        for (long isbn : isbns) {
+            if (get(isbn) != ABSENT) {
+                found[count++] = isbn;
+            }
+        }
+        return count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Frees every ISBN, to be called while nothing else reads or writes the index.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    private Segment segment(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreading the ISBNs, which are mostly consecutive, over the whole range.
+     */
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * The keys and values of a segment, replaced together when it grows, so that a reader never sees the keys of
+     * a table with the values of another.
+     */
+    private record Table(long[] keys, long[] ids) {
+
+        Table(int capacity) {
+            this(new long[capacity], new long[capacity]);
+        }
+
+        int mask() {
+            return keys.length - 1;
+        }
+    }
+
+    private static final class Segment {
+
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+        private volatile int size;
+
+        long get(long isbn, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            long id = find(table, isbn, hash);
+            if (lock.validate(stamp)) {
+                return id;
+            }
+            // a write went through, the probe may have missed the entry
+            stamp = lock.readLock();
+            try {
+                return find(table, isbn, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long claim(long isbn, long hash, long id) {
+            long stamp = lock.writeLock();
+            try {
+                long holder = find(table, isbn, hash);
+                if (holder != ABSENT) {
+                    return holder;
+                }
+                insert(isbn, hash, id);
+                return id;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void put(long isbn, long hash, long id) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                int slot = slot(current, isbn, hash);
+                if (current.keys()[slot] == isbn) {
+                    current.ids()[slot] = id;
+                } else {
+                    insert(isbn, hash, id);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void release(long isbn, long hash, long id) {
+            long stamp = lock.writeLock();
+            try {
+                Table current = table;
+                int slot = slot(current, isbn, hash);
+                if (current.keys()[slot] == isbn && current.ids()[slot] == id) {
+                    delete(current, slot);
+                    size--;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(INITIAL_CAPACITY);
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Inserts a key known to be absent, the write lock being held.
+         */
+        private void insert(long isbn, long hash, long id) {
+            Table current = table;
+            if ((size + 1) * 2 > current.keys().length) {
+                current = grow(current);
+            }
+            int slot = slot(current, isbn, hash);
+            current.ids()[slot] = id;
+            current.keys()[slot] = isbn;
+            size++;
+        }
+
+        /**
+         * Fills the table of twice the capacity before publishing it, readers keep probing the previous one.
+         */
+        private Table grow(Table current) {
+            Table grown = new Table(current.keys().length * 2);
+            for (int i = 0; i < current.keys().length; i++) {
+                long key = current.keys()[i];
+                if (key != 0) {
+                    int slot = slot(grown, key, mix(key));
+                    grown.keys()[slot] = key;
+                    grown.ids()[slot] = current.ids()[i];
+                }
+            }
+            table = grown;
+            return grown;
+        }
+
+        /**
+         * Removes the entry of a slot and shifts back the entries probed past it, so that no probe stops early and
+         * no tombstone is needed.
+         */
+        private static void delete(Table table, int slot) {
+            long[] keys = table.keys();
+            long[] ids = table.ids();
+            int mask = table.mask();
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (keys[next] != 0) {
+                int home = (int) mix(keys[next]) & mask;
+                // moves the entry into the hole unless its home lies between the hole and it
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    ids[hole] = ids[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = 0;
+            ids[hole] = 0;
+        }
+
+        /**
+         * The slot of a key, or the empty slot ending its probe.
+         */
+        private static int slot(Table table, long isbn, long hash) {
+            long[] keys = table.keys();
+            int mask = table.mask();
+            int slot = (int) hash & mask;
+            while (keys[slot] != 0 && keys[slot] != isbn) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Probes at most the whole table, as an optimistic read may see it while a write shifts its entries: the
+         * validation of the stamp then discards what was found.
+         */
+        private static long find(Table table, long isbn, long hash) {
+            long[] keys = table.keys();
+            int mask = table.mask();
+            int slot = (int) hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long key = keys[slot];
+                if (key == isbn) {
+                    return table.ids()[slot];
+                }
+                if (key == 0) {
+                    return ABSENT;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return ABSENT;
+        }
+    }
+}
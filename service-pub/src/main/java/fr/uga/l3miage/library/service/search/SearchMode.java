@@ -0,0 +1,23 @@
+package fr.uga.l3miage.library.service.search;
+
+/**
+ * How the words of a full-text query match the indexed terms.
+ */
+public enum SearchMode {
+
+    /**
+     * Each word matches the terms of the same stem: "programmes" finds "programme" and "programmation".
+     */
+    TERMS,
+
+    /**
+     * As {@link #TERMS}, the last word also matching the terms it starts, for type-ahead: "art of jav" finds "java".
+     */
+    PREFIX,
+
+    /**
+     * As {@link #TERMS}, each word also matching the terms within a few typos of it, ranked lower: "hibernat" and
+     * "hibrenate" find "hibernate".
+     */
+    FUZZY
+}
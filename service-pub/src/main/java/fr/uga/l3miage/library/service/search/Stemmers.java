@@ -0,0 +1,84 @@
+package fr.uga.l3miage.library.service.search;
+
+/**
+ * Light stemmers of folded words, removing the inflections (plural, feminine, verb endings) and a few derivations,
+ * so that the forms of a word share a term. They never shorten a word under {@value #MIN_STEM} letters.
+ * <p>
+ * Light stemmers merge fewer unrelated words than the full Porter or Snowball algorithms, which matters more on
+ * short texts such as titles than a few missed forms.
+ */
+final class Stemmers {
+
+    static final int MIN_STEM = 3;
+
+    private Stemmers() {
+        // static helpers only
+    }
+
+    /**
+     * "programming", "programmed" and "programs" stem to "program", "libraries" to "library".
+     */
+    static String english(String word) {
+        String stem = word;
+        if (stem.endsWith("ies") && stem.length() > 4 && !stem.endsWith("eies") && !stem.endsWith("aies")) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("es") && !stem.endsWith("aes") && !stem.endsWith("ees") && !stem.endsWith("oes")) {
+            stem = strip(stem, 1);
+        } else if (stem.endsWith("s") && !stem.endsWith("us") && !stem.endsWith("ss")) {
+            stem = strip(stem, 1);
+        }
+        if (stem.endsWith("ing")) {
+            stem = undouble(strip(stem, 3));
+        } else if (stem.endsWith("ed")) {
+            stem = undouble(strip(stem, 2));
+        } else if (stem.endsWith("ly")) {
+            stem = strip(stem, 2);
+        }
+        return stem;
+    }
+
+    /**
+     * "programmation", "programmer" and "programmes" stem to "program", "avancée" (folded "avancee") to "avanc",
+     * "chevaux" to "cheval".
+     */
+    static String french(String word) {
+        String stem = word;
+        if (stem.endsWith("aux") && stem.length() > 5) {
+            stem = stem.substring(0, stem.length() - 3) + "al";
+        } else if ((stem.endsWith("s") || stem.endsWith("x")) && !stem.endsWith("ss")) {
+            stem = strip(stem, 1);
+        }
+        if (stem.endsWith("ation")) {
+            stem = strip(stem, 5);
+        } else if (stem.endsWith("ement")) {
+            stem = strip(stem, 5);
+        }
+        if (stem.endsWith("ee")) {
+            stem = strip(stem, 2);
+        } else if (stem.endsWith("er")) {
+            stem = strip(stem, 2);
+        } else if (stem.endsWith("e")) {
+            stem = strip(stem, 1);
+        }
+        return undouble(stem);
+    }
+
+    /**
+     * The word without its last letters, unless the stem would get too short.
+     */
+    private static String strip(String word, int letters) {
+        return word.length() - letters >= MIN_STEM ? word.substring(0, word.length() - letters) : word;
+    }
+
+    /**
+     * "programm" to "program", the double consonant left by a removed ending.
+     */
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length > MIN_STEM + 1 && stem.charAt(length - 1) == stem.charAt(length - 2)
+                && "aeiouy".indexOf(stem.charAt(length - 1)) < 0 && Character.isLetter(stem.charAt(length - 1))) {
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,305 @@
+package fr.uga.l3miage.library.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The completions of the texts being typed, from a radix trie whose nodes hold the best {@value #K} completions of
+ * their subtree, so that a lookup only walks down the typed prefix and copies a precomputed array.
+ * <p>
+ * A text is indexed from each of its first {@value #MAX_WORDS} words, folded (see
+ * {@link fr.uga.l3miage.data.domain.SearchKeys}): "fowl" completes to "Martin Fowler". The shortest texts complete
+ * first, the closest to what is typed. The memory is bounded by these {@value #MAX_WORDS} keys per text, shared
+ * along their common prefixes, and {@value #K} references per node.
+ * <p>
+ * The nodes never change: a write copies the path it modifies and publishes a new root, which the readers pick up
+ * without locking. Writes are serialized.
+ */
+public final class SuggestIndex {
+
+    /* the completions precomputed per node, and so the most a lookup returns */
+    public static final int K = 10;
+    /* the words of a text it is completed from */
+    static final int MAX_WORDS = 5;
+
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingInt((Suggestion suggestion) -> suggestion.text().length())
+            .thenComparing(Suggestion::text)
+            .thenComparingLong(Suggestion::id);
+    private static final Suggestion[] NONE = {};
+    private static final char[] NO_CHARS = {};
+    private static final Node[] NO_CHILDREN = {};
+
+    private volatile Node root = new Node("", NO_CHARS, NO_CHILDREN, NONE, NONE);
+    /* the indexed texts, to find the keys to remove */
+    private final Map<Long, String> texts = new HashMap<>();
+
+    /**
+     * Indexes a text, replacing the previous text of the id.
+     *
+     * @param text the text to complete to, null to only remove the previous one
+     */
+    public synchronized void put(long id, String text) {
+        Node updated = root;
+        String previous = texts.remove(id);
+        if (previous != null) {
+            for (String key : keys(previous)) {
+                updated = remove(updated, key, 0, id, true);
+            }
+        }
+        if (text != null) {
+            Suggestion suggestion = new Suggestion(id, text);
+            for (String key : keys(text)) {
+                updated = insert(updated, key, 0, suggestion);
+            }
+            texts.put(id, text);
+        }
+        root = updated;
+    }
+
+    public void remove(long id) {
+        put(id, null);
+    }
+
+    public synchronized void clear() {
+        texts.clear();
+        root = new Node("", NO_CHARS, NO_CHILDREN, NONE, NONE);
+    }
+
+    public synchronized int size() {
+        return texts.size();
+    }
+
+    /**
+     * The best completions of a prefix.
+     *
+     * @param prefix what is typed so far, folded and split in words as the indexed texts
+     * @param limit  maximum number of completions, at most {@value #K}
+     * @return the completions, the shortest first
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        String key = String.join(" ", Analyzer.words(prefix));
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = node.child(key.charAt(depth));
+            if (child == null) {
+                return List.of();
+            }
+            String label = child.label;
+            int remaining = key.length() - depth;
+            if (remaining < label.length()) {
+                // the prefix ends inside the edge: the child subtree is exactly its completions
+                return label.startsWith(key.substring(depth)) ? first(child.top, limit) : List.of();
+            }
+            if (!key.startsWith(label, depth)) {
+                return List.of();
+            }
+            node = child;
+            depth += label.length();
+        }
+        return first(node.top, limit);
+    }
+
+    /**
+     * The keys of a text: the folded text from each of its first words on, its words separated by single spaces.
+     */
+    static Set<String> keys(String text) {
+        List<String> words = Analyzer.words(text);
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < Math.min(words.size(), MAX_WORDS); i++) {
+            keys.add(String.join(" ", words.subList(i, words.size())));
+        }
+        return keys;
+    }
+
+    private static List<Suggestion> first(Suggestion[] top, int limit) {
+        return List.of(Arrays.copyOf(top, Math.min(top.length, Math.max(limit, 0))));
+    }
+
+    /**
+     * @param node  the node of the prefix {@code key[0, depth)}
+     * @return a copy of the node with the suggestion under {@code key}
+     */
+    private static Node insert(Node node, String key, int depth, Suggestion suggestion) {
+        if (depth == key.length()) {
+            Suggestion[] terminal = Arrays.copyOf(node.terminal, node.terminal.length + 1);
+            terminal[node.terminal.length] = suggestion;
+            return new Node(node.label, node.firsts, node.children, terminal, merge(node.top, suggestion));
+        }
+        char c = key.charAt(depth);
+        int i = Arrays.binarySearch(node.firsts, c);
+        if (i < 0) {
+            Suggestion[] own = {suggestion};
+            Node leaf = new Node(key.substring(depth), NO_CHARS, NO_CHILDREN, own, own);
+            return node.withChild(-i - 1, c, leaf, true, merge(node.top, suggestion));
+        }
+        Node child = node.children[i];
+        int common = commonPrefix(child.label, key, depth);
+        if (common < child.label.length()) {
+            // splits the edge where the key leaves it
+            Node tail = child.withLabel(child.label.substring(common));
+            child = new Node(child.label.substring(0, common), new char[]{tail.label.charAt(0)}, new Node[]{tail},
+                    NONE, child.top);
+        }
+        Node inserted = insert(child, key, depth + common, suggestion);
+        return node.withChild(i, c, inserted, false, merge(node.top, suggestion));
+    }
+
+    /**
+     * @return a copy of the node without the suggestion of the id under {@code key}, null when left empty
+     */
+    private static Node remove(Node node, String key, int depth, long id, boolean isRoot) {
+        Suggestion[] terminal = node.terminal;
+        char[] firsts = node.firsts;
+        Node[] children = node.children;
+        if (depth == key.length()) {
+            terminal = Arrays.stream(terminal).filter(s -> s.id() != id).toArray(Suggestion[]::new);
+        } else {
+            int i = Arrays.binarySearch(firsts, key.charAt(depth));
+            if (i < 0 || !key.startsWith(children[i].label, depth)) {
+                return node;
+            }
+            Node child = remove(children[i], key, depth + children[i].label.length(), id, false);
+            if (child == null) {
+                firsts = remove(firsts, i);
+                children = remove(children, i);
+            } else {
+                children = children.clone();
+                children[i] = child;
+            }
+        }
+        if (!isRoot && terminal.length == 0) {
+            if (children.length == 0) {
+                return null;
+            }
+            if (children.length == 1) {
+                // nothing ends here any more, the edge joins the one below
+                return children[0].withLabel(node.label + children[0].label);
+            }
+        }
+        return new Node(node.label, firsts, children, terminal, top(terminal, children));
+    }
+
+    /**
+     * The best completions of a subtree, from its own suggestions and the best ones of its children, which hold
+     * every suggestion that can make it.
+     */
+    private static Suggestion[] top(Suggestion[] terminal, Node[] children) {
+        List<Suggestion> candidates = new ArrayList<>(Arrays.asList(terminal));
+        for (Node child : children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANKING);
+        Set<Long> ids = new HashSet<>();
+        List<Suggestion> top = new ArrayList<>(K);
+        for (Suggestion candidate : candidates) {
+            if (top.size() == K) {
+                break;
+            }
+            if (ids.add(candidate.id())) {
+                top.add(candidate);
+            }
+        }
+        return top.toArray(NONE);
+    }
+
+    private static Suggestion[] merge(Suggestion[] top, Suggestion suggestion) {
+        int position = 0;
+        for (Suggestion present : top) {
+            // a text indexed under several keys completes once
+            if (present.id() == suggestion.id()) {
+                return top;
+            }
+            if (RANKING.compare(present, suggestion) < 0) {
+                position++;
+            }
+        }
+        if (position == K) {
+            return top;
+        }
+        Suggestion[] merged = new Suggestion[Math.min(top.length + 1, K)];
+        System.arraycopy(top, 0, merged, 0, position);
+        merged[position] = suggestion;
+        System.arraycopy(top, position, merged, position + 1, merged.length - position - 1);
+        return merged;
+    }
+
+    private static int commonPrefix(String label, String key, int depth) {
+        int length = Math.min(label.length(), key.length() - depth);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(depth + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static char[] remove(char[] array, int i) {
+        char[] removed = new char[array.length - 1];
+        System.arraycopy(array, 0, removed, 0, i);
+        System.arraycopy(array, i + 1, removed, i, removed.length - i);
+        return removed;
+    }
+
+    private static Node[] remove(Node[] array, int i) {
+        Node[] removed = new Node[array.length - 1];
+        System.arraycopy(array, 0, removed, 0, i);
+        System.arraycopy(array, i + 1, removed, i, removed.length - i);
+        return removed;
+    }
+
+    /**
+     * A node of the trie, reached by the edge of its label; its children are sorted by the first char of theirs.
+     */
+    private static final class Node {
+        final String label;
+        final char[] firsts;
+        final Node[] children;
+        /* the suggestions whose key ends here */
+        final Suggestion[] terminal;
+        /* the best suggestions of the subtree, distinct by id */
+        final Suggestion[] top;
+
+        Node(String label, char[] firsts, Node[] children, Suggestion[] terminal, Suggestion[] top) {
+            this.label = label;
+            this.firsts = firsts;
+            this.children = children;
+            this.terminal = terminal;
+            this.top = top;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(firsts, c);
+            return i < 0 ? null : children[i];
+        }
+
+        Node withLabel(String label) {
+            return new Node(label, firsts, children, terminal, top);
+        }
+
+        Node withChild(int i, char c, Node child, boolean added, Suggestion[] top) {
+            char[] newFirsts = firsts;
+            Node[] newChildren;
+            if (added) {
+                newFirsts = new char[firsts.length + 1];
+                System.arraycopy(firsts, 0, newFirsts, 0, i);
+                newFirsts[i] = c;
+                System.arraycopy(firsts, i, newFirsts, i + 1, firsts.length - i);
+                newChildren = new Node[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, i);
+                newChildren[i] = child;
+                System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            } else {
+                newChildren = children.clone();
+                newChildren[i] = child;
+            }
+            return new Node(label, newFirsts, newChildren, terminal, top);
+        }
+    }
+}
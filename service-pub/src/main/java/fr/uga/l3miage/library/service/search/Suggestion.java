@@ -0,0 +1,7 @@
+package fr.uga.l3miage.library.service.search;
+
+/**
+ * A completion of what a user is typing: the id of an entity and the text it is known by, a name or a title.
+ */
+public record Suggestion(long id, String text) {
+}
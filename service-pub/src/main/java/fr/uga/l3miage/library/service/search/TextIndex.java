@@ -0,0 +1,260 @@
+package fr.uga.l3miage.library.service.search;
+
+import fr.uga.l3miage.data.domain.Book;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * An inverted index of texts ranking its matches by relevance with BM25.
+ * <p>
+ * A document has one or more fields, each term counting for the boost of its field, as in BM25F: a title term counts
+ * twice a publisher term. The score of a document is the sum, over the words of the query, of the best score of the
+ * terms the word matches (see {@link SearchMode}); a rare term weighs more than a common one and a term weighs more
+ * in a short document than in a long one.
+ * <p>
+ * Documents are indexed and removed one at a time, without rebuilding anything, and searched concurrently. Puts and
+ * removes of the same id must not race; callers serialize them as they do their other writes of that id.
+ */
+public final class TextIndex {
+
+    /* the usual BM25 parameters: term frequency saturation and length normalization */
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    /* terms a prefix may expand to, in the dictionary order */
+    static final int MAX_EXPANSIONS = 64;
+
+    /**
+     * A matching document and its score, higher is more relevant.
+     */
+    public record Hit(long id, double score) {
+    }
+
+    private record Document(Map<String, Float> frequencies, float length) {
+    }
+
+    private final float[] boosts;
+    private final ConcurrentMap<String, Map<Long, Float>> postings = new ConcurrentHashMap<>();
+    /* the terms of the postings, sorted for the prefix and fuzzy expansions */
+    private final NavigableSet<String> dictionary = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<Long, Document> documents = new ConcurrentHashMap<>();
+    private final DoubleAdder lengths = new DoubleAdder();
+
+    /**
+     * @param boosts the weight of a term in each field of the documents, in the order of the fields
+     */
+    public TextIndex(float... boosts) {
+        this.boosts = boosts.clone();
+    }
+
+    /**
+     * Indexes a document, replacing its previous version.
+     *
+     * @param language the language of the fields, null for names
+     * @param fields   the texts of the document, in the order of the boosts; null for an empty field
+     */
+    public void put(long id, Book.Language language, String... fields) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        for (int i = 0; i < fields.length; i++) {
+            for (String term : Analyzer.terms(fields[i], language)) {
+                frequencies.merge(term, boosts[i], Float::sum);
+                length += boosts[i];
+            }
+        }
+        Document document = new Document(frequencies, length);
+        Document previous = documents.put(id, document);
+        if (previous != null) {
+            unpost(id, previous);
+        }
+        post(id, document);
+    }
+
+    public void remove(long id) {
+        Document previous = documents.remove(id);
+        if (previous != null) {
+            unpost(id, previous);
+        }
+    }
+
+    public void clear() {
+        documents.clear();
+        postings.clear();
+        dictionary.clear();
+        lengths.reset();
+    }
+
+    public int documents() {
+        return documents.size();
+    }
+
+    public int terms() {
+        return dictionary.size();
+    }
+
+    /**
+     * The most relevant documents for a query.
+     *
+     * @param query any text, its words are analyzed as the indexed texts
+     * @param mode  how the words match the indexed terms
+     * @param limit maximum number of hits
+     * @return the hits, the most relevant first, the lowest id first among equal scores
+     */
+    public List<Hit> search(String query, SearchMode mode, int limit) {
+        int count = documents.size();
+        if (count == 0 || limit <= 0) {
+            return List.of();
+        }
+        double averageLength = Math.max(lengths.sum() / count, 1);
+        List<String> words = Analyzer.queryWords(query, mode);
+        Map<Long, Double> scores = new HashMap<>();
+        for (int i = 0; i < words.size(); i++) {
+            Map<String, Double> terms = expand(words.get(i), mode, i == words.size() - 1);
+            // a document matching several forms of a word counts the best one only
+            Map<Long, Double> best = new HashMap<>();
+            terms.forEach((term, weight) -> {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting == null) {
+                    return;
+                }
+                double idf = Math.log(1 + (count - posting.size() + 0.5) / (posting.size() + 0.5));
+                posting.forEach((id, frequency) -> {
+                    Document document = documents.get(id);
+                    if (document != null) {
+                        double norm = K1 * (1 - B + B * document.length() / averageLength);
+                        double score = weight * idf * frequency * (K1 + 1) / (frequency + norm);
+                        best.merge(id, score, Math::max);
+                    }
+                });
+            });
+            best.forEach((id, score) -> scores.merge(id, score, Double::sum));
+        }
+        return top(scores, limit);
+    }
+
+    /**
+     * The indexed terms a query word matches, with their weight: 1 for its own forms, less for its typos.
+     */
+    private Map<String, Double> expand(String word, SearchMode mode, boolean last) {
+        Map<String, Double> terms = new HashMap<>();
+        for (String variant : Analyzer.variants(word)) {
+            terms.put(variant, 1.0);
+        }
+        if (mode == SearchMode.PREFIX && last) {
+            int expansions = 0;
+            for (String term : dictionary.subSet(word, true, word + Character.MAX_VALUE, false)) {
+                if (++expansions > MAX_EXPANSIONS) {
+                    break;
+                }
+                terms.putIfAbsent(term, 1.0);
+            }
+        } else if (mode == SearchMode.FUZZY) {
+            for (String variant : Analyzer.variants(word)) {
+                int maxEdits = maxEdits(variant.length());
+                if (maxEdits == 0) {
+                    continue;
+                }
+                // typos rarely hit the first letter, which bounds the terms to compare
+                String first = variant.substring(0, 1);
+                for (String term : dictionary.subSet(first, true, first + Character.MAX_VALUE, false)) {
+                    if (Math.abs(term.length() - variant.length()) <= maxEdits) {
+                        int edits = distance(variant, term, maxEdits);
+                        if (edits <= maxEdits) {
+                            terms.merge(term, 1.0 / (1 + edits), Math::max);
+                        }
+                    }
+                }
+            }
+        }
+        return terms;
+    }
+
+    private void post(long id, Document document) {
+        lengths.add(document.length());
+        document.frequencies().forEach((term, frequency) -> postings.compute(term, (t, posting) -> {
+            if (posting == null) {
+                posting = new ConcurrentHashMap<>();
+                dictionary.add(t);
+            }
+            posting.put(id, frequency);
+            return posting;
+        }));
+    }
+
+    private void unpost(long id, Document document) {
+        lengths.add(-document.length());
+        document.frequencies().keySet().forEach(term -> postings.computeIfPresent(term, (t, posting) -> {
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                dictionary.remove(t);
+                return null;
+            }
+            return posting;
+        }));
+    }
+
+    /**
+     * The typos allowed in a word: none in the short words, where one would match too many terms.
+     */
+    static int maxEdits(int length) {
+        return length <= 3 ? 0 : length <= 6 ? 1 : 2;
+    }
+
+    /**
+     * The Levenshtein distance of two words, or {@code max + 1} as soon as it exceeds {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * The best hits, kept in a heap of {@code limit} entries rather than sorting all the matches.
+     */
+    private static List<Hit> top(Map<Long, Double> scores, int limit) {
+        Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparingLong(Hit::id);
+        // the worst of the kept hits at the head
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, ranking.reversed());
+        scores.forEach((id, score) -> {
+            Hit hit = new Hit(id, score);
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (ranking.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        });
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(ranking);
+        return hits;
+    }
+}